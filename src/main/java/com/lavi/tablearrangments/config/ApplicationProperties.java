@@ -1,5 +1,8 @@
 package com.lavi.tablearrangments.config;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -13,12 +16,18 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
 
+    private final Solver solver = new Solver();
+
     // jhipster-needle-application-properties-property
 
     public Liquibase getLiquibase() {
         return liquibase;
     }
 
+    public Solver getSolver() {
+        return solver;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
     public static class Liquibase {
@@ -33,5 +42,259 @@ public class ApplicationProperties {
             this.asyncStart = asyncStart;
         }
     }
+
+    public static class Solver {
+
+        /** Number of assignment jobs solved concurrently. */
+        private int jobPoolSize = 2;
+
+        /** Number of submitted assignment jobs that may wait for a free worker. */
+        private int jobQueueCapacity = 20;
+
+        /** Number of threads sending progress updates to subscribers; a stalled subscriber holds at most one of them. */
+        private int progressPoolSize = 4;
+
+        /** How long finished assignment jobs are kept for status and result requests. */
+        private Duration jobRetention = Duration.ofHours(1);
+
+        /** Default wall-clock budget of a solve; zero disables the limit. */
+        private Duration timeBudget = Duration.ofSeconds(60);
+
+        /** Default maximum number of search nodes of a solve; zero disables the limit. */
+        private long nodeLimit = 0;
+
+        /** Number of portfolio search workers per solve; zero uses one per available processor. */
+        private int parallelism = 1;
+
+        /** How the search divides a solve: parallel workers when the parallelism is above one, or large neighborhood search. */
+        private SearchMode searchMode = SearchMode.PORTFOLIO;
+
+        /** Whether every placement penalty is logged term by term at DEBUG; meant for diagnosing scores, not for production. */
+        private boolean penaltyDiagnostics = false;
+
+        /** Number of top levels of the search tree forked as subtree tasks in {@link SearchMode#SUBTREE_SPLIT} mode. */
+        private int splitDepth = 3;
+
+        /** Number of related tables emptied and re-seated by each step of {@link SearchMode#LNS} mode. */
+        private int lnsNeighborhoodTables = 8;
+
+        /** Longest improvement phase run after the search, taken out of the time budget; zero disables it. */
+        private Duration localSearchTime = Duration.ofSeconds(5);
+
+        /** Number of full solve results kept for identical problems, least recently used evicted first; zero disables the cache. */
+        private int resultCacheSize = 100;
+
+        /** Weights of the default scoring model, with optional per-event overrides. */
+        private final Scoring scoring = new Scoring();
+
+        /**
+         * How parallel search workers divide a solve.
+         */
+        public enum SearchMode {
+            /** Independent searches with different orderings, sharing the incumbent. */
+            PORTFOLIO,
+            /** One search whose first choices are forked as work-stealing subtree tasks. */
+            SUBTREE_SPLIT,
+            /** Large neighborhood search: repeatedly empties related tables and re-seats them by backtracking, for large events. */
+            LNS,
+        }
+
+        public int getJobPoolSize() {
+            return jobPoolSize;
+        }
+
+        public void setJobPoolSize(int jobPoolSize) {
+            this.jobPoolSize = jobPoolSize;
+        }
+
+        public int getJobQueueCapacity() {
+            return jobQueueCapacity;
+        }
+
+        public void setJobQueueCapacity(int jobQueueCapacity) {
+            this.jobQueueCapacity = jobQueueCapacity;
+        }
+
+        public int getProgressPoolSize() {
+            return progressPoolSize;
+        }
+
+        public void setProgressPoolSize(int progressPoolSize) {
+            this.progressPoolSize = progressPoolSize;
+        }
+
+        public Duration getJobRetention() {
+            return jobRetention;
+        }
+
+        public void setJobRetention(Duration jobRetention) {
+            this.jobRetention = jobRetention;
+        }
+
+        public Duration getTimeBudget() {
+            return timeBudget;
+        }
+
+        public void setTimeBudget(Duration timeBudget) {
+            this.timeBudget = timeBudget;
+        }
+
+        public long getNodeLimit() {
+            return nodeLimit;
+        }
+
+        public void setNodeLimit(long nodeLimit) {
+            this.nodeLimit = nodeLimit;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public SearchMode getSearchMode() {
+            return searchMode;
+        }
+
+        public void setSearchMode(SearchMode searchMode) {
+            this.searchMode = searchMode;
+        }
+
+        public boolean isPenaltyDiagnostics() {
+            return penaltyDiagnostics;
+        }
+
+        public void setPenaltyDiagnostics(boolean penaltyDiagnostics) {
+            this.penaltyDiagnostics = penaltyDiagnostics;
+        }
+
+        public int getSplitDepth() {
+            return splitDepth;
+        }
+
+        public void setSplitDepth(int splitDepth) {
+            this.splitDepth = splitDepth;
+        }
+
+        public int getLnsNeighborhoodTables() {
+            return lnsNeighborhoodTables;
+        }
+
+        public void setLnsNeighborhoodTables(int lnsNeighborhoodTables) {
+            this.lnsNeighborhoodTables = lnsNeighborhoodTables;
+        }
+
+        public Duration getLocalSearchTime() {
+            return localSearchTime;
+        }
+
+        public void setLocalSearchTime(Duration localSearchTime) {
+            this.localSearchTime = localSearchTime;
+        }
+
+        public int getResultCacheSize() {
+            return resultCacheSize;
+        }
+
+        public void setResultCacheSize(int resultCacheSize) {
+            this.resultCacheSize = resultCacheSize;
+        }
+
+        public Scoring getScoring() {
+            return scoring;
+        }
+
+        public static class Scoring {
+
+            /** Weights used for every event without an override. */
+            private final ScoringWeights defaults = new ScoringWeights(200, 250, 150, 50, 10);
+
+            /** Per-event overrides keyed by event id; unset weights fall back to the defaults. */
+            private Map<Long, ScoringWeights> events = new HashMap<>();
+
+            public ScoringWeights getDefaults() {
+                return defaults;
+            }
+
+            public Map<Long, ScoringWeights> getEvents() {
+                return events;
+            }
+
+            public void setEvents(Map<Long, ScoringWeights> events) {
+                this.events = events;
+            }
+        }
+
+        public static class ScoringWeights {
+
+            /** Penalty for seating a group that wants to be near the stage at a table that is not. */
+            private Integer nearStagePenalty;
+
+            /** Bonus per guest at the table sharing the group's relation. */
+            private Integer relationBonus;
+
+            /** Bonus per guest at the table preferred by the group. */
+            private Integer preferredGuestBonus;
+
+            /** Bonus per guest at the table on the group's side. */
+            private Integer sideBonus;
+
+            /** Factor of the cube of the seats left empty at the table. */
+            private Integer emptySeatFactor;
+
+            public ScoringWeights() {}
+
+            public ScoringWeights(int nearStagePenalty, int relationBonus, int preferredGuestBonus, int sideBonus, int emptySeatFactor) {
+                this.nearStagePenalty = nearStagePenalty;
+                this.relationBonus = relationBonus;
+                this.preferredGuestBonus = preferredGuestBonus;
+                this.sideBonus = sideBonus;
+                this.emptySeatFactor = emptySeatFactor;
+            }
+
+            public Integer getNearStagePenalty() {
+                return nearStagePenalty;
+            }
+
+            public void setNearStagePenalty(Integer nearStagePenalty) {
+                this.nearStagePenalty = nearStagePenalty;
+            }
+
+            public Integer getRelationBonus() {
+                return relationBonus;
+            }
+
+            public void setRelationBonus(Integer relationBonus) {
+                this.relationBonus = relationBonus;
+            }
+
+            public Integer getPreferredGuestBonus() {
+                return preferredGuestBonus;
+            }
+
+            public void setPreferredGuestBonus(Integer preferredGuestBonus) {
+                this.preferredGuestBonus = preferredGuestBonus;
+            }
+
+            public Integer getSideBonus() {
+                return sideBonus;
+            }
+
+            public void setSideBonus(Integer sideBonus) {
+                this.sideBonus = sideBonus;
+            }
+
+            public Integer getEmptySeatFactor() {
+                return emptySeatFactor;
+            }
+
+            public void setEmptySeatFactor(Integer emptySeatFactor) {
+                this.emptySeatFactor = emptySeatFactor;
+            }
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
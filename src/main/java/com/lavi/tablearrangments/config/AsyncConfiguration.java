@@ -9,6 +9,7 @@ import org.springframework.boot.autoconfigure.task.TaskExecutionProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
@@ -25,8 +26,11 @@ public class AsyncConfiguration implements AsyncConfigurer {
 
     private final TaskExecutionProperties taskExecutionProperties;
 
-    public AsyncConfiguration(TaskExecutionProperties taskExecutionProperties) {
+    private final ApplicationProperties applicationProperties;
+
+    public AsyncConfiguration(TaskExecutionProperties taskExecutionProperties, ApplicationProperties applicationProperties) {
         this.taskExecutionProperties = taskExecutionProperties;
+        this.applicationProperties = applicationProperties;
     }
 
     @Override
@@ -41,6 +45,36 @@ public class AsyncConfiguration implements AsyncConfigurer {
         return new ExceptionHandlingAsyncTaskExecutor(executor);
     }
 
+    /**
+     * Bounded executor running seating assignment jobs, so long solves never occupy request threads
+     * and a burst of submissions is rejected instead of queuing without limit.
+     */
+    @Bean(name = "assignmentTaskExecutor")
+    public AsyncTaskExecutor assignmentTaskExecutor() {
+        LOG.debug("Creating Assignment Task Executor");
+        ApplicationProperties.Solver solver = applicationProperties.getSolver();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(solver.getJobPoolSize());
+        executor.setMaxPoolSize(solver.getJobPoolSize());
+        executor.setQueueCapacity(solver.getJobQueueCapacity());
+        executor.setThreadNamePrefix("table-arrangments-assignment-");
+        return executor;
+    }
+
+    /**
+     * Executor sending job progress to subscribers, so a slow client never holds up the scheduler thread.
+     * Each subscriber has at most one send queued or running, which bounds the queue by the number of subscribers.
+     */
+    @Bean(name = "progressTaskExecutor")
+    public AsyncTaskExecutor progressTaskExecutor() {
+        LOG.debug("Creating Progress Task Executor");
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(applicationProperties.getSolver().getProgressPoolSize());
+        executor.setMaxPoolSize(applicationProperties.getSolver().getProgressPoolSize());
+        executor.setThreadNamePrefix("table-arrangments-progress-");
+        return executor;
+    }
+
     @Override
     public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
         return new SimpleAsyncUncaughtExceptionHandler();
@@ -3,8 +3,11 @@ package com.lavi.tablearrangments.config;
 import java.time.Duration;
 import org.ehcache.config.builders.*;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.boot.info.GitProperties;
 import org.springframework.cache.annotation.EnableCaching;
@@ -20,8 +23,10 @@ public class CacheConfiguration {
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
     private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
+    private final javax.cache.configuration.Configuration<Object, Object> solveResultsConfiguration;
+    private final javax.cache.configuration.Configuration<Object, Object> updateTimestampsConfiguration;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
 
         jcacheConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
@@ -33,6 +38,34 @@ public class CacheConfiguration {
                 .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
                 .build()
         );
+
+        // Solve results only depend on their fingerprint, so they never expire and are evicted by size alone.
+        int resultCacheSize = applicationProperties.getSolver().getResultCacheSize();
+        solveResultsConfiguration = resultCacheSize > 0
+            ? Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(
+                    Object.class,
+                    Object.class,
+                    ResourcePoolsBuilder.heap(resultCacheSize)
+                ).build()
+            )
+            : null;
+
+        // A cached query is only checked against the update timestamps of its tables, so they must outlive every cached
+        // query result: an expired or evicted timestamp would let a stale result through. There is one entry per table.
+        updateTimestampsConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(Long.MAX_VALUE))
+                .withExpiry(ExpiryPolicyBuilder.noExpiration())
+                .build()
+        );
+    }
+
+    /**
+     * Backs the Hibernate second-level and query caches with the regions created below.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer hibernatePropertiesCustomizer(javax.cache.CacheManager cacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
     }
 
     @Bean
@@ -48,17 +81,32 @@ public class CacheConfiguration {
             createCache(cm, com.lavi.tablearrangments.domain.Guest.class.getName() + ".avoidedBies");
             createCache(cm, com.lavi.tablearrangments.domain.Guest.class.getName() + ".preferredBies");
             createCache(cm, com.lavi.tablearrangments.domain.SeatingTable.class.getName());
+            createCache(cm, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+            createCache(cm, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, updateTimestampsConfiguration);
+            if (solveResultsConfiguration != null) {
+                createCache(cm, com.lavi.tablearrangments.service.GuestAssignmentService.SOLVE_RESULTS_CACHE, solveResultsConfiguration);
+            }
             // jhipster-needle-ehcache-add-entry
         };
     }
 
     private void createCache(javax.cache.CacheManager cm, String cacheName) {
+        createCache(cm, cacheName, jcacheConfiguration);
+    }
+
+    private void createCache(
+        javax.cache.CacheManager cm,
+        String cacheName,
+        javax.cache.configuration.Configuration<Object, Object> configuration
+    ) {
         javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(cacheName, configuration);
         }
+        // Exposes hits and misses of every region as cache.gets metrics.
+        cm.enableStatistics(cacheName, true);
     }
 
     @Autowired(required = false)
@@ -10,12 +10,15 @@ import jakarta.validation.constraints.*;
 import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * A Guest.
  */
 @Entity
 @Table(name = "guest")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Guest implements Serializable {
 
@@ -72,6 +75,7 @@ public class Guest implements Serializable {
         joinColumns = @JoinColumn(name = "guest_id"),
         inverseJoinColumns = @JoinColumn(name = "avoid_guests_id")
     )
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonIgnoreProperties(value = { "event", "table", "avoidGuests", "preferGuests", "avoidedBies", "preferredBies" }, allowSetters = true)
     private Set<Guest> avoidGuests = new HashSet<>();
 
@@ -81,16 +85,19 @@ public class Guest implements Serializable {
         joinColumns = @JoinColumn(name = "guest_id"),
         inverseJoinColumns = @JoinColumn(name = "prefer_guests_id")
     )
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonIgnoreProperties(value = { "event", "table", "avoidGuests", "preferGuests", "avoidedBies", "preferredBies" }, allowSetters = true)
     private Set<Guest> preferGuests = new HashSet<>();
 
     @JsonIgnore
     @ManyToMany(fetch = FetchType.LAZY, mappedBy = "avoidGuests")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonIgnoreProperties(value = { "event", "table", "avoidGuests", "preferGuests", "avoidedBies", "preferredBies" }, allowSetters = true)
     private Set<Guest> avoidedBies = new HashSet<>();
 
     @JsonIgnore
     @ManyToMany(fetch = FetchType.LAZY, mappedBy = "preferGuests")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonIgnoreProperties(value = { "event", "table", "avoidGuests", "preferGuests", "avoidedBies", "preferredBies" }, allowSetters = true)
     private Set<Guest> preferredBies = new HashSet<>();
 
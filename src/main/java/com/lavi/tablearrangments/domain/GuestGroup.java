@@ -1,17 +1,34 @@
 package com.lavi.tablearrangments.domain;
 
+import com.carrotsearch.hppc.LongHashSet;
 import java.util.*;
 import java.util.stream.Collectors;
 
 /**
  * Represents a group of guests, typically related by family or seating preference.
- * Used to manage assignment constraints collectively, and maintains its own domain
- * of possible seating tables for constraint satisfaction algorithms.
+ * Used to manage assignment constraints collectively.
+ * <p>
+ * A group is an immutable value for the duration of a solve: its guests are fixed and the facts the
+ * search asks about on every node (seats, accessibility, stage proximity, relation, side, internal conflicts)
+ * are computed once in the constructor, so reading them is a field read. Groups compare by identity.
+ * <p>
+ * Once the groups of a solve are final, each is numbered with {@link #withId(int)} by its position in the
+ * solve's list, which lets the search index its arrays by {@link #getId()} without a map lookup.
  */
 public class GuestGroup {
 
+    /** Id of a group that has not been numbered. */
+    public static final int NO_ID = -1;
+
+    private final int id;
     private final List<Guest> guests;
-    private Set<SeatingTable> domain = new HashSet<>();
+    private final int totalSeats;
+    private final boolean requiresAccessibility;
+    private final boolean requiresNearStage;
+    private final String relation;
+    private final String dominantSide;
+    private final String names;
+    private final boolean internalConflict;
 
     /**
      * Constructor to create a guest group.
@@ -19,43 +36,53 @@ public class GuestGroup {
      * @param guests List of guests in this group.
      */
     public GuestGroup(List<Guest> guests) {
-        this.guests = guests;
+        this(NO_ID, guests);
     }
 
     /**
-     * Gets the guests in this group.
+     * Constructor to create a numbered guest group.
      *
-     * @return List of guests.
+     * @param id     The dense id of the group within its solve.
+     * @param guests List of guests in this group.
      */
-    public List<Guest> getGuests() {
-        return guests;
+    public GuestGroup(int id, List<Guest> guests) {
+        this.id = id;
+        this.guests = List.copyOf(guests);
+        this.totalSeats = this.guests.stream().mapToInt(Guest::getNumberOfSeats).sum();
+        this.requiresAccessibility = this.guests.stream().anyMatch(g -> Boolean.TRUE.equals(g.getAccessibility()));
+        this.requiresNearStage = this.guests.stream().anyMatch(g -> Boolean.TRUE.equals(g.getNearStage()));
+        this.relation = this.guests.isEmpty() || this.guests.get(0).getRelation() == null ? null : this.guests.get(0).getRelation().name();
+        this.dominantSide = this.guests.stream().map(Guest::getSide).filter(Objects::nonNull).map(Enum::name).findFirst().orElse(null);
+        this.names = this.guests.stream().map(Guest::getLastNameAndFirstName).collect(Collectors.joining(", "));
+        this.internalConflict = findInternalConflict(this.guests);
     }
 
     /**
-     * Sets the domain of possible seating tables for this group.
+     * Returns a copy of this group with the given dense id.
      *
-     * @param domain Set of possible seating tables.
+     * @param id The position of the group in the solve's list of groups.
+     * @return The numbered group.
      */
-    public void setDomain(Set<SeatingTable> domain) {
-        this.domain = domain;
+    public GuestGroup withId(int id) {
+        return new GuestGroup(id, guests);
     }
 
     /**
-     * Gets the current domain of possible seating tables.
+     * Gets the dense id of this group within its solve.
      *
-     * @return Set of possible seating tables.
+     * @return The id, or {@link #NO_ID} if the group has not been numbered.
      */
-    public Set<SeatingTable> getDomain() {
-        return domain;
+    public int getId() {
+        return id;
     }
 
     /**
-     * Removes a table from this group's domain.
+     * Gets the guests in this group.
      *
-     * @param table The table to remove.
+     * @return Unmodifiable list of guests.
      */
-    public void removeFromDomain(SeatingTable table) {
-        domain.remove(table);
+    public List<Guest> getGuests() {
+        return guests;
     }
 
     /**
@@ -64,12 +91,25 @@ public class GuestGroup {
      * @return true if any guest in the group should avoid another guest in the same group.
      */
     public boolean hasInternalConflict() {
-        for (Guest guest1 : guests) {
-            for (Guest guest2 : guests) {
-                if (!guest1.equals(guest2)) {
-                    if (guest1.getAvoidGuests().contains(guest2) || guest2.getAvoidGuests().contains(guest1)) {
-                        return true;
-                    }
+        return internalConflict;
+    }
+
+    /**
+     * Looks for a guest avoiding another member by id, so the check is linear in the avoidance links
+     * rather than quadratic in the group size times the size of each avoid set.
+     */
+    private static boolean findInternalConflict(List<Guest> guests) {
+        LongHashSet memberIds = new LongHashSet(guests.size());
+        for (Guest guest : guests) {
+            if (guest.getId() != null) {
+                memberIds.add(guest.getId());
+            }
+        }
+        for (Guest guest : guests) {
+            for (Guest avoided : guest.getAvoidGuests()) {
+                Long id = avoided.getId();
+                if (id != null && !id.equals(guest.getId()) && memberIds.contains(id)) {
+                    return true;
                 }
             }
         }
@@ -77,21 +117,21 @@ public class GuestGroup {
     }
 
     /**
-     * Calculates the total number of seats required by this group.
+     * Gets the total number of seats required by this group.
      *
      * @return Total number of seats needed for this group.
      */
     public int getTotalSeats() {
-        return guests.stream().mapToInt(Guest::getNumberOfSeats).sum();
+        return totalSeats;
     }
 
     /**
-     * Concatenates the names of all guests in the group.
+     * Gets the names of all guests in the group.
      *
      * @return A string containing the full names of all guests, separated by commas.
      */
     public String getNames() {
-        return guests.stream().map(Guest::getLastNameAndFirstName).collect(Collectors.joining(", "));
+        return names;
     }
 
     /**
@@ -100,7 +140,7 @@ public class GuestGroup {
      * @return true if at least one guest requires accessibility.
      */
     public boolean requiresAccessibility() {
-        return guests.stream().anyMatch(g -> Boolean.TRUE.equals(g.getAccessibility()));
+        return requiresAccessibility;
     }
 
     /**
@@ -109,19 +149,24 @@ public class GuestGroup {
      * @return true if at least one guest prefers near-stage seating.
      */
     public boolean requiresNearStage() {
-        return guests.stream().anyMatch(g -> Boolean.TRUE.equals(g.getNearStage()));
+        return requiresNearStage;
     }
 
     /**
      * Gets the relation type of the group based on the first guest.
      *
-     * @return The relation name of the first guest, or null if the group is empty.
+     * @return The relation name of the first guest, or null if the group is empty or the guest has none.
      */
     public String getRelation() {
-        return guests.isEmpty() ? null : guests.get(0).getRelation().name();
+        return relation;
     }
 
+    /**
+     * Gets the side of the first guest in the group that has one.
+     *
+     * @return The side name, or null if no guest has a side.
+     */
     public String getDominantSide() {
-        return this.getGuests().stream().map(Guest::getSide).filter(Objects::nonNull).map(Enum::name).findFirst().orElse(null);
+        return dominantSide;
     }
 }
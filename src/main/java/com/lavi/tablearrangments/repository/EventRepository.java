@@ -1,8 +1,10 @@
 package com.lavi.tablearrangments.repository;
 
 import com.lavi.tablearrangments.domain.Event;
+import jakarta.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
@@ -17,6 +19,9 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     @Query("select event from Event event where event.user.login = ?#{authentication.name}")
     List<Event> findByUserIsCurrentUser();
 
+    @Query("select count(event) > 0 from Event event where event.id = :id and event.user.login = ?#{authentication.name}")
+    boolean existsByIdAndUserIsCurrentUser(@Param("id") Long id);
+
     default Optional<Event> findOneWithEagerRelationships(Long id) {
         return this.findOneWithToOneRelationships(id);
     }
@@ -42,5 +47,6 @@ public interface EventRepository extends JpaRepository<Event, Long> {
         value = "select event from Event event left join fetch event.user where event.user.login = ?#{authentication.name}",
         countQuery = "select count(event) from Event event where event.user.login = ?#{authentication.name}"
     )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Page<Event> findAllByUserIsCurrentUser(Pageable pageable);
 }
@@ -0,0 +1,9 @@
+package com.lavi.tablearrangments.repository;
+
+/**
+ * A row of one of the guest join tables, as a pair of guest ids.
+ *
+ * @param guestId      the id of the guest owning the link.
+ * @param otherGuestId the id of the avoided or preferred guest.
+ */
+public record GuestLink(Long guestId, Long otherGuestId) {}
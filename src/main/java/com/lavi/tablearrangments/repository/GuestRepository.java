@@ -1,8 +1,14 @@
 package com.lavi.tablearrangments.repository;
 
+import com.lavi.tablearrangments.domain.Event;
 import com.lavi.tablearrangments.domain.Guest;
+import com.lavi.tablearrangments.domain.SeatingTable;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
@@ -16,7 +22,7 @@ import org.springframework.stereotype.Repository;
  * For more information refer to https://github.com/jhipster/generator-jhipster/issues/17990.
  */
 @Repository
-public interface GuestRepository extends GuestRepositoryWithBagRelationships, JpaRepository<Guest, Long> {
+public interface GuestRepository extends GuestRepositoryWithBagRelationships, GuestRepositoryWithLinkCaches, JpaRepository<Guest, Long> {
     default Optional<Guest> findOneWithEagerRelationships(Long id) {
         return this.fetchBagRelationships(this.findOneWithToOneRelationships(id));
     }
@@ -33,8 +39,40 @@ public interface GuestRepository extends GuestRepositoryWithBagRelationships, Jp
         value = "select guest from Guest guest left join fetch guest.event left join fetch guest.table where guest.event.user.login = ?#{authentication.name}",
         countQuery = "select count(guest) from Guest guest where guest.event.user.login = ?#{authentication.name}"
     )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Page<Guest> findAllByEventUserIsCurrentUser(Pageable pageable);
 
+    /**
+     * Loads the next keyset page of the current user's guests in id order.
+     *
+     * @param id       the id of the last guest of the previous page, or zero for the first page.
+     * @param pageable the page size; the offset is ignored.
+     * @return the guests after the given id.
+     */
+    @Query(
+        "select guest from Guest guest left join fetch guest.event left join fetch guest.table " +
+        "where guest.event.user.login = ?#{authentication.name} and guest.id > :id order by guest.id"
+    )
+    List<Guest> findAllAfterIdByEventUserIsCurrentUser(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Loads the next keyset page of the current user's guests in name order, ties broken by id.
+     *
+     * @param name     the name of the last guest of the previous page, or the empty string for the first page.
+     * @param id       the id of the last guest of the previous page, or zero for the first page.
+     * @param pageable the page size; the offset is ignored.
+     * @return the guests after the given name and id.
+     */
+    @Query(
+        "select guest from Guest guest left join fetch guest.event left join fetch guest.table " +
+        "where guest.event.user.login = ?#{authentication.name} and (guest.lastNameAndFirstName > :name " +
+        "or (guest.lastNameAndFirstName = :name and guest.id > :id)) order by guest.lastNameAndFirstName, guest.id"
+    )
+    List<Guest> findAllAfterNameByEventUserIsCurrentUser(@Param("name") String name, @Param("id") Long id, Pageable pageable);
+
+    @Query("select count(guest) from Guest guest where guest.event.user.login = ?#{authentication.name}")
+    long countByEventUserIsCurrentUser();
+
     @Query(
         value = "select guest from Guest guest left join fetch guest.event left join fetch guest.table",
         countQuery = "select count(guest) from Guest guest"
@@ -47,7 +85,140 @@ public interface GuestRepository extends GuestRepositoryWithBagRelationships, Jp
     @Query("select guest from Guest guest left join fetch guest.event left join fetch guest.table where guest.id =:id")
     Optional<Guest> findOneWithToOneRelationships(@Param("id") Long id);
 
-    @EntityGraph(attributePaths = { "preferGuests", "avoidGuests" })
-    @Query("select g from Guest g left join fetch g.event where g.event.user.login = ?#{authentication.name}")
-    List<Guest> findAllByEventUserIsCurrentUserList();
+    /**
+     * Loads the solver columns of every guest of the current user as flat rows, without loading entities.
+     *
+     * @return one row per guest.
+     */
+    @Query(
+        "select new com.lavi.tablearrangments.repository.GuestSolverRow(g.id, g.lastNameAndFirstName, g.numberOfSeats, g.nearStage, " +
+        "g.status, g.side, g.relation, g.accessibility, e.id, t.id) " +
+        "from Guest g join g.event e left join g.table t where e.user.login = ?#{authentication.name} order by g.id"
+    )
+    List<GuestSolverRow> findSolverRowsByEventUserIsCurrentUser();
+
+    /**
+     * Loads the avoidance links of the current user's guests as id pairs.
+     *
+     * @return one pair per row of the avoid join table.
+     */
+    @Query(
+        "select new com.lavi.tablearrangments.repository.GuestLink(g.id, a.id) " +
+        "from Guest g join g.avoidGuests a where g.event.user.login = ?#{authentication.name}"
+    )
+    List<GuestLink> findAvoidLinksByEventUserIsCurrentUser();
+
+    /**
+     * Loads the preference links of the current user's guests as id pairs.
+     *
+     * @return one pair per row of the prefer join table.
+     */
+    @Query(
+        "select new com.lavi.tablearrangments.repository.GuestLink(g.id, p.id) " +
+        "from Guest g join g.preferGuests p where g.event.user.login = ?#{authentication.name}"
+    )
+    List<GuestLink> findPreferLinksByEventUserIsCurrentUser();
+
+    /**
+     * Loads the solver columns of every guest of one event of the current user as flat rows, without loading entities.
+     *
+     * @param eventId the id of the event.
+     * @return one row per guest, or none if the event does not belong to the current user.
+     */
+    @Query(
+        "select new com.lavi.tablearrangments.repository.GuestSolverRow(g.id, g.lastNameAndFirstName, g.numberOfSeats, g.nearStage, " +
+        "g.status, g.side, g.relation, g.accessibility, e.id, t.id) " +
+        "from Guest g join g.event e left join g.table t where e.id = :eventId and e.user.login = ?#{authentication.name} order by g.id"
+    )
+    List<GuestSolverRow> findSolverRowsByEventIdAndEventUserIsCurrentUser(@Param("eventId") Long eventId);
+
+    /**
+     * Loads the avoidance links of the guests of one event of the current user as id pairs.
+     *
+     * @param eventId the id of the event.
+     * @return one pair per row of the avoid join table owned by a guest of the event.
+     */
+    @Query(
+        "select new com.lavi.tablearrangments.repository.GuestLink(g.id, a.id) " +
+        "from Guest g join g.avoidGuests a where g.event.id = :eventId and g.event.user.login = ?#{authentication.name}"
+    )
+    List<GuestLink> findAvoidLinksByEventIdAndEventUserIsCurrentUser(@Param("eventId") Long eventId);
+
+    /**
+     * Loads the preference links of the guests of one event of the current user as id pairs.
+     *
+     * @param eventId the id of the event.
+     * @return one pair per row of the prefer join table owned by a guest of the event.
+     */
+    @Query(
+        "select new com.lavi.tablearrangments.repository.GuestLink(g.id, p.id) " +
+        "from Guest g join g.preferGuests p where g.event.id = :eventId and g.event.user.login = ?#{authentication.name}"
+    )
+    List<GuestLink> findPreferLinksByEventIdAndEventUserIsCurrentUser(@Param("eventId") Long eventId);
+
+    /**
+     * Streams the seating plan of every event of the current user, ordered by event, table number and name.
+     * <p>
+     * Rows are projections, so neither guests nor their eager links are loaded. The fetch size of
+     * {@code Integer.MIN_VALUE} makes MySQL Connector/J stream the result set row by row instead of buffering it.
+     * The stream must be consumed inside a read-only transaction and closed.
+     *
+     * @return one row per guest.
+     */
+    @Query(
+        "select new com.lavi.tablearrangments.repository.SeatingPlanRow(e.id, e.eventName, t.id, t.tableNumber, g.id, " +
+        "g.lastNameAndFirstName, g.numberOfSeats, g.status, g.side, g.relation, g.accessibility, g.nearStage) " +
+        "from Guest g join g.event e left join g.table t where e.user.login = ?#{authentication.name} " +
+        "order by e.id, t.tableNumber, g.lastNameAndFirstName, g.id"
+    )
+    @QueryHints(
+        {
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+        }
+    )
+    Stream<SeatingPlanRow> streamSeatingPlanByEventUserIsCurrentUser();
+
+    /**
+     * Streams the seating plan of one event of the current user, ordered by table number and name.
+     * See {@link #streamSeatingPlanByEventUserIsCurrentUser()}.
+     *
+     * @param eventId the id of the event.
+     * @return one row per guest, or none if the event does not belong to the current user.
+     */
+    @Query(
+        "select new com.lavi.tablearrangments.repository.SeatingPlanRow(e.id, e.eventName, t.id, t.tableNumber, g.id, " +
+        "g.lastNameAndFirstName, g.numberOfSeats, g.status, g.side, g.relation, g.accessibility, g.nearStage) " +
+        "from Guest g join g.event e left join g.table t where e.id = :eventId and e.user.login = ?#{authentication.name} " +
+        "order by t.tableNumber, g.lastNameAndFirstName, g.id"
+    )
+    @QueryHints(
+        {
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+        }
+    )
+    Stream<SeatingPlanRow> streamSeatingPlanByEventIdAndEventUserIsCurrentUser(@Param("eventId") Long eventId);
+
+    /**
+     * Removes the table assignment of the given guests in a single bulk update, without loading them.
+     *
+     * @param ids the ids of the guests to clear.
+     * @return the number of updated rows.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Guest guest set guest.table = null where guest.id in :ids")
+    int clearTables(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Seats the given guests at a table, and moves them to the table's event, in a single bulk update.
+     *
+     * @param table the table to seat the guests at.
+     * @param event the event of the table.
+     * @param ids   the ids of the guests to seat.
+     * @return the number of updated rows.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Guest guest set guest.table = :table, guest.event = :event where guest.id in :ids")
+    int assignTable(@Param("table") SeatingTable table, @Param("event") Event event, @Param("ids") Collection<Long> ids);
 }
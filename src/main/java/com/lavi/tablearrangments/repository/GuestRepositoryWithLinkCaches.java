@@ -0,0 +1,15 @@
+package com.lavi.tablearrangments.repository;
+
+/**
+ * Evicts the second-level cache regions of the guest-to-guest links.
+ * <p>
+ * Hibernate keeps the cached collections of the owning side of a link up to date, but not the inverse
+ * {@code avoidedBies} and {@code preferredBies} collections of the guests on the other end, nor the links of other
+ * guests pointing at a deleted guest. Write paths that change links call {@link #evictLinkCaches()} instead.
+ */
+public interface GuestRepositoryWithLinkCaches {
+    /**
+     * Evicts every cached guest link collection once the current transaction commits, or right away outside a transaction.
+     */
+    void evictLinkCaches();
+}
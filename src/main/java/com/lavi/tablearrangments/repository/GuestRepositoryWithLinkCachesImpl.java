@@ -0,0 +1,41 @@
+package com.lavi.tablearrangments.repository;
+
+import com.lavi.tablearrangments.domain.Guest;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.List;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class GuestRepositoryWithLinkCachesImpl implements GuestRepositoryWithLinkCaches {
+
+    private static final List<String> LINK_ROLES = List.of(
+        Guest.class.getName() + ".avoidGuests",
+        Guest.class.getName() + ".preferGuests",
+        Guest.class.getName() + ".avoidedBies",
+        Guest.class.getName() + ".preferredBies"
+    );
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void evictLinkCaches() {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Evicting before the commit would let a concurrent read cache the old links again.
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        LINK_ROLES.forEach(cache::evictCollectionData);
+                    }
+                }
+            );
+        } else {
+            LINK_ROLES.forEach(cache::evictCollectionData);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.lavi.tablearrangments.repository;
+
+import com.lavi.tablearrangments.domain.enumeration.GuestRelation;
+import com.lavi.tablearrangments.domain.enumeration.GuestSide;
+import com.lavi.tablearrangments.domain.enumeration.GuestStatus;
+
+/**
+ * A flat, read-only projection of the guest columns the seating solver reads, without any association loaded.
+ *
+ * @param id                   the guest id.
+ * @param lastNameAndFirstName the guest's name, for warnings and logs.
+ * @param numberOfSeats        the seats the guest needs.
+ * @param nearStage            whether the guest prefers to sit near the stage.
+ * @param status               the RSVP status.
+ * @param side                 the side of the guest, or {@code null}.
+ * @param relation             the relation of the guest to the couple.
+ * @param accessibility        whether the guest needs an accessible table.
+ * @param eventId              the id of the guest's event.
+ * @param tableId              the id of the table the guest is currently assigned to, or {@code null}.
+ */
+public record GuestSolverRow(
+    Long id,
+    String lastNameAndFirstName,
+    Integer numberOfSeats,
+    Boolean nearStage,
+    GuestStatus status,
+    GuestSide side,
+    GuestRelation relation,
+    Boolean accessibility,
+    Long eventId,
+    Long tableId
+) {}
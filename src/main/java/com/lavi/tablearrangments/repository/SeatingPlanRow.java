@@ -0,0 +1,36 @@
+package com.lavi.tablearrangments.repository;
+
+import com.lavi.tablearrangments.domain.enumeration.GuestRelation;
+import com.lavi.tablearrangments.domain.enumeration.GuestSide;
+import com.lavi.tablearrangments.domain.enumeration.GuestStatus;
+
+/**
+ * A flat, read-only projection of one line of a seating plan: a guest joined to its event and table.
+ *
+ * @param eventId              the id of the guest's event.
+ * @param eventName            the name of the guest's event.
+ * @param tableId              the id of the guest's table, or {@code null} if unseated.
+ * @param tableNumber          the number of the guest's table, or {@code null} if unseated.
+ * @param guestId              the guest id.
+ * @param lastNameAndFirstName the guest's name.
+ * @param numberOfSeats        the seats the guest takes.
+ * @param status               the RSVP status.
+ * @param side                 the side of the guest, or {@code null}.
+ * @param relation             the relation of the guest to the couple.
+ * @param accessibility        whether the guest needs an accessible table.
+ * @param nearStage            whether the guest prefers to sit near the stage.
+ */
+public record SeatingPlanRow(
+    Long eventId,
+    String eventName,
+    Long tableId,
+    Integer tableNumber,
+    Long guestId,
+    String lastNameAndFirstName,
+    Integer numberOfSeats,
+    GuestStatus status,
+    GuestSide side,
+    GuestRelation relation,
+    Boolean accessibility,
+    Boolean nearStage
+) {}
@@ -1,8 +1,10 @@
 package com.lavi.tablearrangments.repository;
 
 import com.lavi.tablearrangments.domain.SeatingTable;
+import jakarta.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
@@ -29,6 +31,12 @@ public interface SeatingTableRepository extends JpaRepository<SeatingTable, Long
     @Query("select seatingTable from SeatingTable seatingTable where seatingTable.event.user.login = ?#{authentication.name}")
     List<SeatingTable> findByUserIsCurrentUser();
 
+    @Query(
+        "select seatingTable from SeatingTable seatingTable where seatingTable.event.id = :eventId " +
+        "and seatingTable.event.user.login = ?#{authentication.name}"
+    )
+    List<SeatingTable> findByEventIdAndUserIsCurrentUser(@Param("eventId") Long eventId);
+
     @Query(
         value = "select seatingTable from SeatingTable seatingTable left join fetch seatingTable.event",
         countQuery = "select count(seatingTable) from SeatingTable seatingTable"
@@ -45,5 +53,22 @@ public interface SeatingTableRepository extends JpaRepository<SeatingTable, Long
         value = "select t from SeatingTable t left join fetch t.event where t.event.user.login = ?#{authentication.name}",
         countQuery = "select count(t) from SeatingTable t where t.event.user.login = ?#{authentication.name}"
     )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Page<SeatingTable> findAllByEventUserIsCurrentUser(Pageable pageable);
+
+    /**
+     * Loads the next keyset page of the current user's tables in id order.
+     *
+     * @param id       the id of the last table of the previous page, or zero for the first page.
+     * @param pageable the page size; the offset is ignored.
+     * @return the tables after the given id.
+     */
+    @Query(
+        "select t from SeatingTable t left join fetch t.event " +
+        "where t.event.user.login = ?#{authentication.name} and t.id > :id order by t.id"
+    )
+    List<SeatingTable> findAllAfterIdByEventUserIsCurrentUser(@Param("id") Long id, Pageable pageable);
+
+    @Query("select count(t) from SeatingTable t where t.event.user.login = ?#{authentication.name}")
+    long countByEventUserIsCurrentUser();
 }
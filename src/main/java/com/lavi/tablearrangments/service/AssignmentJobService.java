@@ -0,0 +1,342 @@
+package com.lavi.tablearrangments.service;
+
+import com.lavi.tablearrangments.config.ApplicationProperties;
+import com.lavi.tablearrangments.security.SecurityUtils;
+import com.lavi.tablearrangments.service.dto.AssignmentJobDTO;
+import com.lavi.tablearrangments.service.dto.AssignmentJobDTO.Status;
+import com.lavi.tablearrangments.service.dto.AssignmentResultDTO;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Service running seating assignments as background jobs.
+ * <p>
+ * Jobs are executed on the bounded {@code assignmentTaskExecutor}, with the submitting user's security
+ * context, and are kept in memory until {@code application.solver.job-retention} after they finish.
+ * A job is only visible to the user who submitted it.
+ * <p>
+ * Progress subscribers are served by a scheduled publisher that, at a fixed rate, hands the latest
+ * {@link SolverProgress} snapshot of each subscriber's job to the {@code progressTaskExecutor}. Each subscriber has
+ * at most one send in flight: while it is still writing the previous snapshot, the tick is dropped for that
+ * subscriber only. Snapshots are thus conflated rather than queued, so a slow or stalled client only misses
+ * intermediate updates, and neither the search, the scheduler thread nor the other subscribers wait for it.
+ */
+@Service
+public class AssignmentJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(AssignmentJobService.class);
+
+    private static final Duration PROGRESS_STREAM_TIMEOUT = Duration.ofMinutes(30);
+
+    static final String INVALID_SETUP_MESSAGE = "The guests cannot be seated with the current guests and tables.";
+
+    static final String UNEXPECTED_ERROR_MESSAGE = "An unexpected error occurred during guest assignment.";
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    private final List<ProgressSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private final GuestAssignmentService guestAssignmentService;
+
+    private final AsyncTaskExecutor assignmentTaskExecutor;
+
+    private final AsyncTaskExecutor progressTaskExecutor;
+
+    private final ApplicationProperties applicationProperties;
+
+    public AssignmentJobService(
+        GuestAssignmentService guestAssignmentService,
+        @Qualifier("assignmentTaskExecutor") AsyncTaskExecutor assignmentTaskExecutor,
+        @Qualifier("progressTaskExecutor") AsyncTaskExecutor progressTaskExecutor,
+        ApplicationProperties applicationProperties
+    ) {
+        this.guestAssignmentService = guestAssignmentService;
+        this.assignmentTaskExecutor = assignmentTaskExecutor;
+        this.progressTaskExecutor = progressTaskExecutor;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Submits a new assignment job for the current user.
+     *
+     * @param eventId     the event to seat, or {@code null} for every event of the current user.
+     * @param limits      wall-clock and node budget of the solve.
+     * @param incremental whether to re-seat only the guests that lost their seat since the last solve, see
+     *                    {@link GuestAssignmentService#solveIncremental(Long, SolverProgress, SolverLimits)}.
+     * @return the status of the queued job.
+     * @throws org.springframework.core.task.TaskRejectedException if the job queue is full.
+     */
+    public AssignmentJobDTO submit(Long eventId, SolverLimits limits, boolean incremental) {
+        String owner = SecurityUtils.getCurrentUserLogin().orElseThrow(() -> new IllegalStateException("No authenticated user"));
+        Job job = new Job(UUID.randomUUID().toString(), owner, eventId, limits, incremental);
+        jobs.put(job.id, job);
+        log.debug("Submitting assignment job {} for user {}", job.id, owner);
+        try {
+            Future<?> future = assignmentTaskExecutor.submit(
+                DelegatingSecurityContextRunnable.create(() -> run(job), SecurityContextHolder.getContext())
+            );
+            job.attach(future);
+        } catch (RuntimeException e) {
+            jobs.remove(job.id);
+            throw e;
+        }
+        return job.toDTO();
+    }
+
+    /**
+     * Returns the status of a job owned by the current user.
+     *
+     * @param id the job id.
+     * @return the job status, or empty if there is no such job for the current user.
+     */
+    public Optional<AssignmentJobDTO> getStatus(String id) {
+        return findOwned(id).map(Job::toDTO);
+    }
+
+    /**
+     * Returns the result of a completed job owned by the current user.
+     *
+     * @param id the job id.
+     * @return the result, or empty if there is no such job or it has not completed.
+     */
+    public Optional<AssignmentResultDTO> getResult(String id) {
+        return findOwned(id).map(job -> job.result);
+    }
+
+    /**
+     * Cancels a queued or running job owned by the current user.
+     * A running solve is interrupted and its assignment is not persisted. A job that already started writing its
+     * assignment can no longer be cancelled: it stays running and completes, so a cancelled job never changed the seating.
+     *
+     * @param id the job id.
+     * @return the job status after cancellation, or empty if there is no such job for the current user.
+     */
+    public Optional<AssignmentJobDTO> cancel(String id) {
+        return findOwned(id).map(job -> {
+            job.cancel();
+            return job.toDTO();
+        });
+    }
+
+    /**
+     * Opens a progress stream for a job owned by the current user.
+     *
+     * @param id the job id.
+     * @return an emitter receiving {@code progress} events and a final {@code status} event,
+     * or empty if there is no such job for the current user.
+     */
+    public Optional<SseEmitter> subscribeProgress(String id) {
+        return subscribeProgress(id, new SseEmitter(PROGRESS_STREAM_TIMEOUT.toMillis()));
+    }
+
+    /**
+     * Opens a progress stream for a job owned by the current user on the given emitter.
+     */
+    Optional<SseEmitter> subscribeProgress(String id, SseEmitter emitter) {
+        return findOwned(id).map(job -> {
+            ProgressSubscription subscription = new ProgressSubscription(job, emitter);
+            emitter.onCompletion(() -> subscriptions.remove(subscription));
+            emitter.onTimeout(() -> subscriptions.remove(subscription));
+            emitter.onError(e -> subscriptions.remove(subscription));
+            subscriptions.add(subscription);
+            return emitter;
+        });
+    }
+
+    /**
+     * Hands the latest progress of each subscribed job to the progress executor, skipping subscribers whose previous
+     * send is still in flight.
+     */
+    @Scheduled(fixedRate = 500)
+    public void publishProgress() {
+        for (ProgressSubscription subscription : subscriptions) {
+            if (!subscription.sending.compareAndSet(false, true)) {
+                continue;
+            }
+            try {
+                progressTaskExecutor.execute(() -> send(subscription));
+            } catch (TaskRejectedException e) {
+                subscription.sending.set(false);
+            }
+        }
+    }
+
+    /**
+     * Sends the latest progress of a subscribed job, and completes the stream once the job is finished.
+     */
+    private void send(ProgressSubscription subscription) {
+        Job job = subscription.job;
+        try {
+            subscription.emitter.send(SseEmitter.event().name("progress").data(job.progress.snapshot()));
+            AssignmentJobDTO status = job.toDTO();
+            if (status.getStatus().isFinished()) {
+                subscriptions.remove(subscription);
+                subscription.emitter.send(SseEmitter.event().name("status").data(status));
+                subscription.emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping progress subscriber of job {}: {}", job.id, e.getMessage());
+            subscriptions.remove(subscription);
+            subscription.emitter.completeWithError(e);
+        } finally {
+            subscription.sending.set(false);
+        }
+    }
+
+    /**
+     * Removes finished jobs older than the configured retention.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictFinishedJobs() {
+        Instant threshold = Instant.now().minus(applicationProperties.getSolver().getJobRetention());
+        jobs.values().removeIf(job -> job.isFinishedBefore(threshold));
+    }
+
+    private Optional<Job> findOwned(String id) {
+        String login = SecurityUtils.getCurrentUserLogin().orElse(null);
+        return Optional.ofNullable(jobs.get(id)).filter(job -> job.owner.equals(login));
+    }
+
+    private void run(Job job) {
+        if (!job.start()) {
+            return;
+        }
+        try {
+            job.complete(
+                job.incremental
+                    ? guestAssignmentService.solveIncremental(job.eventId, job.progress, job.limits)
+                    : guestAssignmentService.solve(job.eventId, job.progress, job.limits)
+            );
+        } catch (CancellationException e) {
+            log.info("Assignment job {} was cancelled", job.id);
+            job.finish(Status.CANCELLED, "Cancelled");
+        } catch (IllegalStateException e) {
+            // The detail names guests and internal state, so it is logged but not returned to the client.
+            log.warn("Assignment job {} failed: {}", job.id, e.getMessage());
+            job.finish(Status.FAILED, INVALID_SETUP_MESSAGE);
+        } catch (RuntimeException e) {
+            log.error("Unexpected error in assignment job {}", job.id, e);
+            job.finish(Status.FAILED, UNEXPECTED_ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * In-memory state of a single job. Transitions are synchronized on the job itself.
+     */
+    private static final class Job {
+
+        private final String id;
+        private final String owner;
+        private final Long eventId;
+        private final SolverLimits limits;
+        private final boolean incremental;
+        private final Instant submittedAt = Instant.now();
+        private final SolverProgress progress = new SolverProgress();
+        private Status status = Status.QUEUED;
+        private Instant startedAt;
+        private Instant finishedAt;
+        private String message;
+        private volatile AssignmentResultDTO result;
+        private Future<?> future;
+
+        private Job(String id, String owner, Long eventId, SolverLimits limits, boolean incremental) {
+            this.id = id;
+            this.owner = owner;
+            this.eventId = eventId;
+            this.limits = limits;
+            this.incremental = incremental;
+        }
+
+        private synchronized void attach(Future<?> future) {
+            this.future = future;
+            if (status == Status.CANCELLED) {
+                future.cancel(true);
+            }
+        }
+
+        private synchronized boolean start() {
+            if (status != Status.QUEUED) {
+                return false;
+            }
+            status = Status.RUNNING;
+            startedAt = Instant.now();
+            return true;
+        }
+
+        private synchronized void complete(AssignmentResultDTO result) {
+            if (status == Status.RUNNING) {
+                this.result = result;
+                finish(Status.COMPLETED, null);
+            }
+        }
+
+        private synchronized void finish(Status status, String message) {
+            if (!this.status.isFinished()) {
+                this.status = status;
+                this.message = message;
+                this.finishedAt = Instant.now();
+            }
+        }
+
+        private synchronized void cancel() {
+            if (!status.isFinished() && progress.cancel()) {
+                finish(Status.CANCELLED, "Cancelled");
+                if (future != null) {
+                    future.cancel(true);
+                }
+            }
+        }
+
+        private synchronized boolean isFinishedBefore(Instant threshold) {
+            return status.isFinished() && finishedAt.isBefore(threshold);
+        }
+
+        private synchronized AssignmentJobDTO toDTO() {
+            AssignmentJobDTO dto = new AssignmentJobDTO();
+            dto.setId(id);
+            dto.setStatus(status);
+            dto.setEventId(eventId);
+            dto.setIncremental(incremental);
+            dto.setSubmittedAt(submittedAt);
+            dto.setStartedAt(startedAt);
+            dto.setFinishedAt(finishedAt);
+            dto.setMessage(message);
+            return dto;
+        }
+    }
+
+    /**
+     * A progress stream of a job, flagged while a send to it is queued or running.
+     */
+    private static final class ProgressSubscription {
+
+        private final Job job;
+        private final SseEmitter emitter;
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private ProgressSubscription(Job job, SseEmitter emitter) {
+            this.job = job;
+            this.emitter = emitter;
+        }
+    }
+}
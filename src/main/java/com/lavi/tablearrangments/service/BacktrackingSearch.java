@@ -0,0 +1,523 @@
+package com.lavi.tablearrangments.service;
+
+import com.lavi.tablearrangments.domain.Guest;
+import com.lavi.tablearrangments.domain.GuestGroup;
+import com.lavi.tablearrangments.domain.SeatingTable;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One backtracking search worker over a {@link SeatingProblem}, using MRV group selection,
+ * AC-3 propagation, forward checking and branch and bound on the number of open tables.
+ * <p>
+ * A worker owns its table states, domains and counters, and only shares the read-only problem,
+ * the {@link Incumbent}, the {@link SearchBudget} and the {@link SolverProgress} totals with other
+ * workers of the same solve, so several workers with different {@link SearchStrategy strategies}
+ * can run in parallel.
+ * <p>
+ * With a split depth above zero and when running inside a {@link ForkJoinPool}, the first choices of the
+ * tree are not explored by recursion: each feasible placement at those levels becomes a {@link SubtreeTask}
+ * holding its own copy of the table states and domains, and the tasks are forked so idle pool threads
+ * steal whole subtrees.
+ */
+public class BacktrackingSearch {
+
+    private static final Logger log = LoggerFactory.getLogger(BacktrackingSearch.class);
+
+    private final List<GuestGroup> groups;
+
+    private final List<TableState> tableStates;
+
+    private final DomainManager domainManager;
+
+    private final SearchStrategy strategy;
+
+    private final PenaltyCalculator penaltyCalculator;
+
+    private final Incumbent incumbent;
+
+    private final SearchBudget budget;
+
+    private final SolverProgress progress;
+
+    private final SolverProgress.Counter counter;
+
+    private final int[] groupSeats;
+
+    private final int[] groupRanks;
+
+    private final int totalSeats;
+
+    private final int splitDepth;
+
+    private final Map<GuestGroup, Integer> groupIds;
+
+    /**
+     * Creates a worker with its own table states and domains, exploring the tree by plain recursion.
+     *
+     * @param problem           The indexed groups and tables of the solve.
+     * @param strategy          The group and table ordering of this worker.
+     * @param penaltyCalculator Scores placements for the table ordering.
+     * @param incumbent         The best assignment shared by all workers.
+     * @param budget            The limits shared by all workers.
+     * @param progress          The progress totals shared by all workers.
+     */
+    public BacktrackingSearch(
+        SeatingProblem problem,
+        SearchStrategy strategy,
+        PenaltyCalculator penaltyCalculator,
+        Incumbent incumbent,
+        SearchBudget budget,
+        SolverProgress progress
+    ) {
+        this(problem, strategy, penaltyCalculator, incumbent, budget, progress, 0);
+    }
+
+    /**
+     * Creates a worker with its own table states and domains.
+     *
+     * @param problem           The indexed groups and tables of the solve.
+     * @param strategy          The group and table ordering of this worker.
+     * @param penaltyCalculator Scores placements for the table ordering.
+     * @param incumbent         The best assignment shared by all workers.
+     * @param budget            The limits shared by all workers.
+     * @param progress          The progress totals shared by all workers.
+     * @param splitDepth        How many levels of placements are forked as subtree tasks when running in a fork-join pool.
+     */
+    public BacktrackingSearch(
+        SeatingProblem problem,
+        SearchStrategy strategy,
+        PenaltyCalculator penaltyCalculator,
+        Incumbent incumbent,
+        SearchBudget budget,
+        SolverProgress progress,
+        int splitDepth
+    ) {
+        this.groups = problem.getGroups();
+        this.strategy = strategy;
+        this.penaltyCalculator = penaltyCalculator;
+        this.incumbent = incumbent;
+        this.budget = budget;
+        this.progress = progress;
+        this.counter = progress.newCounter();
+        this.tableStates = new ArrayList<>(problem.getTables().size());
+        for (SeatingTable table : problem.getTables()) {
+            tableStates.add(new TableState(table, problem));
+        }
+        this.domainManager = new DomainManager(groups, problem.getTables());
+        this.splitDepth = splitDepth;
+        this.groupIds = new IdentityHashMap<>();
+        this.groupSeats = new int[groups.size()];
+        for (int g = 0; g < groups.size(); g++) {
+            groupIds.put(groups.get(g), g);
+            groupSeats[g] = groups.get(g).getTotalSeats();
+        }
+        this.totalSeats = Arrays.stream(groupSeats).sum();
+        this.groupRanks = strategy.randomRanks(groups.size());
+    }
+
+    /**
+     * Copies the current state of a worker for a forked subtree. Table states and domains are copied,
+     * the shared and read-only parts are reused, and the copy gets its own progress counter.
+     *
+     * @param other The worker to copy.
+     */
+    private BacktrackingSearch(BacktrackingSearch other) {
+        this.groups = other.groups;
+        this.strategy = other.strategy;
+        this.penaltyCalculator = other.penaltyCalculator;
+        this.incumbent = other.incumbent;
+        this.budget = other.budget;
+        this.progress = other.progress;
+        this.counter = progress.newCounter();
+        this.tableStates = new ArrayList<>(other.tableStates.size());
+        for (TableState ts : other.tableStates) {
+            tableStates.add(new TableState(ts));
+        }
+        this.domainManager = new DomainManager(other.domainManager);
+        this.groupSeats = other.groupSeats;
+        this.groupRanks = other.groupRanks;
+        this.totalSeats = other.totalSeats;
+        this.splitDepth = other.splitDepth;
+        this.groupIds = other.groupIds;
+    }
+
+    /**
+     * Runs the search until its space is exhausted or the budget stops it. A worker that exhausts its
+     * space stops the other workers, as the incumbent is then optimal.
+     *
+     * @throws CancellationException if the solve is cancelled or the thread is interrupted.
+     */
+    public void run() {
+        log.debug("Starting search worker with {}", strategy);
+        try {
+            backtrack(new HashMap<>(), 0L);
+        } finally {
+            counter.flush();
+        }
+        if (!budget.isStopped()) {
+            budget.stop();
+        }
+    }
+
+    /**
+     * Recursive method to explore possible assignments of guest groups to tables using backtracking.
+     *
+     * @param assignment Current partial assignment of groups to tables.
+     * @param pathPenalty Sum of the placement penalties of the groups assigned so far.
+     */
+    private void backtrack(Map<GuestGroup, SeatingTable> assignment, long pathPenalty) {
+        if (budget.isCancelled() || Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Guest assignment was cancelled");
+        }
+        counter.onNode();
+        if (budget.shouldStop(counter.getNodes())) {
+            return;
+        }
+
+        // Step 6: Select the group with the fewest options (Algorithm: MRV - Minimum Remaining Values)
+        log.debug("[Step 6] ↩️ Backtracking: {} groups assigned so far.", assignment.size());
+
+        // Until a complete assignment is found, keep the deepest partial one as the incumbent
+        if (incumbent.acceptsPartial(assignment.size())) {
+            incumbent.offerPartial(assignment, countOpenTables(), pathPenalty);
+        }
+
+        if (assignment.size() == groups.size()) {
+            int openTables = countOpenTables();
+            if (incumbent.offerComplete(assignment, openTables, pathPenalty)) {
+                progress.onNewBest(openTables, pathPenalty);
+                log.debug("[Step 6] 🥇 New best assignment found with {} open tables.", openTables);
+            } else {
+                counter.onPrune(); // אין טעם להמשיך, לא נשיג תוצאה טובה יותר
+            }
+            return;
+        }
+
+        log.debug("[Step 6] 🎯 Selecting next group to assign using MRV heuristic...");
+        GuestGroup nextGroup = selectGroupWithFewestOptions(assignment);
+
+        if (nextGroup == null) {
+            log.warn("❌ No possible tables for group 'UNKNOWN'. Skipping this branch...");
+            return;
+        }
+
+        int groupId = groupId(nextGroup);
+        if (log.isDebugEnabled()) {
+            log.debug("[Step 6] 🎯 Selected group: {} ({} seats)", nextGroup.getNames(), groupSeats[groupId]);
+        }
+
+        // Step 7: Try assigning group to table (Algorithm: Backtracking)
+        // אם אין מועמדים אחרי AC-3, נ fallback לכל הטבלאות האפשריות:
+        if (domainManager.isDomainEmpty(nextGroup) && log.isDebugEnabled()) {
+            log.debug("⚠️ AC-3 eliminated all options for group '{}', falling back to full table list.", nextGroup.getNames());
+        }
+
+        int[] penalties = new int[tableStates.size()];
+        int[] candidates = orderCandidates(nextGroup, groupId, penalties);
+
+        if (candidates.length == 0) {
+            log.warn("❌ No available tables for group '{}'. Backtracking...", nextGroup.getNames());
+            return;
+        }
+
+        // Near the root, inside a fork-join pool, feasible placements are forked as subtrees instead of recursed into
+        List<SubtreeTask> subtrees = assignment.size() < splitDepth && ForkJoinTask.inForkJoinPool() ? new ArrayList<>() : null;
+
+        for (int candidate : candidates) {
+            TableState ts = tableStates.get(candidate);
+            // ✨ בדיקות אילוצים לפני השיבוץ בפועל
+            if (ts.canFit(nextGroup) && ts.canAssignGroup(nextGroup)) {
+                if (log.isDebugEnabled()) {
+                    log.debug(
+                        "[Step 7] 🪑 Trying to assign group '{}' to table '{}'.",
+                        nextGroup.getNames(),
+                        ts.getTable().getTableNumber()
+                    );
+                }
+                int placementPenalty = penalties[candidate];
+                ts.assignGroup(nextGroup);
+                assignment.put(nextGroup, ts.getTable());
+
+                // Branch and bound: no completion of this placement can use fewer tables than the bound
+                int bestOpenTables = incumbent.getOpenTables();
+                if (bestOpenTables != Integer.MAX_VALUE && lowerBoundOpenTables() >= bestOpenTables) {
+                    counter.onBoundPrune();
+                    assignment.remove(nextGroup);
+                    ts.removeGroup(nextGroup);
+                    continue;
+                }
+
+                int domainMark = domainManager.mark();
+                domainManager.removeTableFromAllDomains(ts.getTable());
+                domainManager.applyAC3();
+
+                boolean skipTable = false;
+
+                if (domainManager.isDomainEmpty(nextGroup)) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("⚠️ Domain empty after AC-3 for group '{}', restoring domains and trying next table.", nextGroup.getNames());
+                    }
+                    skipTable = true;
+                } else if (!isFeasible(assignment)) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("⚠️ Forward Checking failed after assigning group '{}'. Backtracking immediately...", nextGroup.getNames());
+                    }
+                    skipTable = true;
+                }
+
+                if (skipTable) {
+                    counter.onPrune();
+                    domainManager.undoTo(domainMark);
+                    assignment.remove(nextGroup);
+                    ts.removeGroup(nextGroup);
+                } else if (subtrees != null) {
+                    log.debug("[Step 7] 🍴 Forking subtree after assigning group to table '{}'.", ts.getTable().getTableNumber());
+                    subtrees.add(new SubtreeTask(new BacktrackingSearch(this), new HashMap<>(assignment), pathPenalty + placementPenalty));
+                    domainManager.undoTo(domainMark);
+                    assignment.remove(nextGroup);
+                    ts.removeGroup(nextGroup);
+                } else {
+                    printCurrentAssignments();
+                    backtrack(assignment, pathPenalty + placementPenalty);
+
+                    if (log.isDebugEnabled()) {
+                        log.debug(
+                            "[Step 8] 🔄 Backtracking: Removing group '{}' from table '{}'.",
+                            nextGroup.getNames(),
+                            ts.getTable().getTableNumber()
+                        );
+                    }
+                    domainManager.undoTo(domainMark);
+                    assignment.remove(nextGroup);
+                    ts.removeGroup(nextGroup);
+                    printCurrentAssignments();
+                    if (budget.isStopped()) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        if (subtrees != null && !subtrees.isEmpty()) {
+            ForkJoinTask.invokeAll(subtrees);
+        }
+    }
+
+    /**
+     * A subtree of the search below a fixed prefix of placements, explored by its own copy of the worker.
+     * Results flow through the shared {@link Incumbent}, so the task returns nothing.
+     */
+    private static final class SubtreeTask extends RecursiveAction {
+
+        private final BacktrackingSearch search;
+
+        private final Map<GuestGroup, SeatingTable> assignment;
+
+        private final long pathPenalty;
+
+        private SubtreeTask(BacktrackingSearch search, Map<GuestGroup, SeatingTable> assignment, long pathPenalty) {
+            this.search = search;
+            this.assignment = assignment;
+            this.pathPenalty = pathPenalty;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                search.backtrack(assignment, pathPenalty);
+            } finally {
+                search.counter.flush();
+            }
+        }
+    }
+
+    /**
+     * Orders the tables large enough for a group according to the worker's {@link SearchStrategy.ValueOrder}.
+     * Each candidate is scored once; the penalties are left in {@code penalties} for the placement loop, and
+     * candidates with equal keys keep their table order.
+     *
+     * @param group     The group being placed.
+     * @param groupId   Its dense id.
+     * @param penalties Receives the placement penalty of each candidate, indexed by table position.
+     * @return The positions of the candidate tables in {@link #tableStates}, best first.
+     */
+    private int[] orderCandidates(GuestGroup group, int groupId, int[] penalties) {
+        int[] order = new int[tableStates.size()];
+        long[] keys = new long[tableStates.size()];
+        int size = 0;
+        for (int t = 0; t < tableStates.size(); t++) {
+            TableState ts = tableStates.get(t);
+            if (ts.getTable().getMaxSeats() < groupSeats[groupId]) {
+                continue;
+            }
+            int penalty = penaltyCalculator.calculate(ts, groupId);
+            penalties[t] = penalty;
+            long key = switch (strategy.valueOrder()) {
+                case PENALTY -> sortKey(penalty, calculateDomainReduction(ts.getTable(), group));
+                case BEST_FIT -> sortKey(ts.getFreeSeats(), penalty);
+                case LEAST_CONSTRAINING -> sortKey(calculateDomainReduction(ts.getTable(), group), penalty);
+            };
+            // Insertion sort keeps equal keys in table order, like the stable sort it replaces
+            int i = size++;
+            while (i > 0 && keys[i - 1] > key) {
+                keys[i] = keys[i - 1];
+                order[i] = order[i - 1];
+                i--;
+            }
+            keys[i] = key;
+            order[i] = t;
+        }
+        return Arrays.copyOf(order, size);
+    }
+
+    /**
+     * Packs two signed ints into a long that sorts by the first, then by the second.
+     */
+    private static long sortKey(int primary, int secondary) {
+        return ((long) primary << 32) | ((secondary ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+    }
+
+    private int countOpenTables() {
+        int open = 0;
+        for (TableState ts : tableStates) {
+            if (ts.isOpen()) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    /**
+     * Computes an admissible lower bound on the number of open tables of any complete assignment
+     * extending the current one: the tables already open, plus the bin-packing bound for the seats
+     * that cannot fit in their free seats, ceil(overflow / largest empty table).
+     *
+     * @return The lower bound, or {@link Integer#MAX_VALUE} if the remaining seats cannot fit at all.
+     */
+    private int lowerBoundOpenTables() {
+        int openTables = 0;
+        int usedSeats = 0;
+        int openFreeSeats = 0;
+        int largestEmptyTable = 0;
+        for (TableState ts : tableStates) {
+            usedSeats += ts.getUsedSeats();
+            if (ts.isOpen()) {
+                openTables++;
+                openFreeSeats += ts.getFreeSeats();
+            } else {
+                largestEmptyTable = Math.max(largestEmptyTable, ts.getTable().getMaxSeats());
+            }
+        }
+        int overflow = totalSeats - usedSeats - openFreeSeats;
+        if (overflow <= 0) {
+            return openTables;
+        }
+        if (largestEmptyTable == 0) {
+            return Integer.MAX_VALUE;
+        }
+        return openTables + (overflow + largestEmptyTable - 1) / largestEmptyTable;
+    }
+
+    /**
+     * Calculates how much assigning a group to a table will reduce the domain of other groups.
+     * Used as part of the LCV (Least Constraining Value) heuristic to prefer assignments that
+     * leave more options for future group assignments.
+     *
+     * @param table The seating table being considered.
+     * @param group The guest group being assigned.
+     * @return The number of domain reductions this assignment would cause.
+     */
+    private int calculateDomainReduction(SeatingTable table, GuestGroup group) {
+        // כמה זה מצמצם את הדומיין של שאר הקבוצות – נעדיף ערכים שמצמצמים פחות
+        return domainManager.countOtherGroupsWithTable(table, group);
+    }
+
+    /**
+     * Checks if the remaining guest groups can still be assigned to available tables.
+     *
+     * @param assignment Current guest-to-table assignments.
+     * @return True if there is at least one valid assignment option left for each group, otherwise false.
+     */
+    private boolean isFeasible(Map<GuestGroup, SeatingTable> assignment) {
+        for (GuestGroup group : groups) {
+            if (!assignment.containsKey(group)) {
+                boolean hasOption = tableStates.stream().anyMatch(ts -> ts.canFit(group) && ts.canAssignGroup(group));
+                if (!hasOption) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Selects the next guest group to assign based on the Minimum Remaining Values (MRV) heuristic,
+     * breaking ties according to the worker's {@link SearchStrategy.TieBreak}.
+     *
+     * @param assignment Current guest-to-table assignments.
+     * @return The guest group with the fewest assignment options.
+     */
+    private GuestGroup selectGroupWithFewestOptions(Map<GuestGroup, SeatingTable> assignment) {
+        GuestGroup bestGroup = null;
+        long minOptions = Long.MAX_VALUE;
+
+        for (GuestGroup group : groups) {
+            if (!assignment.containsKey(group)) {
+                long options = tableStates.stream().filter(ts -> ts.canFit(group)).filter(ts -> ts.canAssignGroup(group)).count();
+
+                if (options < minOptions) {
+                    minOptions = options;
+                    bestGroup = group;
+                } else if (options == minOptions && winsTie(group, bestGroup)) {
+                    bestGroup = group;
+                }
+            }
+        }
+
+        return bestGroup;
+    }
+
+    /**
+     * Returns the dense id of one of the worker's groups: its own id when it was numbered for this problem,
+     * otherwise a lookup.
+     */
+    private int groupId(GuestGroup group) {
+        int id = group.getId();
+        return id >= 0 && id < groups.size() && groups.get(id) == group ? id : groupIds.get(group);
+    }
+
+    private boolean winsTie(GuestGroup group, GuestGroup current) {
+        return switch (strategy.tieBreak()) {
+            case LARGEST_DOMAIN -> domainManager.getDomainSize(group) > domainManager.getDomainSize(current);
+            case MOST_SEATS -> groupSeats[groupId(group)] > groupSeats[groupId(current)];
+            case RANDOM -> groupRanks[groupId(group)] < groupRanks[groupId(current)];
+        };
+    }
+
+    /**
+     * Logs the current assignment of guest groups to tables, including used seats
+     * and the names of assigned guests for each table.
+     */
+    private void printCurrentAssignments() {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
+        log.debug("📋 Current Table Assignments:");
+        for (TableState ts : tableStates) {
+            String guests = ts
+                .getAssignedGroups()
+                .stream()
+                .flatMap(g -> g.getGuests().stream())
+                .map(Guest::getLastNameAndFirstName)
+                .collect(Collectors.joining(", "));
+            log.debug("Table {} - {} seats used: {}", ts.getTable().getTableNumber(), ts.getUsedSeats(), guests.isEmpty() ? "Empty" : guests);
+        }
+    }
+}
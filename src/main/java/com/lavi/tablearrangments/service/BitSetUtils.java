@@ -0,0 +1,115 @@
+package com.lavi.tablearrangments.service;
+
+/**
+ * Utility methods for fixed-size bitsets stored as {@code long[]} words.
+ * <p>
+ * Used by the seating solver to represent sets of dense ids (tables, groups, guests)
+ * so that membership, removal and intersection are single word operations.
+ */
+public final class BitSetUtils {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    private BitSetUtils() {}
+
+    /**
+     * Returns the number of words needed to hold the given number of bits.
+     *
+     * @param bits the number of bits.
+     * @return the number of {@code long} words.
+     */
+    public static int wordsFor(int bits) {
+        return (bits + 63) >>> ADDRESS_BITS_PER_WORD;
+    }
+
+    /**
+     * Returns the index of the word holding the given bit.
+     *
+     * @param bit the bit index.
+     * @return the word index.
+     */
+    public static int wordIndex(int bit) {
+        return bit >>> ADDRESS_BITS_PER_WORD;
+    }
+
+    public static boolean get(long[] words, int bit) {
+        return (words[bit >>> ADDRESS_BITS_PER_WORD] & (1L << bit)) != 0;
+    }
+
+    public static void set(long[] words, int bit) {
+        words[bit >>> ADDRESS_BITS_PER_WORD] |= 1L << bit;
+    }
+
+    public static void clear(long[] words, int bit) {
+        words[bit >>> ADDRESS_BITS_PER_WORD] &= ~(1L << bit);
+    }
+
+    /**
+     * Counts the bits set in the given bitset.
+     *
+     * @param words the bitset.
+     * @return the number of set bits.
+     */
+    public static int cardinality(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether no bit is set.
+     *
+     * @param words the bitset.
+     * @return true if the bitset is empty.
+     */
+    public static boolean isEmpty(long[] words) {
+        for (long word : words) {
+            if (word != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the two bitsets share at least one set bit.
+     *
+     * @param a first bitset.
+     * @param b second bitset, of the same length.
+     * @return true if the intersection is not empty.
+     */
+    public static boolean intersects(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if ((a[i] & b[i]) != 0L) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the index of the first set bit at or after {@code fromBit}, or -1 if there is none.
+     *
+     * @param words   the bitset.
+     * @param fromBit the bit to start searching from.
+     * @return the index of the next set bit, or -1.
+     */
+    public static int nextSetBit(long[] words, int fromBit) {
+        int u = fromBit >>> ADDRESS_BITS_PER_WORD;
+        if (u >= words.length) {
+            return -1;
+        }
+        long word = words[u] & (-1L << fromBit);
+        while (true) {
+            if (word != 0L) {
+                return (u << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+            }
+            if (++u == words.length) {
+                return -1;
+            }
+            word = words[u];
+        }
+    }
+}
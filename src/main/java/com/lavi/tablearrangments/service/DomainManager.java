@@ -3,17 +3,73 @@ package com.lavi.tablearrangments.service;
 import com.lavi.tablearrangments.domain.GuestGroup;
 import com.lavi.tablearrangments.domain.SeatingTable;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * DomainManager manages the possible seating tables (domains) for each guest group.
  * It applies the AC-3 algorithm to enforce arc consistency and reduce invalid assignments.
+ * <p>
+ * Groups and tables are given dense integer ids (their position in the lists passed to the constructor)
+ * and every domain is a {@code long[]} bitset over table ids. Each word that is modified is first recorded
+ * on a trail, so the backtracking search can take a {@link #mark()} before a tentative assignment and
+ * {@link #undoTo(int)} it afterwards instead of copying all domains.
+ * <p>
+ * The only binary constraint revised by AC-3 is that two groups cannot both be left with the same single
+ * table if they do not fit on it together. Arcs are therefore only created between groups sharing a usable
+ * table too small for both, and are numbered once in the constructor. Avoidance and preferences are checked
+ * by {@link TableState} and do not create arcs. Each propagation only seeds the arcs of groups whose domain
+ * changed since the last one, queues arcs in an array ring with an in-queue bitset, and remembers two
+ * supporting tables per group so that checking whether a domain is down to a single table is usually O(1).
  */
 public class DomainManager {
 
-    private final Map<GuestGroup, Set<SeatingTable>> originalDomains = new HashMap<>();
+    private final List<GuestGroup> groups;
 
-    private final Map<GuestGroup, Set<SeatingTable>> domains = new HashMap<>();
+    private final List<SeatingTable> tables;
+
+    private final Map<GuestGroup, Integer> groupIds;
+
+    private final Map<Long, Integer> tableIds;
+
+    private final int words;
+
+    private final long[][] originalDomains;
+
+    private final long[][] domains;
+
+    /** Tables satisfying the static constraints (capacity, accessibility) of each group. */
+    private final long[][] validTables;
+
+    private final int[] groupSeats;
+
+    private final int[] tableSeats;
+
+    /** Arcs leaving group {@code g} are numbered {@code arcOffsets[g]} to {@code arcOffsets[g + 1] - 1}. */
+    private final int[] arcOffsets;
+
+    private final int[] arcSources;
+
+    private final int[] arcTargets;
+
+    /** The arc in the opposite direction of each arc. */
+    private final int[] reverseArcs;
+
+    private final int[] arcQueue;
+
+    private final long[] queuedArcs;
+
+    /** Two tables last seen in each group's domain, at {@code 2g} and {@code 2g + 1}, or -1. */
+    private final int[] supports;
+
+    /** Groups whose domain changed since the last successful propagation. */
+    private final long[] dirtyGroups;
+
+    private int[] trailGroups = new int[64];
+
+    private int[] trailWords = new int[64];
+
+    private long[] trailValues = new long[64];
+
+    private int trailSize = 0;
 
     /**
      * Initializes the domain for each guest group based on available tables and their capacities.
@@ -22,119 +78,317 @@ public class DomainManager {
      * @param tables      List of available seating tables.
      */
     public DomainManager(List<GuestGroup> guestGroups, List<SeatingTable> tables) {
-        for (GuestGroup group : guestGroups) {
-            Set<SeatingTable> possibleTables = tables
-                .stream()
-                .filter(table -> table.getMaxSeats() >= group.getTotalSeats())
-                .collect(Collectors.toSet());
-            domains.put(group, possibleTables);
-            originalDomains.put(group, new HashSet<>(possibleTables));
+        this.groups = List.copyOf(guestGroups);
+        this.tables = List.copyOf(tables);
+        this.groupIds = new IdentityHashMap<>();
+        this.tableIds = new HashMap<>();
+        this.words = BitSetUtils.wordsFor(tables.size());
+        this.originalDomains = new long[groups.size()][words];
+        this.domains = new long[groups.size()][words];
+        this.validTables = new long[groups.size()][words];
+        this.groupSeats = new int[groups.size()];
+        this.tableSeats = new int[tables.size()];
+
+        for (int t = 0; t < tables.size(); t++) {
+            tableIds.put(tables.get(t).getId(), t);
+            tableSeats[t] = tables.get(t).getMaxSeats();
+        }
+
+        for (int g = 0; g < groups.size(); g++) {
+            GuestGroup group = groups.get(g);
+            groupIds.put(group, g);
+            groupSeats[g] = group.getTotalSeats();
+            boolean requiresAccessibility = group.requiresAccessibility();
+            for (int t = 0; t < tables.size(); t++) {
+                if (tableSeats[t] >= groupSeats[g]) {
+                    BitSetUtils.set(originalDomains[g], t);
+                    if (!requiresAccessibility || Boolean.TRUE.equals(tables.get(t).getAccessibility())) {
+                        BitSetUtils.set(validTables[g], t);
+                    }
+                }
+            }
+            System.arraycopy(originalDomains[g], 0, domains[g], 0, words);
+        }
+
+        int n = groups.size();
+        List<int[]> neighbors = new ArrayList<>(n);
+        int arcs = 0;
+        for (int g1 = 0; g1 < n; g1++) {
+            int[] adjacent = new int[n];
+            int count = 0;
+            for (int g2 = 0; g2 < n; g2++) {
+                if (g1 != g2 && interacts(g1, g2)) {
+                    adjacent[count++] = g2;
+                }
+            }
+            neighbors.add(Arrays.copyOf(adjacent, count));
+            arcs += count;
+        }
+        this.arcOffsets = new int[n + 1];
+        this.arcSources = new int[arcs];
+        this.arcTargets = new int[arcs];
+        this.reverseArcs = new int[arcs];
+        for (int g1 = 0; g1 < n; g1++) {
+            int[] adjacent = neighbors.get(g1);
+            arcOffsets[g1 + 1] = arcOffsets[g1] + adjacent.length;
+            for (int i = 0; i < adjacent.length; i++) {
+                arcSources[arcOffsets[g1] + i] = g1;
+                arcTargets[arcOffsets[g1] + i] = adjacent[i];
+            }
+        }
+        for (int a = 0; a < arcs; a++) {
+            int[] adjacent = neighbors.get(arcTargets[a]);
+            reverseArcs[a] = arcOffsets[arcTargets[a]] + Arrays.binarySearch(adjacent, arcSources[a]);
+        }
+        this.arcQueue = new int[arcs];
+        this.queuedArcs = new long[BitSetUtils.wordsFor(arcs)];
+        this.supports = new int[2 * n];
+        Arrays.fill(supports, -1);
+        this.dirtyGroups = new long[BitSetUtils.wordsFor(n)];
+        Arrays.fill(dirtyGroups, -1L);
+    }
+
+    /**
+     * Creates an independent copy of the current domains, with an empty trail, for a forked subtree search.
+     * The static tables, sizes and id maps are shared with the original.
+     *
+     * @param other The domain manager to copy.
+     */
+    public DomainManager(DomainManager other) {
+        this.groups = other.groups;
+        this.tables = other.tables;
+        this.words = other.words;
+        this.originalDomains = other.originalDomains;
+        this.validTables = other.validTables;
+        this.groupSeats = other.groupSeats;
+        this.tableSeats = other.tableSeats;
+        this.groupIds = other.groupIds;
+        this.tableIds = other.tableIds;
+        this.arcOffsets = other.arcOffsets;
+        this.arcSources = other.arcSources;
+        this.arcTargets = other.arcTargets;
+        this.reverseArcs = other.reverseArcs;
+        this.arcQueue = new int[other.arcQueue.length];
+        this.queuedArcs = new long[other.queuedArcs.length];
+        this.supports = other.supports.clone();
+        this.dirtyGroups = other.dirtyGroups.clone();
+        this.domains = new long[other.domains.length][];
+        for (int g = 0; g < domains.length; g++) {
+            domains[g] = other.domains[g].clone();
         }
     }
 
     /**
      * Applies the AC-3 algorithm to enforce arc consistency across all guest groups,
      * reducing impossible assignments from their domains.
+     * <p>
+     * Every changed domain is first restricted to the group's usable tables, then the arcs into and out of the
+     * changed groups are propagated to a fixpoint.
+     *
+     * @return false if a domain wipeout occurred and the domains were reset to their initial state.
      */
-    public void applyAC3() {
-        Queue<Map.Entry<GuestGroup, GuestGroup>> arcs = new LinkedList<>();
-
-        // Initialize all arcs between different groups
-        for (GuestGroup g1 : domains.keySet()) {
-            for (GuestGroup g2 : domains.keySet()) {
-                if (!g1.equals(g2)) {
-                    arcs.add(Map.entry(g1, g2));
+    public boolean applyAC3() {
+        int n = groups.size();
+        if (n < 2) {
+            return true;
+        }
+        int head = 0;
+        int size = 0;
+        for (int g = BitSetUtils.nextSetBit(dirtyGroups, 0); g >= 0 && g < n; g = BitSetUtils.nextSetBit(dirtyGroups, g + 1)) {
+            long[] domain = domains[g];
+            for (int w = 0; w < words; w++) {
+                long kept = domain[w] & validTables[g][w];
+                if (kept != domain[w]) {
+                    setWord(g, w, kept);
                 }
             }
+            if (BitSetUtils.isEmpty(domain)) {
+                return wipeout();
+            }
+            for (int a = arcOffsets[g]; a < arcOffsets[g + 1]; a++) {
+                size = enqueue(a, head, size);
+                size = enqueue(reverseArcs[a], head, size);
+            }
         }
 
-        while (!arcs.isEmpty()) {
-            var arc = arcs.poll();
-            GuestGroup g1 = arc.getKey();
-            GuestGroup g2 = arc.getValue();
+        while (size > 0) {
+            int arc = arcQueue[head];
+            head = head + 1 == arcQueue.length ? 0 : head + 1;
+            size--;
+            BitSetUtils.clear(queuedArcs, arc);
+            int g1 = arcSources[arc];
 
-            if (revise(g1, g2)) {
-                if (domains.get(g1).isEmpty()) {
-                    // ⚠️ Domain wipeout detected - restore previous state and exit AC-3
-                    domains.clear();
-                    originalDomains.forEach((k, v) -> domains.put(k, new HashSet<>(v)));
-                    return;
+            if (revise(g1, arcTargets[arc])) {
+                if (BitSetUtils.isEmpty(domains[g1])) {
+                    // ⚠️ Domain wipeout detected - restore initial state and exit AC-3
+                    return wipeout();
                 }
 
                 // Add arcs back for neighboring groups to check again after revision
-                for (GuestGroup neighbor : domains.keySet()) {
-                    if (!neighbor.equals(g1) && !neighbor.equals(g2)) {
-                        arcs.add(Map.entry(neighbor, g1));
-                    }
+                for (int a = arcOffsets[g1]; a < arcOffsets[g1 + 1]; a++) {
+                    size = enqueue(reverseArcs[a], head, size);
                 }
             }
         }
+        Arrays.fill(dirtyGroups, 0L);
+        return true;
+    }
+
+    /**
+     * Queues an arc unless it is already queued.
+     *
+     * @return The new queue size.
+     */
+    private int enqueue(int arc, int head, int size) {
+        if (BitSetUtils.get(queuedArcs, arc)) {
+            return size;
+        }
+        BitSetUtils.set(queuedArcs, arc);
+        int tail = head + size;
+        arcQueue[tail >= arcQueue.length ? tail - arcQueue.length : tail] = arc;
+        return size + 1;
+    }
+
+    private boolean wipeout() {
+        Arrays.fill(queuedArcs, 0L);
+        resetToOriginal();
+        return false;
     }
 
     /**
      * Revises the domain of g1 to ensure consistency with g2.
      * Removes tables from g1's domain if no consistent assignment exists with g2.
+     * <p>
+     * Both domains only hold usable tables here, so a table of g1 is supported when g2 can use some other
+     * table, or g2 can only use the same table and both groups fit on it together.
      *
-     * @param g1 First guest group.
-     * @param g2 Second guest group.
+     * @param g1 First guest group id.
+     * @param g2 Second guest group id.
      * @return True if the domain of g1 was revised, false otherwise.
      */
-    private boolean revise(GuestGroup g1, GuestGroup g2) {
-        boolean revised = false;
-        Set<SeatingTable> toRemove = new HashSet<>();
-
-        for (SeatingTable table : domains.get(g1)) {
-            boolean hasConsistent = domains
-                .get(g2)
-                .stream()
-                .anyMatch(
-                    t ->
-                        satisfiesConstraints(g1, table) &&
-                        satisfiesConstraints(g2, t) &&
-                        (!table.equals(t) || table.getMaxSeats() >= (g1.getTotalSeats() + g2.getTotalSeats()))
-                );
-
-            if (!hasConsistent) {
-                toRemove.add(table);
-                revised = true;
-            }
+    private boolean revise(int g1, int g2) {
+        int shared = singleTable(g2);
+        if (shared < 0 || tableSeats[shared] >= groupSeats[g1] + groupSeats[g2]) {
+            return false;
         }
-
-        domains.get(g1).removeAll(toRemove);
-        return revised;
+        int w = BitSetUtils.wordIndex(shared);
+        long word = domains[g1][w];
+        long bit = 1L << shared;
+        if ((word & bit) == 0L) {
+            return false;
+        }
+        setWord(g1, w, word & ~bit);
+        return true;
     }
 
     /**
-     * Validates whether the specified seating table satisfies the constraints required by the guest group.
-     *
-     * @param group The guest group to check.
-     * @param table The seating table being evaluated.
-     * @return True if the table satisfies all constraints, false otherwise.
+     * Returns the only table left in the group's domain, or -1 if there are several or none. The two supporting
+     * tables found last are checked first, and the domain is only scanned again once one of them is gone.
      */
-    private boolean satisfiesConstraints(GuestGroup group, SeatingTable table) {
-        if (table.getMaxSeats() < group.getTotalSeats()) return false;
+    private int singleTable(int group) {
+        long[] domain = domains[group];
+        int first = supports[2 * group];
+        int second = supports[2 * group + 1];
+        if (first >= 0 && second >= 0 && BitSetUtils.get(domain, first) && BitSetUtils.get(domain, second)) {
+            return -1;
+        }
+        first = BitSetUtils.nextSetBit(domain, 0);
+        second = first < 0 ? -1 : BitSetUtils.nextSetBit(domain, first + 1);
+        supports[2 * group] = first;
+        supports[2 * group + 1] = second;
+        return second < 0 ? first : -1;
+    }
 
-        boolean requiresAccessibility = group.getGuests().stream().anyMatch(g -> Boolean.TRUE.equals(g.getAccessibility()));
-        return !requiresAccessibility || Boolean.TRUE.equals(table.getAccessibility());
+    /**
+     * Checks whether two groups can constrain each other: they share a usable table too small for both.
+     */
+    private boolean interacts(int g1, int g2) {
+        int seats = groupSeats[g1] + groupSeats[g2];
+        for (int w = 0; w < words; w++) {
+            long shared = validTables[g1][w] & validTables[g2][w];
+            while (shared != 0L) {
+                int t = (w << 6) + Long.numberOfTrailingZeros(shared);
+                if (tableSeats[t] < seats) {
+                    return true;
+                }
+                shared &= shared - 1;
+            }
+        }
+        return false;
     }
 
     /**
      * Returns all guest groups currently managed by this DomainManager.
      *
-     * @return Set of guest groups.
+     * @return List of guest groups, indexed by their dense id.
      */
-    public Set<GuestGroup> getAllGroups() {
-        return domains.keySet();
+    public List<GuestGroup> getAllGroups() {
+        return groups;
     }
 
     /**
      * Retrieves the current domain (possible seating tables) for a specific guest group.
+     * This materializes the bitset and is meant for diagnostics, not for the search loop.
      *
      * @param group The guest group.
      * @return Set of possible seating tables.
      */
     public Set<SeatingTable> getDomain(GuestGroup group) {
-        return domains.getOrDefault(group, Collections.emptySet());
+        int g = groupId(group);
+        if (g < 0) {
+            return Collections.emptySet();
+        }
+        Set<SeatingTable> result = new LinkedHashSet<>();
+        for (int t = BitSetUtils.nextSetBit(domains[g], 0); t >= 0; t = BitSetUtils.nextSetBit(domains[g], t + 1)) {
+            result.add(tables.get(t));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of tables left in the group's domain.
+     *
+     * @param group The guest group.
+     * @return The domain size, or 0 for an unknown group.
+     */
+    public int getDomainSize(GuestGroup group) {
+        int g = groupId(group);
+        return g < 0 ? 0 : BitSetUtils.cardinality(domains[g]);
+    }
+
+    /**
+     * Checks whether the group's domain is empty.
+     *
+     * @param group The guest group.
+     * @return True if no table is left for the group.
+     */
+    public boolean isDomainEmpty(GuestGroup group) {
+        int g = groupId(group);
+        return g < 0 || BitSetUtils.isEmpty(domains[g]);
+    }
+
+    /**
+     * Counts how many groups other than the given one still have the table in their domain.
+     *
+     * @param table The seating table.
+     * @param group The group to exclude from the count.
+     * @return The number of other groups whose domain contains the table.
+     */
+    public int countOtherGroupsWithTable(SeatingTable table, GuestGroup group) {
+        Integer t = tableIds.get(table.getId());
+        if (t == null) {
+            return 0;
+        }
+        int excluded = groupId(group);
+        int w = BitSetUtils.wordIndex(t);
+        long mask = 1L << t;
+        int count = 0;
+        for (int g = 0; g < domains.length; g++) {
+            if ((domains[g][w] & mask) != 0L && g != excluded) {
+                count++;
+            }
+        }
+        return count;
     }
 
     /**
@@ -143,23 +397,97 @@ public class DomainManager {
      * @param table The table to remove from all domains.
      */
     public void removeTableFromAllDomains(SeatingTable table) {
-        domains.values().forEach(domain -> domain.remove(table));
+        Integer t = tableIds.get(table.getId());
+        if (t == null) {
+            return;
+        }
+        int w = BitSetUtils.wordIndex(t);
+        long mask = ~(1L << t);
+        for (int g = 0; g < domains.length; g++) {
+            long updated = domains[g][w] & mask;
+            if (updated != domains[g][w]) {
+                setWord(g, w, updated);
+            }
+        }
+    }
+
+    /**
+     * Restricts the group's domain to the tables present in the given bitset.
+     *
+     * @param group The guest group.
+     * @param mask  Bitset over table ids to intersect the domain with.
+     */
+    public void retainTables(GuestGroup group, long[] mask) {
+        int g = groupId(group);
+        if (g < 0) {
+            return;
+        }
+        for (int w = 0; w < words; w++) {
+            long updated = domains[g][w] & mask[w];
+            if (updated != domains[g][w]) {
+                setWord(g, w, updated);
+            }
+        }
+    }
+
+    /**
+     * Returns a trail position that can later be passed to {@link #undoTo(int)}.
+     *
+     * @return The current trail size.
+     */
+    public int mark() {
+        return trailSize;
     }
 
     /**
-     * Clones the current state of domains for backup before applying AC-3.
+     * Undoes all domain changes recorded after the given mark, newest first.
+     *
+     * @param mark A value previously returned by {@link #mark()}.
      */
-    public Map<GuestGroup, Set<SeatingTable>> cloneDomains() {
-        Map<GuestGroup, Set<SeatingTable>> backup = new HashMap<>();
-        domains.forEach((k, v) -> backup.put(k, new HashSet<>(v)));
-        return backup;
+    public void undoTo(int mark) {
+        while (trailSize > mark) {
+            trailSize--;
+            domains[trailGroups[trailSize]][trailWords[trailSize]] = trailValues[trailSize];
+            BitSetUtils.set(dirtyGroups, trailGroups[trailSize]);
+        }
     }
 
     /**
-     * Restores domains to a previously saved backup.
+     * Returns the dense id of the group: its own id when it was numbered for this list, otherwise a lookup.
+     *
+     * @return The id, or -1 for an unknown group.
      */
-    public void restoreDomains(Map<GuestGroup, Set<SeatingTable>> backup) {
-        domains.clear();
-        backup.forEach((k, v) -> domains.put(k, new HashSet<>(v)));
+    private int groupId(GuestGroup group) {
+        int id = group.getId();
+        if (id >= 0 && id < groups.size() && groups.get(id) == group) {
+            return id;
+        }
+        Integer mapped = groupIds.get(group);
+        return mapped == null ? -1 : mapped;
+    }
+
+    private void resetToOriginal() {
+        for (int g = 0; g < domains.length; g++) {
+            for (int w = 0; w < words; w++) {
+                if (domains[g][w] != originalDomains[g][w]) {
+                    setWord(g, w, originalDomains[g][w]);
+                }
+            }
+        }
+    }
+
+    private void setWord(int group, int word, long value) {
+        if (trailSize == trailGroups.length) {
+            int capacity = trailSize * 2;
+            trailGroups = Arrays.copyOf(trailGroups, capacity);
+            trailWords = Arrays.copyOf(trailWords, capacity);
+            trailValues = Arrays.copyOf(trailValues, capacity);
+        }
+        trailGroups[trailSize] = group;
+        trailWords[trailSize] = word;
+        trailValues[trailSize] = domains[group][word];
+        trailSize++;
+        domains[group][word] = value;
+        BitSetUtils.set(dirtyGroups, group);
     }
 }
@@ -1,38 +1,116 @@
 package com.lavi.tablearrangments.service;
 
+import com.lavi.tablearrangments.config.ApplicationProperties;
+import com.lavi.tablearrangments.domain.Event;
 import com.lavi.tablearrangments.domain.Guest;
 import com.lavi.tablearrangments.domain.GuestGroup;
 import com.lavi.tablearrangments.domain.SeatingTable;
+import com.lavi.tablearrangments.repository.GuestLink;
 import com.lavi.tablearrangments.repository.GuestRepository;
+import com.lavi.tablearrangments.repository.GuestSolverRow;
 import com.lavi.tablearrangments.repository.SeatingTableRepository;
+import com.lavi.tablearrangments.service.dto.AssignmentResultDTO;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Service class for assigning guests to seating tables at an event,
  * considering constraints like accessibility, near-stage preference,
  * relation grouping, preferGuests, side (GROOM/BRIDE/BOTH), and conflict avoidance.
+ * <p>
+ * The input is loaded in a short read-only transaction and the winning assignment is written in a
+ * short write transaction; the search itself runs without holding a transaction or a connection.
+ * The service holds no per-solve state: everything a solve mutates lives in its own {@link SolveContext},
+ * so solves for different users, or for different events of one user, can run concurrently.
+ * <p>
+ * The search is anytime: it stops when the {@link SolverLimits} of the solve run out and the best
+ * assignment found so far is persisted. Until a complete assignment exists, the deepest partial
+ * assignment is kept, so a cut-off search still seats as many groups as it managed to.
+ * <p>
+ * Once a complete assignment exists, every tentative placement is checked against a lower bound on
+ * the open tables any completion of it needs, and branches that cannot beat the best are cut before
+ * propagation.
+ * <p>
+ * With {@code application.solver.parallelism} above one, a portfolio of {@link BacktrackingSearch} workers
+ * with different {@link SearchStrategy orderings} runs on a shared {@link ForkJoinPool}. The workers share
+ * the read-only {@link SeatingProblem} and prune against a common {@link Incumbent}. In subtree-split mode
+ * a single search forks its first choices as work-stealing tasks on the same pool instead. For events too
+ * large for an exhaustive search, LNS mode runs a {@link LargeNeighborhoodSearch} instead.
+ * <p>
+ * Placements are scored by the {@link ScoringModel} bean, compiled once per solve for the event the
+ * tables belong to, so venues can trade off the scoring terms through configuration.
+ * <p>
+ * A complete assignment is then improved by a {@link LocalSearch} phase of moves and swaps, which gets
+ * {@code application.solver.local-search-time} out of the time budget.
+ * <p>
+ * Results of full solves are kept in the {@link #SOLVE_RESULTS_CACHE} cache under the {@link SolveFingerprint} of
+ * their input. A solve whose input matches a cached one skips the search and only writes the guests whose
+ * persisted table differs from the cached assignment.
  */
 @Service
-@Transactional
 public class GuestAssignmentService {
 
-    private static final Logger log = LoggerFactory.getLogger(GuestAssignmentService.class);
+    /** Cache of full solve results keyed by the fingerprint of their input. */
+    public static final String SOLVE_RESULTS_CACHE = "solveResultsByFingerprint";
 
-    private static final PenaltyCalculator penaltyCalculator = new PenaltyCalculator();
+    private static final Logger log = LoggerFactory.getLogger(GuestAssignmentService.class);
 
-    private final Map<Long, Integer> assignedSeats = new HashMap<>();
+    /** Largest number of ids bound to a single {@code IN} list of a bulk update. */
+    private static final int MAX_IN_LIST_SIZE = 1000;
 
     private final GuestRepository guestRepository;
     private final SeatingTableRepository seatingTableRepository;
-
-    public GuestAssignmentService(GuestRepository guestRepository, SeatingTableRepository seatingTableRepository) {
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final ApplicationProperties applicationProperties;
+    private final PenaltyCalculator penaltyCalculator;
+    private final ScoringModel scoringModel;
+    private final CacheManager cacheManager;
+    private final int parallelism;
+    private final ForkJoinPool solverPool;
+
+    public GuestAssignmentService(
+        GuestRepository guestRepository,
+        SeatingTableRepository seatingTableRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties,
+        PenaltyCalculator penaltyCalculator,
+        ScoringModel scoringModel,
+        CacheManager cacheManager
+    ) {
         this.guestRepository = guestRepository;
         this.seatingTableRepository = seatingTableRepository;
+        this.applicationProperties = applicationProperties;
+        this.penaltyCalculator = penaltyCalculator;
+        this.scoringModel = scoringModel;
+        this.cacheManager = cacheManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        int configured = applicationProperties.getSolver().getParallelism();
+        this.parallelism = configured > 0 ? configured : Runtime.getRuntime().availableProcessors();
+        this.solverPool = parallelism > 1 ? new ForkJoinPool(parallelism, GuestAssignmentService::newSolverThread, null, false) : null;
+    }
+
+    private static ForkJoinWorkerThread newSolverThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("table-arrangments-solver-" + thread.getPoolIndex());
+        return thread;
     }
 
     /**
@@ -40,19 +118,358 @@ public class GuestAssignmentService {
      * @return List of warning messages for unassigned guests.
      */
     public List<String> assignAll() {
-        // Step 1: Load guests and tables (Algorithm: —)
-        List<String> warnings = new ArrayList<>();
-        List<Guest> allGuests = guestRepository.findAllByEventUserIsCurrentUserList();
-        List<SeatingTable> allTables = seatingTableRepository.findByUserIsCurrentUser();
+        return solve().getWarnings();
+    }
+
+    /**
+     * Assigns all guests of the current user to tables and persists the best assignment found.
+     *
+     * @return The assignment outcome, including warnings for unassigned guests.
+     * @throws CancellationException if the calling thread is interrupted before the assignment is persisted.
+     */
+    public AssignmentResultDTO solve() {
+        return solve(new SolverProgress());
+    }
+
+    /**
+     * Returns the solver limits for a request, starting from the configured defaults.
+     *
+     * @param timeBudgetMs Optional wall-clock budget in milliseconds.
+     * @param nodeLimit    Optional maximum number of search nodes.
+     * @return The effective limits.
+     */
+    public SolverLimits limits(Long timeBudgetMs, Long nodeLimit) {
+        return SolverLimits.of(applicationProperties.getSolver(), timeBudgetMs, nodeLimit);
+    }
+
+    /**
+     * Assigns all guests of the current user to tables and persists the best assignment found,
+     * reporting search progress as it goes.
+     *
+     * @param progress Receives node, prune and best-assignment updates from the search.
+     * @return The assignment outcome, including warnings for unassigned guests.
+     * @throws CancellationException if the calling thread is interrupted before the assignment is persisted.
+     */
+    public AssignmentResultDTO solve(SolverProgress progress) {
+        return solve(progress, limits(null, null));
+    }
+
+    /**
+     * Assigns all guests of the current user to tables within the given limits and persists the best
+     * assignment found, reporting search progress as it goes.
+     *
+     * @param progress Receives node, prune and best-assignment updates from the search.
+     * @param limits   Wall-clock and node budget of the search.
+     * @return The assignment outcome, including warnings for unassigned guests and whether the search was cut off.
+     * @throws CancellationException if the calling thread is interrupted before the assignment is persisted.
+     */
+    public AssignmentResultDTO solve(SolverProgress progress, SolverLimits limits) {
+        return solve(null, progress, limits);
+    }
+
+    /**
+     * Assigns the guests of one event of the current user to its tables within the given limits and persists the
+     * best assignment found, reporting search progress as it goes.
+     * <p>
+     * Only the event's guests, links and tables are loaded and only its guests are written, so solves for different
+     * events of the same user do not overlap and can run concurrently.
+     * <p>
+     * If a solve with the same fingerprint ran to completion before, its cached result is returned without searching.
+     * Solves cut off by their time or node budget are not cached, so they are retried.
+     *
+     * @param eventId  The event to seat, or {@code null} for every event of the current user.
+     * @param progress Receives node, prune and best-assignment updates from the search.
+     * @param limits   Wall-clock and node budget of the search.
+     * @return The assignment outcome, including warnings for unassigned guests and whether the search was cut off.
+     * @throws CancellationException if the calling thread is interrupted before the assignment is persisted.
+     */
+    public AssignmentResultDTO solve(Long eventId, SolverProgress progress, SolverLimits limits) {
+        Duration localSearchTime = localSearchTime(limits);
+        SolveContext context = new SolveContext(progress, limits.reserve(localSearchTime));
+        SolverInput input = load(context, eventId);
+        int[] scoringCoefficients = scoringModel.compile(input.eventId());
+        String fingerprint = SolveFingerprint.of(input.eventId(), input.guests(), input.tables(), scoringCoefficients, localSearchTime);
+        Cache cache = cacheManager.getCache(SOLVE_RESULTS_CACHE);
+        AssignmentResultDTO cached = cache == null ? null : cache.get(fingerprint, AssignmentResultDTO.class);
+        if (cached != null) {
+            return replay(context, input, cached);
+        }
+        List<Guest> guests = confirmed(input.guests());
+        List<GuestGroup> relationGroups = groupGuestsByRelation(guests, input.tables());
+        List<GuestGroup> guestGroups = prepare(context, input, guests, relationGroups, scoringCoefficients);
+
+        // Step 5: Start backtracking process (Algorithm: Backtracking + Forward Checking)
+        log.info("[Step 5] 🚀 Starting backtracking process to assign guest groups with {} worker(s).", parallelism);
+
+        Incumbent.Solution best;
+        try {
+            search(context);
+            log.info(
+                "[Step 5] 📈 Search explored {} nodes, pruned {} branches ({} by the open-table bound).",
+                progress.getNodes(),
+                progress.getPrunes(),
+                progress.getBoundPrunes()
+            );
+            if (context.getIncumbent().get().complete()) {
+                log.info("[Step 5] 🥇 Best assignment found uses {} open tables.", context.getIncumbent().getOpenTables());
+            }
+            warnIfExhausted(context);
+
+            // Step 9: Improve the seating (Algorithm: Late Acceptance Local Search)
+            best = improve(context, localSearchTime);
+        } finally {
+            progress.finish();
+        }
+
+        AssignmentResultDTO result = persistResult(context, guestGroups, best.assignment(), context.getLoadedGuestIds());
+        // A search cut off by its budget may do better on a retry, so only exhaustive results are reused.
+        if (cache != null && result.getTermination() == AssignmentResultDTO.Termination.COMPLETED) {
+            cache.put(fingerprint, copyOf(result));
+        }
+        return result;
+    }
+
+    /**
+     * Applies a cached result to the loaded guests: only those whose persisted table differs from the cached one are
+     * written, so re-running an unchanged problem writes nothing.
+     *
+     * @throws CancellationException if the solve was cancelled before the write started.
+     */
+    private AssignmentResultDTO replay(SolveContext context, SolverInput input, AssignmentResultDTO cached) {
+        context.getProgress().finish();
+        if (Thread.currentThread().isInterrupted() || !context.getProgress().beginPersist()) {
+            throw new CancellationException("Guest assignment was cancelled");
+        }
+        Map<Long, Long> guestTableIds = cached.getGuestTableIds();
+        List<Long> changedGuestIds = context
+            .getLoadedGuestIds()
+            .stream()
+            .filter(id -> !Objects.equals(input.tableIdByGuestId().get(id), guestTableIds.get(id)))
+            .toList();
+        Map<Long, SeatingTable> tableById = input.tables().stream().collect(Collectors.toMap(SeatingTable::getId, t -> t));
+        Map<SeatingTable, List<Long>> guestIdsByTable = new IdentityHashMap<>();
+        for (Long id : changedGuestIds) {
+            SeatingTable table = tableById.get(guestTableIds.get(id));
+            if (table != null) {
+                guestIdsByTable.computeIfAbsent(table, key -> new ArrayList<>()).add(id);
+            }
+        }
+        writeAssignment(changedGuestIds, guestIdsByTable);
+        log.info("[Step 5] ♻️ Reused the cached result of an identical problem, {} guests changed.", changedGuestIds.size());
+
+        AssignmentResultDTO result = copyOf(cached);
+        result.setCached(true);
+        result.setUpdatedGuests(changedGuestIds.size());
+        result.setElapsedMillis(context.getProgress().snapshot().getElapsedMillis());
+        return result;
+    }
+
+    /**
+     * Copies a result, so the cached instance is never shared with callers.
+     */
+    private static AssignmentResultDTO copyOf(AssignmentResultDTO source) {
+        AssignmentResultDTO result = new AssignmentResultDTO();
+        result.setWarnings(new ArrayList<>(source.getWarnings()));
+        result.setAssignedGroups(source.getAssignedGroups());
+        result.setUnassignedGroups(source.getUnassignedGroups());
+        result.setOpenTables(source.getOpenTables());
+        result.setGuestTableIds(new LinkedHashMap<>(source.getGuestTableIds()));
+        result.setTermination(source.getTermination());
+        result.setOptimal(source.isOptimal());
+        result.setNodesExplored(source.getNodesExplored());
+        result.setPrunes(source.getPrunes());
+        result.setBoundPrunes(source.getBoundPrunes());
+        result.setElapsedMillis(source.getElapsedMillis());
+        result.setUpdatedGuests(source.getUpdatedGuests());
+        result.setCached(source.isCached());
+        return result;
+    }
+
+    /**
+     * Re-seats the guests of the current user starting from the persisted assignment, and writes only the guests
+     * whose table changed.
+     * <p>
+     * Guests already seated together stay grouped by their table, and every group still fitting its table keeps
+     * it. Only the groups that lost their seat are re-seated: guests added or confirmed since the last solve,
+     * guests at a table whose seat count dropped or that was removed, and guests whose constraints changed. They
+     * are inserted where they fit and, failing that, repaired into a neighborhood of the affected tables by
+     * {@link LargeNeighborhoodSearch#runIncremental(Map)}. The local search phase is skipped so the rest of the
+     * seating does not move. Small RSVP changes thus settle in milliseconds and touch only the affected rows.
+     *
+     * @param progress Receives node, prune and best-assignment updates from the repair.
+     * @param limits   Wall-clock and node budget of the repair.
+     * @return The assignment outcome, including warnings for unassigned guests.
+     * @throws CancellationException if the calling thread is interrupted before the assignment is persisted.
+     */
+    public AssignmentResultDTO solveIncremental(SolverProgress progress, SolverLimits limits) {
+        return solveIncremental(null, progress, limits);
+    }
+
+    /**
+     * Re-seats the guests of one event of the current user starting from the persisted assignment, and writes only
+     * the guests whose table changed. See {@link #solveIncremental(SolverProgress, SolverLimits)}.
+     *
+     * @param eventId  The event to repair, or {@code null} for every event of the current user.
+     * @param progress Receives node, prune and best-assignment updates from the repair.
+     * @param limits   Wall-clock and node budget of the repair.
+     * @return The assignment outcome, including warnings for unassigned guests.
+     * @throws CancellationException if the calling thread is interrupted before the assignment is persisted.
+     */
+    public AssignmentResultDTO solveIncremental(Long eventId, SolverProgress progress, SolverLimits limits) {
+        SolveContext context = new SolveContext(progress, limits);
+        SolverInput input = load(context, eventId);
+        List<SeatingTable> allTables = input.tables();
+        Map<Long, SeatingTable> tableById = allTables.stream().collect(Collectors.toMap(SeatingTable::getId, t -> t));
+
+        // Guests seated together stay together: group per persisted table, and the unseated ones among themselves.
+        List<Guest> guests = confirmed(input.guests());
+        Map<Long, List<Guest>> guestsByTable = new LinkedHashMap<>();
+        for (Guest guest : guests) {
+            SeatingTable table = tableById.get(input.tableIdByGuestId().get(guest.getId()));
+            guestsByTable.computeIfAbsent(table == null ? null : table.getId(), key -> new ArrayList<>()).add(guest);
+        }
+        List<GuestGroup> tableGroups = new ArrayList<>();
+        guestsByTable.values().forEach(tableGuests -> tableGroups.addAll(groupGuestsByRelation(tableGuests, allTables)));
+        List<GuestGroup> guestGroups = prepare(context, input, guests, tableGroups, scoringModel.compile(input.eventId()));
+        Map<GuestGroup, SeatingTable> groupTables = new IdentityHashMap<>();
+        for (GuestGroup group : guestGroups) {
+            // Every guest of a group sits at the same persisted table, or none does.
+            SeatingTable table = tableById.get(input.tableIdByGuestId().get(group.getGuests().get(0).getId()));
+            if (table != null) {
+                groupTables.put(group, table);
+            }
+        }
 
-        //reset last sort
-        allGuests.forEach(g -> g.setTable(null));
-        guestRepository.saveAll(allGuests);
+        // Step 5: Repair around the changed guests (Algorithm: Large Neighborhood Search)
+        log.info("[Step 5] 🚀 Starting incremental repair from {} seated of {} groups.", groupTables.size(), guestGroups.size());
+
+        try {
+            ApplicationProperties.Solver solver = applicationProperties.getSolver();
+            new LargeNeighborhoodSearch(
+                context.getProblem(),
+                penaltyCalculator,
+                context.getIncumbent(),
+                context.getBudget(),
+                progress,
+                solver.getLnsNeighborhoodTables(),
+                0L
+            ).runIncremental(groupTables);
+            warnIfExhausted(context);
+        } finally {
+            progress.finish();
+        }
 
-        allGuests = allGuests
+        Map<GuestGroup, SeatingTable> best = context.getIncumbent().get().assignment();
+        Map<Long, Long> tableIdByGuestId = new HashMap<>();
+        best.forEach((group, table) -> group.getGuests().forEach(g -> tableIdByGuestId.put(g.getId(), table.getId())));
+        List<Long> changedGuestIds = context
+            .getLoadedGuestIds()
+            .stream()
+            .filter(id -> !Objects.equals(input.tableIdByGuestId().get(id), tableIdByGuestId.get(id)))
+            .toList();
+        log.info("[Step 5] 🩹 Incremental repair moved {} of {} guests.", changedGuestIds.size(), context.getLoadedGuestIds().size());
+
+        return persistResult(context, guestGroups, best, changedGuestIds);
+    }
+
+    // Step 1: Load guests and tables (Algorithm: —)
+    /**
+     * Loads the guests and tables of the current user in a short read-only transaction, together with the table
+     * each guest is currently assigned to. With an event id, only the rows of that event are read; avoid and prefer
+     * links to guests of other events are dropped.
+     * <p>
+     * Guests are not loaded as entities: their solver columns are read as flat rows and their avoid and prefer
+     * links as id pairs, from which unmanaged {@link Guest} instances are built for the solve. This keeps the
+     * eagerly mapped guest-to-guest associations from pulling whole guest graphs into the persistence context.
+     */
+    private SolverInput load(SolveContext context, Long eventId) {
+        SolverInput input = readOnlyTransaction.execute(status -> {
+            List<SeatingTable> tables = eventId == null
+                ? seatingTableRepository.findByUserIsCurrentUser()
+                : seatingTableRepository.findByEventIdAndUserIsCurrentUser(eventId);
+            List<GuestSolverRow> rows = eventId == null
+                ? guestRepository.findSolverRowsByEventUserIsCurrentUser()
+                : guestRepository.findSolverRowsByEventIdAndEventUserIsCurrentUser(eventId);
+            Map<Long, Guest> guestsById = new LinkedHashMap<>();
+            Map<Long, Long> tableIdByGuestId = new HashMap<>();
+            for (GuestSolverRow row : rows) {
+                guestsById.put(row.id(), toGuest(row));
+                if (row.tableId() != null) {
+                    tableIdByGuestId.put(row.id(), row.tableId());
+                }
+            }
+            if (eventId == null) {
+                link(guestsById, guestRepository.findAvoidLinksByEventUserIsCurrentUser(), Guest::getAvoidGuests);
+                link(guestsById, guestRepository.findPreferLinksByEventUserIsCurrentUser(), Guest::getPreferGuests);
+            } else {
+                link(guestsById, guestRepository.findAvoidLinksByEventIdAndEventUserIsCurrentUser(eventId), Guest::getAvoidGuests);
+                link(guestsById, guestRepository.findPreferLinksByEventIdAndEventUserIsCurrentUser(eventId), Guest::getPreferGuests);
+            }
+            return new SolverInput(List.copyOf(guestsById.values()), tables, singleEventId(tables), tableIdByGuestId);
+        });
+        context.setLoadedGuestIds(input.guests().stream().map(Guest::getId).toList());
+        return input;
+    }
+
+    private static Guest toGuest(GuestSolverRow row) {
+        return new Guest()
+            .id(row.id())
+            .lastNameAndFirstName(row.lastNameAndFirstName())
+            .numberOfSeats(row.numberOfSeats())
+            .nearStage(row.nearStage())
+            .status(row.status())
+            .side(row.side())
+            .relation(row.relation())
+            .accessibility(row.accessibility())
+            .avoidGuests(identitySet())
+            .preferGuests(identitySet());
+    }
+
+    /**
+     * Returns a set of guests keyed by identity. Each loaded guest is a single instance per id, so this is an id-keyed
+     * set with O(1) inserts and lookups, unlike a hash set over {@link Guest#hashCode()}, which is the class hash.
+     */
+    private static Set<Guest> identitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    /**
+     * Adds each link between two loaded guests to the owning guest's set; links to guests outside the solve are dropped.
+     */
+    private static void link(Map<Long, Guest> guestsById, List<GuestLink> links, Function<Guest, Set<Guest>> relation) {
+        for (GuestLink link : links) {
+            Guest guest = guestsById.get(link.guestId());
+            Guest other = guestsById.get(link.otherGuestId());
+            if (guest != null && other != null) {
+                relation.apply(guest).add(other);
+            }
+        }
+    }
+
+    private static List<Guest> confirmed(List<Guest> guests) {
+        return guests
             .stream()
             .filter(g -> g.getStatus() != null && g.getStatus().name().equals("CONFIRMED"))
             .collect(Collectors.toList());
+    }
+
+    /**
+     * Validates the input, finishes the guest groups and indexes the problem of the solve.
+     *
+     * @param allGuests           The confirmed guests.
+     * @param relationGroups      The confirmed guests grouped by relation.
+     * @param scoringCoefficients The compiled scoring model of the solve.
+     * @return The final guest groups, also held by the context's problem.
+     */
+    private List<GuestGroup> prepare(
+        SolveContext context,
+        SolverInput input,
+        List<Guest> allGuests,
+        List<GuestGroup> relationGroups,
+        int[] scoringCoefficients
+    ) {
+        List<String> warnings = context.getWarnings();
+        List<SeatingTable> allTables = input.tables();
 
         log.info("[Step 1] ✅ Loaded {} guests and {} tables.", allGuests.size(), allTables.size());
 
@@ -64,10 +481,9 @@ public class GuestAssignmentService {
         log.info("[Step 2] ✅ Validation completed: accessibility, stage proximity, side balance.");
 
         // Step 3: Group guests by relation (Algorithm: Grouping)
-        List<GuestGroup> guestGroups = groupGuestsByRelation(allGuests, allTables);
         int maxSeatsPerTable = allTables.stream().mapToInt(SeatingTable::getMaxSeats).max().orElse(4);
-        guestGroups = splitLargeGroupsIfNeeded(guestGroups, maxSeatsPerTable);
-        guestGroups = splitConflictingGroups(guestGroups, warnings);
+        List<GuestGroup> guestGroups = splitLargeGroupsIfNeeded(relationGroups, maxSeatsPerTable);
+        guestGroups = numbered(splitConflictingGroups(guestGroups, warnings));
 
         for (GuestGroup group : guestGroups) {
             log.info("[Step 3] 📦 Created group: {} ({} seats)", group.getNames(), group.getTotalSeats());
@@ -76,222 +492,272 @@ public class GuestAssignmentService {
         // Step 4: Split oversized groups if needed (Algorithm: Constraint Splitting)
         log.info("[Step 4] ✅ Split oversized groups according to max seats per table.");
 
-        Map<Long, TableState> tableStates = initializeTableStates(allTables);
-        assignedSeats.clear();
-        allTables.forEach(table -> assignedSeats.put(table.getId(), 0));
+        log.info("[Step 4] ⚖️ Scoring event {} with coefficients {}.", input.eventId(), Arrays.toString(scoringCoefficients));
+        context.setProblem(new SeatingProblem(guestGroups, allTables, scoringCoefficients));
 
         printTablesStatus(allTables);
+        return guestGroups;
+    }
 
-        // Step 5: Start backtracking process (Algorithm: Backtracking + Forward Checking)
-        log.info("[Step 5] 🚀 Starting backtracking process to assign guest groups.");
-
-        Map<GuestGroup, SeatingTable> bestAssignment = new HashMap<>();
-        int[] minOpenTables = { Integer.MAX_VALUE };
+    /**
+     * Numbers the final groups of a solve by their position, so the search can index them without lookups.
+     */
+    private static List<GuestGroup> numbered(List<GuestGroup> groups) {
+        List<GuestGroup> result = new ArrayList<>(groups.size());
+        for (int g = 0; g < groups.size(); g++) {
+            result.add(groups.get(g).withId(g));
+        }
+        return result;
+    }
 
-        DomainManager domainManager = new DomainManager(guestGroups, allTables);
-        backtrack(new HashMap<>(), guestGroups, tableStates, bestAssignment, minOpenTables, domainManager);
+    private void warnIfExhausted(SolveContext context) {
+        SearchBudget budget = context.getBudget();
+        if (budget.isExhausted()) {
+            String msg = "⚠️ Search stopped at the " + describe(budget.getTermination()) + "; the assignment is the best found so far.";
+            log.warn("[Step 5] {}", msg);
+            context.getWarnings().add(msg);
+        }
+    }
 
-        persistAssignment(bestAssignment);
+    /**
+     * Persists the assignment for the given guests and builds the outcome of the solve.
+     *
+     * @param guestIds Ids of the guests to write; those not in the assignment lose their table.
+     * @throws CancellationException if the solve was cancelled before the write started.
+     */
+    private AssignmentResultDTO persistResult(
+        SolveContext context,
+        List<GuestGroup> guestGroups,
+        Map<GuestGroup, SeatingTable> bestAssignment,
+        List<Long> guestIds
+    ) {
+        if (Thread.currentThread().isInterrupted() || !context.getProgress().beginPersist()) {
+            throw new CancellationException("Guest assignment was cancelled");
+        }
+        persistAssignment(guestIds, bestAssignment);
 
+        List<String> warnings = context.getWarnings();
         guestGroups
             .stream()
             .filter(group -> !bestAssignment.containsKey(group))
             .forEach(group -> warnings.add("⚠️ Could not assign group: " + group.getNames()));
 
-        return warnings;
+        SearchBudget budget = context.getBudget();
+        SolverProgress progress = context.getProgress();
+        AssignmentResultDTO result = buildResult(guestGroups, bestAssignment, warnings);
+        result.setTermination(budget.getTermination());
+        result.setOptimal(budget.isProven() && result.getUnassignedGroups() == 0);
+        result.setUpdatedGuests(guestIds.size());
+        result.setNodesExplored(progress.getNodes());
+        result.setPrunes(progress.getPrunes());
+        result.setBoundPrunes(progress.getBoundPrunes());
+        result.setElapsedMillis(progress.snapshot().getElapsedMillis());
+        return result;
     }
 
     /**
-     * Recursive method to explore possible assignments of guest groups to tables using backtracking.
+     * Runs the search and waits for it. In LNS mode, and with a single worker, the search runs on the calling
+     * thread. Otherwise it runs on the solver pool, either as one worker per portfolio strategy or as one worker
+     * whose top levels are split into subtree tasks, depending on {@code application.solver.search-mode}.
      *
-     * @param assignment Current partial assignment of groups to tables.
-     * @param groups List of all guest groups to assign.
-     * @param tableStates Current state of all tables.
-     * @param bestAssignment Stores the best assignment found so far.
-     * @param minOpenTables Tracks the minimum number of open tables found so far.
+     * @throws CancellationException if the calling thread is interrupted while waiting for the workers.
      */
-
-    private void backtrack(
-        Map<GuestGroup, SeatingTable> assignment,
-        List<GuestGroup> groups,
-        Map<Long, TableState> tableStates,
-        Map<GuestGroup, SeatingTable> bestAssignment,
-        int[] minOpenTables,
-        DomainManager domainManager
-    ) {
-        // Step 6: Select the group with the fewest options (Algorithm: MRV - Minimum Remaining Values)
-        log.debug("[Step 6] ↩️ Backtracking: {} groups assigned so far.", assignment.size());
-
-        if (assignment.size() == groups.size()) {
-            long openTables = tableStates.values().stream().filter(ts -> !ts.assignedGroups.isEmpty()).count();
-            if (openTables >= minOpenTables[0]) {
-                return; // אין טעם להמשיך, לא נשיג תוצאה טובה יותר
-            }
-            if (openTables < minOpenTables[0]) {
-                minOpenTables[0] = (int) openTables;
-                bestAssignment.clear();
-                bestAssignment.putAll(assignment);
-                log.info("[Step 6] 🥇 New best assignment found with {} open tables.", openTables);
-            }
+    private void search(SolveContext context) {
+        SeatingProblem problem = context.getProblem();
+        Incumbent incumbent = context.getIncumbent();
+        SearchBudget budget = context.getBudget();
+        SolverProgress progress = context.getProgress();
+        ApplicationProperties.Solver solver = applicationProperties.getSolver();
+        if (solver.getSearchMode() == ApplicationProperties.Solver.SearchMode.LNS) {
+            new LargeNeighborhoodSearch(problem, penaltyCalculator, incumbent, budget, progress, solver.getLnsNeighborhoodTables(), 0L).run();
+            return;
         }
-
-        log.debug("[Step 6] 🎯 Selecting next group to assign using MRV heuristic...");
-        GuestGroup nextGroup = selectGroupWithFewestOptions(groups, assignment, tableStates, domainManager);
-
-        if (nextGroup == null || domainManager.getDomain(nextGroup).isEmpty()) {
-            if (nextGroup != null) {
-                log.warn("⚠️ Domain empty after AC-3 for group '{}', restoring full options.", nextGroup.getNames());
-                List<SeatingTable> candidates = tableStates
-                    .values()
-                    .stream()
-                    .map(TableState::getTable)
-                    .filter(t -> t.getMaxSeats() >= nextGroup.getTotalSeats())
-                    .collect(Collectors.toList());
-
-                if (candidates.isEmpty()) {
-                    log.warn("❌ No available tables for group '{}'. Skipping this branch...", nextGroup.getNames());
-                    return;
-                }
-            } else {
-                log.warn("❌ No possible tables for group 'UNKNOWN'. Skipping this branch...");
-                return;
-            }
+        if (solverPool == null) {
+            new BacktrackingSearch(problem, SearchStrategy.DEFAULT, penaltyCalculator, incumbent, budget, progress).run();
+            return;
         }
-
-        log.info("[Step 6] 🎯 Selected group: {} ({} seats)", nextGroup.getNames(), nextGroup.getTotalSeats());
-
-        // Step 7: Try assigning group to table (Algorithm: Backtracking)
-        List<SeatingTable> candidates = new ArrayList<>(domainManager.getDomain(nextGroup));
-
-        // אם אין מועמדים אחרי AC-3, נ fallback לכל הטבלאות האפשריות:
-        if (candidates.isEmpty()) {
-            log.warn("⚠️ AC-3 eliminated all options for group '{}', falling back to full table list.", nextGroup.getNames());
-            candidates = tableStates
-                .values()
+        List<ForkJoinTask<?>> workers;
+        if (solver.getSearchMode() == ApplicationProperties.Solver.SearchMode.SUBTREE_SPLIT) {
+            BacktrackingSearch root = new BacktrackingSearch(
+                problem,
+                SearchStrategy.DEFAULT,
+                penaltyCalculator,
+                incumbent,
+                budget,
+                progress,
+                solver.getSplitDepth()
+            );
+            workers = List.of(solverPool.submit(root::run));
+        } else {
+            workers = SearchStrategy.portfolio(parallelism)
                 .stream()
-                .map(TableState::getTable)
-                .filter(t -> t.getMaxSeats() >= nextGroup.getTotalSeats())
-                .collect(Collectors.toList());
-        }
-
-        candidates = tableStates
-            .values()
-            .stream()
-            .map(ts -> (TableState) ts) // מוודא שהסטרים עובד עם TableState
-            .filter(ts -> ts.getTable().getMaxSeats() >= nextGroup.getTotalSeats())
-            .sorted(
-                Comparator.comparingInt((TableState ts) -> penaltyCalculator.calculate(ts, nextGroup)).thenComparingInt(ts ->
-                    calculateDomainReduction(ts.getTable(), nextGroup, domainManager)
+                .<ForkJoinTask<?>>map(strategy ->
+                    solverPool.submit(() -> new BacktrackingSearch(problem, strategy, penaltyCalculator, incumbent, budget, progress).run())
                 )
-            )
-            .map(TableState::getTable)
-            .toList();
-
-        if (candidates.isEmpty()) {
-            // Fallback – ננסה את כל השולחנות במידה וה־AC-3 מחק יותר מדי
-            candidates = tableStates
-                .values()
-                .stream()
-                .map(TableState::getTable)
-                .filter(t -> t.getMaxSeats() >= nextGroup.getTotalSeats())
-                .collect(Collectors.toList());
-
-            if (candidates.isEmpty()) {
-                log.warn("❌ No available tables for group '{}'. Backtracking...", nextGroup.getNames());
-                return;
+                .toList();
+        }
+        try {
+            for (ForkJoinTask<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            budget.cancel();
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Guest assignment was cancelled");
+        } catch (ExecutionException e) {
+            budget.cancel();
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
             }
+            throw new IllegalStateException("Search worker failed", e.getCause());
         }
+    }
 
-        for (SeatingTable table : candidates) {
-            TableState ts = tableStates.get(table.getId());
+    /**
+     * Runs the local search improvement phase on the best complete assignment of the search.
+     *
+     * @return The improved assignment, or the assignment of the search if it is partial or could not be improved.
+     */
+    private Incumbent.Solution improve(SolveContext context, Duration localSearchTime) {
+        Incumbent.Solution found = context.getIncumbent().get();
+        if (!found.complete() || localSearchTime.isZero()) {
+            return found;
+        }
+        LocalSearch localSearch = new LocalSearch(context.getProblem(), penaltyCalculator, context.getBudget(), 0L);
+        Incumbent.Solution improved = localSearch.improve(found, localSearchTime);
+        log.info(
+            "[Step 9] 🔁 Local search accepted {} of {} steps, penalty {} -> {}.",
+            localSearch.getAcceptedSteps(),
+            localSearch.getSteps(),
+            found.penalty(),
+            improved.penalty()
+        );
+        if (improved != found) {
+            context.getProgress().onNewBest(improved.openTables(), improved.penalty());
+        }
+        return improved;
+    }
 
-            // ✨ בדיקות אילוצים לפני השיבוץ בפועל
-            if (ts.canFit(nextGroup) && ts.canAssignGroup(nextGroup)) {
-                log.debug("[Step 7] 🪑 Trying to assign group '{}' to table '{}'.", nextGroup.getNames(), ts.getTable().getTableNumber());
-                ts.assignGroup(nextGroup);
-                assignment.put(nextGroup, ts.getTable());
+    /**
+     * Returns the time of the improvement phase: {@code application.solver.local-search-time}, but at most
+     * half of a limited time budget, so the search keeps the larger share.
+     */
+    private Duration localSearchTime(SolverLimits limits) {
+        Duration configured = applicationProperties.getSolver().getLocalSearchTime();
+        if (configured == null || configured.isZero() || configured.isNegative()) {
+            return Duration.ZERO;
+        }
+        Duration half = limits.getTimeBudget().dividedBy(2);
+        if (limits.getTimeBudget().toMillis() > 0 && configured.compareTo(half) > 0) {
+            return half;
+        }
+        return configured;
+    }
 
-                assignedSeats.compute(ts.getTable().getId(), (k, v) -> (v == null ? 0 : v) + nextGroup.getTotalSeats());
+    /**
+     * Shuts the solver pool down when the application stops.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (solverPool != null) {
+            solverPool.shutdownNow();
+        }
+    }
 
-                Map<GuestGroup, Set<SeatingTable>> domainBackup = domainManager.cloneDomains();
-                domainManager.removeTableFromAllDomains(ts.getTable());
-                domainManager.applyAC3();
+    private static String describe(AssignmentResultDTO.Termination termination) {
+        return termination == AssignmentResultDTO.Termination.NODE_LIMIT ? "node limit" : "time limit";
+    }
 
-                boolean skipTable = false;
+    /**
+     * Guests and tables loaded for a solve, detached once the read-only transaction ends.
+     */
+    private record SolverInput(List<Guest> guests, List<SeatingTable> tables, Long eventId, Map<Long, Long> tableIdByGuestId) {}
 
-                if (domainManager.getDomain(nextGroup).isEmpty()) {
-                    log.warn("⚠️ Domain empty after AC-3 for group '{}', restoring domains and trying next table.", nextGroup.getNames());
-                    domainManager.restoreDomains(domainBackup);
-                    skipTable = true;
-                } else if (!isFeasible(groups, assignment, tableStates)) {
-                    log.warn("⚠️ Forward Checking failed after assigning group '{}'. Backtracking immediately...", nextGroup.getNames());
-                    skipTable = true;
-                }
+    /**
+     * Returns the id of the event all tables belong to, or {@code null} if they span several events or none.
+     */
+    private static Long singleEventId(List<SeatingTable> tables) {
+        Set<Long> eventIds = tables
+            .stream()
+            .map(SeatingTable::getEvent)
+            .filter(Objects::nonNull)
+            .map(Event::getId)
+            .collect(Collectors.toSet());
+        return eventIds.size() == 1 ? eventIds.iterator().next() : null;
+    }
 
-                if (skipTable) {
-                    assignment.remove(nextGroup);
-                    ts.removeGroup(nextGroup);
-                    assignedSeats.compute(ts.getTable().getId(), (k, v) -> (v == null ? 0 : v) - nextGroup.getTotalSeats());
-                } else {
-                    printCurrentAssignments(tableStates);
-                    backtrack(assignment, groups, tableStates, bestAssignment, minOpenTables, domainManager);
-
-                    log.info(
-                        "[Step 8] 🔄 Backtracking: Removing group '{}' from table '{}'.",
-                        nextGroup.getNames(),
-                        ts.getTable().getTableNumber()
-                    );
-                    assignment.remove(nextGroup);
-                    ts.removeGroup(nextGroup);
-                    assignedSeats.compute(ts.getTable().getId(), (k, v) -> (v == null ? 0 : v) - nextGroup.getTotalSeats());
-                    printCurrentAssignments(tableStates);
-                }
-            }
-        }
+    private AssignmentResultDTO buildResult(
+        List<GuestGroup> guestGroups,
+        Map<GuestGroup, SeatingTable> bestAssignment,
+        List<String> warnings
+    ) {
+        AssignmentResultDTO result = new AssignmentResultDTO();
+        result.setWarnings(warnings);
+        result.setAssignedGroups(bestAssignment.size());
+        result.setUnassignedGroups(guestGroups.size() - bestAssignment.size());
+        result.setOpenTables(bestAssignment.isEmpty() ? null : (int) bestAssignment.values().stream().distinct().count());
+        bestAssignment.forEach((group, table) -> group.getGuests().forEach(g -> result.getGuestTableIds().put(g.getId(), table.getId())));
+        return result;
     }
 
+    // Step 10: Save best found assignment (Algorithm: Optimization)
     /**
-     * Calculates how much assigning a group to a table will reduce the domain of other groups.
-     * Used as part of the LCV (Least Constraining Value) heuristic to prefer assignments that
-     * leave more options for future group assignments.
+     * Persists the final assignment of guests to tables in the database, in a single short transaction.
+     * The previous assignment of the guests is cleared with one bulk update, and the new one is written with
+     * one bulk update per table, so neither guests nor tables are loaded and no per-row updates are issued.
+     * Only the guests loaded for the solve are written, so guests added while the search was running are not touched.
      *
-     * @param table The seating table being considered.
-     * @param group The guest group being assigned.
-     * @param domainManager Manages the domains of possible table assignments for all groups.
-     * @return The number of domain reductions this assignment would cause.
+     * @param guestIds   Ids of the guests to write; the previous assignment of each is reset.
+     * @param assignment The best assignment of guest groups to tables found during backtracking.
      */
-
-    private int calculateDomainReduction(SeatingTable table, GuestGroup group, DomainManager domainManager) {
-        int reduction = 0;
-        for (GuestGroup otherGroup : domainManager.getAllGroups()) {
-            if (!otherGroup.equals(group)) {
-                Set<SeatingTable> domain = domainManager.getDomain(otherGroup);
-                if (domain != null && !domain.isEmpty() && domain.contains(table)) {
-                    reduction++;
-                }
-            }
-        }
-        return reduction; // כמה זה מצמצם את הדומיין של שאר הקבוצות – נעדיף ערכים שמצמצמים פחות
+    private void persistAssignment(List<Long> guestIds, Map<GuestGroup, SeatingTable> assignment) {
+        Set<Long> written = new HashSet<>(guestIds);
+        Map<SeatingTable, List<Long>> guestIdsByTable = new IdentityHashMap<>();
+        assignment.forEach((group, table) ->
+            group
+                .getGuests()
+                .stream()
+                .map(Guest::getId)
+                .filter(written::contains)
+                .forEach(id -> guestIdsByTable.computeIfAbsent(table, key -> new ArrayList<>()).add(id))
+        );
+        writeAssignment(guestIds, guestIdsByTable);
     }
 
-    // Step 9: Save best found assignment (Algorithm: Optimization)
     /**
-     * Persists the final assignment of guests to tables in the database.
+     * Clears the table of the given guests and seats them per table, in one write transaction of bulk updates.
      *
-     * @param assignment The best assignment of guest groups to tables found during backtracking.
+     * @param guestIds        Ids of the guests to write; the previous assignment of each is reset.
+     * @param guestIdsByTable The guests to seat at each table, a subset of {@code guestIds}.
      */
-    private void persistAssignment(Map<GuestGroup, SeatingTable> assignment) {
-        for (GuestGroup group : assignment.keySet()) {
-            SeatingTable table = assignment.get(group);
-            for (Guest guest : group.getGuests()) {
-                guest.setTable(table);
-                if (table != null) {
-                    guest.setEvent(table.getEvent());
+    private void writeAssignment(List<Long> guestIds, Map<SeatingTable, List<Long>> guestIdsByTable) {
+        int statements = writeTransaction.execute(status -> {
+            int count = 0;
+            for (List<Long> chunk : chunks(guestIds)) {
+                guestRepository.clearTables(chunk);
+                count++;
+            }
+            for (Map.Entry<SeatingTable, List<Long>> entry : guestIdsByTable.entrySet()) {
+                SeatingTable table = entry.getKey();
+                for (List<Long> chunk : chunks(entry.getValue())) {
+                    guestRepository.assignTable(table, table.getEvent(), chunk);
+                    count++;
                 }
             }
-            guestRepository.saveAll(group.getGuests());
+            return count;
+        });
+        log.info("[Step 10] 💾 Persisted best assignment of {} guests with {} bulk updates.", guestIds.size(), statements);
+    }
+
+    /**
+     * Splits ids into chunks small enough for the parameter limit of an {@code IN} list.
+     */
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += MAX_IN_LIST_SIZE) {
+            chunks.add(ids.subList(from, Math.min(ids.size(), from + MAX_IN_LIST_SIZE)));
         }
-        log.info("[Step 9] 💾 Persisted best assignment to guest records.");
+        return chunks;
     }
 
     /**
@@ -368,78 +834,6 @@ public class GuestAssignmentService {
         return adjustedGroups;
     }
 
-    /**
-     * Initializes the state for each seating table to track current assignments and available seats.
-     *
-     * @param tables List of seating tables.
-     * @return Map of table IDs to their respective TableState objects.
-     */
-    private Map<Long, TableState> initializeTableStates(List<SeatingTable> tables) {
-        Map<Long, TableState> states = new HashMap<>();
-        for (SeatingTable table : tables) {
-            states.put(table.getId(), new TableState(table));
-        }
-        return states;
-    }
-
-    /**
-     * Checks if the remaining guest groups can still be assigned to available tables.
-     *
-     * @param groups List of guest groups.
-     * @param assignment Current guest-to-table assignments.
-     * @param tableStates Current state of all tables.
-     * @return True if there is at least one valid assignment option left for each group, otherwise false.
-     */
-    private boolean isFeasible(List<GuestGroup> groups, Map<GuestGroup, SeatingTable> assignment, Map<Long, TableState> tableStates) {
-        for (GuestGroup group : groups) {
-            if (!assignment.containsKey(group)) {
-                boolean hasOption = tableStates.values().stream().anyMatch(ts -> ts.canFit(group) && ts.canAssignGroup(group));
-                if (!hasOption) {
-                    return false;
-                }
-            }
-        }
-        return true;
-    }
-
-    /**
-     * Selects the next guest group to assign based on the Minimum Remaining Values (MRV) heuristic.
-     *
-     * @param groups List of all guest groups.
-     * @param assignment Current guest-to-table assignments.
-     * @param tableStates Current state of all tables.
-     * @return The guest group with the fewest assignment options.
-     */
-
-    private GuestGroup selectGroupWithFewestOptions(
-        List<GuestGroup> groups,
-        Map<GuestGroup, SeatingTable> assignment,
-        Map<Long, TableState> tableStates,
-        DomainManager domainManager
-    ) {
-        GuestGroup bestGroup = null;
-        long minOptions = Long.MAX_VALUE;
-
-        for (GuestGroup group : groups) {
-            if (!assignment.containsKey(group)) {
-                long options = tableStates.values().stream().filter(ts -> ts.canFit(group)).filter(ts -> ts.canAssignGroup(group)).count();
-
-                if (options < minOptions) {
-                    minOptions = options;
-                    bestGroup = group;
-                } else if (options == minOptions) {
-                    long currentDegree = domainManager.getDomain(group).size();
-                    long bestDegree = domainManager.getDomain(bestGroup).size();
-                    if (currentDegree > bestDegree) {
-                        bestGroup = group;
-                    }
-                }
-            }
-        }
-
-        return bestGroup;
-    }
-
     /**
      * Validates the initial setup to ensure that guest requirements can be met
      * with the current available tables.
@@ -460,181 +854,6 @@ public class GuestAssignmentService {
         }
     }
 
-    /**
-     * Represents the current state of a seating table during the assignment process.
-     * Tracks assigned groups and the number of used seats.
-     */
-    public static class TableState {
-
-        private final SeatingTable table;
-        private final List<GuestGroup> assignedGroups = new ArrayList<>();
-        private int usedSeats = 0;
-
-        public TableState(SeatingTable table) {
-            this.table = table;
-        }
-
-        /**
-         * Checks if the table can accommodate the given guest group based on seat availability
-         * and accessibility requirements.
-         *
-         * @param group The guest group to check.
-         * @return True if the table can fit the group, false otherwise.
-         */
-        public boolean canFit(GuestGroup group) {
-            // אם יש מספיק מקומות בשולחן – בדוק האם מתאים לפי נגישות
-            if (getFreeSeats() >= group.getTotalSeats()) {
-                if (group.requiresAccessibility() && !Boolean.TRUE.equals(table.getAccessibility())) {
-                    // יש מקום אבל השולחן לא נגיש – אפשרי, אבל בעדיפות נמוכה יותר (Soft Constraint)
-                    log.warn(
-                        "[Accessibility] ⚠️ Group '{}' requires accessibility but table '{}' is not accessible.",
-                        group.getNames(),
-                        table.getTableNumber()
-                    );
-                }
-                return true; // תמיד מאפשר מבחינת כמות מקומות, גם אם לא עומד בנגישות
-            }
-            return false;
-        }
-
-        /**
-         * Assigns a guest group to this table and updates the used seats count accordingly.
-         *
-         * @param group The guest group to assign.
-         */
-        public void assignGroup(GuestGroup group) {
-            assignedGroups.add(group);
-            usedSeats += group.getTotalSeats();
-        }
-
-        /**
-         * Removes a guest group from this table and updates the used seats count accordingly.
-         *
-         * @param group The guest group to remove.
-         */
-        public void removeGroup(GuestGroup group) {
-            assignedGroups.remove(group);
-            usedSeats -= group.getTotalSeats();
-        }
-
-        /**
-         * Counts the number of guests already seated at this table that have the specified relation.
-         *
-         * @param relation The relation to count (e.g., FAMILY, FRIEND).
-         * @return Number of guests at this table with the specified relation.
-         */
-
-        public int countSameRelation(String relation) {
-            return (int) assignedGroups
-                .stream()
-                .flatMap(g -> g.getGuests().stream())
-                .filter(g -> g.getRelation() != null && g.getRelation().name().equals(relation))
-                .count();
-        }
-
-        /**
-         * Counts the number of guests already seated at this table that belong to the specified side (e.g., GROOM or BRIDE).
-         * This is used to help maintain balance between guests from different sides during the seating assignment process.
-         *
-         * @param side The side to count guests for (GROOM, BRIDE, or BOTH).
-         * @return Number of guests assigned to this table that belong to the specified side.
-         */
-
-        public int countSameSide(String side) {
-            return (int) assignedGroups
-                .stream()
-                .flatMap(g -> g.getGuests().stream())
-                .filter(g -> g.getSide() != null && g.getSide().name().equals(side))
-                .count();
-        }
-
-        /**
-         * Counts how many guests already seated at this table are preferred by the given guest group.
-         * This can be used to prioritize seating arrangements that satisfy 'preferGuests' constraints.
-         *
-         * @param group The guest group being considered for seating.
-         * @return Number of preferred guests already seated at this table.
-         */
-
-        public int countPreferredGuests(GuestGroup group) {
-            Set<Long> seatedGuestIds = assignedGroups
-                .stream()
-                .flatMap(g -> g.getGuests().stream())
-                .map(Guest::getId)
-                .collect(Collectors.toSet());
-            return (int) group
-                .getGuests()
-                .stream()
-                .flatMap(g -> g.getPreferGuests().stream())
-                .filter(g -> seatedGuestIds.contains(g.getId()))
-                .count();
-        }
-
-        /**
-         * Calculates and returns the number of free seats remaining at this table.
-         *
-         * @return The number of free seats available.
-         */
-        public int getFreeSeats() {
-            return table.getMaxSeats() - usedSeats;
-        }
-
-        /**
-         * Determines if the given guest group can be assigned to this table
-         * without violating any avoidance constraints (hard constraints).
-         *
-         * @param group The guest group to check.
-         * @return True if no conflicts are found, false otherwise.
-         */
-        public boolean canAssignGroup(GuestGroup group) {
-            for (Guest existingGuest : assignedGroups.stream().flatMap(g -> g.getGuests().stream()).toList()) {
-                for (Guest newGuest : group.getGuests()) {
-                    boolean conflict =
-                        existingGuest.getAvoidGuests().stream().anyMatch(guest -> guest.getId().equals(newGuest.getId())) ||
-                        newGuest.getAvoidGuests().stream().anyMatch(guest -> guest.getId().equals(existingGuest.getId()));
-
-                    if (conflict) {
-                        log.warn(
-                            "[AvoidGuests] ❌ Conflict detected: Guest '{}' must avoid Guest '{}'",
-                            existingGuest.getLastNameAndFirstName(),
-                            newGuest.getLastNameAndFirstName()
-                        );
-                        return false; // שינוי חשוב: מחזיר false במקרה של קונפליקט
-                    }
-                }
-            }
-            return true; // אין קונפליקט, אפשר לשבץ
-        }
-
-        /**
-         * Retrieves the SeatingTable object associated with this table state.
-         *
-         * @return The associated SeatingTable entity.
-         */
-        public SeatingTable getTable() {
-            return table;
-        }
-    }
-
-    /**
-     * Logs the current assignment of guest groups to tables, including used seats
-     * and the names of assigned guests for each table.
-     *
-     * @param tableStates Map containing the current state of all tables.
-     */
-
-    private void printCurrentAssignments(Map<Long, TableState> tableStates) {
-        log.info("📋 Current Table Assignments:");
-        for (TableState ts : tableStates.values()) {
-            String guests = ts.assignedGroups
-                .stream()
-                .flatMap(g -> g.getGuests().stream())
-                .map(Guest::getLastNameAndFirstName)
-                .collect(Collectors.joining(", "));
-            log.info("Table {} - {} seats used: {}", ts.getTable().getTableNumber(), ts.usedSeats, guests.isEmpty() ? "Empty" : guests);
-        }
-    }
-
     /**
      * Logs the current status of all tables, including their table number and maximum seating capacity.
      *
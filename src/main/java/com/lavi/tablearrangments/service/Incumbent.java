@@ -0,0 +1,112 @@
+package com.lavi.tablearrangments.service;
+
+import com.lavi.tablearrangments.domain.GuestGroup;
+import com.lavi.tablearrangments.domain.SeatingTable;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Best assignment found by any search worker of a solve.
+ * <p>
+ * The current best is an immutable {@link Solution} behind an {@link AtomicReference}, so workers read
+ * the bound to prune against with a single volatile read and publish improvements with compare-and-set.
+ * A complete assignment beats any partial one; complete assignments are ranked by open tables and then
+ * by penalty, and partial ones, kept only until a complete one exists, by the number of seated groups.
+ */
+public class Incumbent {
+
+    private final AtomicReference<Solution> best = new AtomicReference<>(Solution.NONE);
+
+    /**
+     * An immutable assignment of groups to tables.
+     *
+     * @param assignment The seated groups and their tables.
+     * @param openTables The number of tables used.
+     * @param penalty    The summed placement penalty.
+     * @param complete   Whether every group is seated.
+     */
+    public record Solution(Map<GuestGroup, SeatingTable> assignment, int openTables, long penalty, boolean complete) {
+        static final Solution NONE = new Solution(Map.of(), Integer.MAX_VALUE, 0L, false);
+
+        private boolean isBetterThan(Solution other) {
+            if (complete != other.complete) {
+                return complete;
+            }
+            if (complete) {
+                return openTables < other.openTables || (openTables == other.openTables && penalty < other.penalty);
+            }
+            return assignment.size() > other.assignment.size();
+        }
+    }
+
+    /**
+     * Returns the open tables of the best complete assignment.
+     *
+     * @return The open-table count to beat, or {@link Integer#MAX_VALUE} if no complete assignment exists yet.
+     */
+    public int getOpenTables() {
+        Solution current = best.get();
+        return current.complete ? current.openTables : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Checks whether a partial assignment of the given size would become the new best.
+     *
+     * @param assignedGroups The number of seated groups.
+     * @return True if no complete assignment exists and the best partial one is smaller.
+     */
+    public boolean acceptsPartial(int assignedGroups) {
+        Solution current = best.get();
+        return !current.complete && assignedGroups > current.assignment.size();
+    }
+
+    /**
+     * Offers a complete assignment.
+     *
+     * @param assignment The assignment; copied if it is accepted.
+     * @param openTables The number of tables it uses.
+     * @param penalty    Its summed placement penalty.
+     * @return True if it became the new best.
+     */
+    public boolean offerComplete(Map<GuestGroup, SeatingTable> assignment, int openTables, long penalty) {
+        if (openTables > getOpenTables()) {
+            return false;
+        }
+        return offer(new Solution(Map.copyOf(assignment), openTables, penalty, true));
+    }
+
+    /**
+     * Offers a partial assignment, used as the result while no complete assignment has been found.
+     *
+     * @param assignment The assignment; copied if it is accepted.
+     * @param openTables The number of tables it uses.
+     * @param penalty    Its summed placement penalty.
+     * @return True if it became the new best.
+     */
+    public boolean offerPartial(Map<GuestGroup, SeatingTable> assignment, int openTables, long penalty) {
+        if (!acceptsPartial(assignment.size())) {
+            return false;
+        }
+        return offer(new Solution(Map.copyOf(assignment), openTables, penalty, false));
+    }
+
+    private boolean offer(Solution candidate) {
+        Solution current = best.get();
+        while (candidate.isBetterThan(current)) {
+            if (best.compareAndSet(current, candidate)) {
+                return true;
+            }
+            current = best.get();
+        }
+        return false;
+    }
+
+    /**
+     * Returns the best assignment found so far.
+     *
+     * @return The current best, possibly empty.
+     */
+    public Solution get() {
+        return best.get();
+    }
+}
@@ -0,0 +1,584 @@
+package com.lavi.tablearrangments.service;
+
+import com.lavi.tablearrangments.domain.GuestGroup;
+import com.lavi.tablearrangments.domain.SeatingTable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Large neighborhood search for events too large for an exhaustive {@link BacktrackingSearch}.
+ * <p>
+ * A greedy construction seats every group it can. Each step then destroys a neighborhood of related tables,
+ * chosen around a random open table among the tables sharing its relation or side, and repairs it: the groups
+ * of those tables, together with any unseated groups, are re-seated on those tables by a {@link BacktrackingSearch}
+ * with MRV and AC-3 over a {@link SeatingProblem} of just that neighborhood, under a small node budget. The rest
+ * of the tables are untouched, so a repaired neighborhood can be scored on its own tables only.
+ * <p>
+ * A repair is kept if it seats at least as many groups, opens no more tables and does not raise the penalty,
+ * in that order. Sideways steps let the search drift across plateaus. Every strict improvement is offered to
+ * the solve's {@link Incumbent}. The search runs until the solve's budget stops it or no improvement has
+ * turned up for a while, and never proves optimality.
+ * <p>
+ * {@link #runIncremental(Map)} starts from a persisted assignment instead of a construction, and only repairs
+ * around the groups that no longer have a seat.
+ */
+public class LargeNeighborhoodSearch {
+
+    private static final Logger log = LoggerFactory.getLogger(LargeNeighborhoodSearch.class);
+
+    private static final long REPAIR_NODE_LIMIT = 5_000;
+
+    private static final Duration REPAIR_TIME_LIMIT = Duration.ofSeconds(1);
+
+    private static final int MIN_IDLE_STEPS = 200;
+
+    private static final int IDLE_STEPS_PER_TABLE = 4;
+
+    private final SeatingProblem problem;
+
+    private final PenaltyCalculator penaltyCalculator;
+
+    private final Incumbent incumbent;
+
+    private final SearchBudget budget;
+
+    private final SolverProgress progress;
+
+    private final int neighborhoodTables;
+
+    private final SplittableRandom random;
+
+    private final List<GuestGroup> groups;
+
+    private final TableState[] tables;
+
+    private final Map<Long, Integer> tableIds = new HashMap<>();
+
+    /** Table index of each group, or -1 while it is not seated. */
+    private final int[] groupTables;
+
+    private final long[] tableScores;
+
+    private int unassigned;
+
+    private int openTables;
+
+    private long penalty;
+
+    private long steps;
+
+    private long keptSteps;
+
+    /**
+     * Creates a large neighborhood search for a solve.
+     *
+     * @param problem            The indexed groups and tables of the solve.
+     * @param penaltyCalculator  Scores placements and tables.
+     * @param incumbent          Receives every improvement.
+     * @param budget             The limits of the solve.
+     * @param progress           Receives the nodes of the repairs and the new bests.
+     * @param neighborhoodTables The number of tables destroyed and repaired by each step.
+     * @param seed               Seed of the neighborhood selection, so runs on the same input are reproducible.
+     */
+    public LargeNeighborhoodSearch(
+        SeatingProblem problem,
+        PenaltyCalculator penaltyCalculator,
+        Incumbent incumbent,
+        SearchBudget budget,
+        SolverProgress progress,
+        int neighborhoodTables,
+        long seed
+    ) {
+        this.problem = problem;
+        this.penaltyCalculator = penaltyCalculator;
+        this.incumbent = incumbent;
+        this.budget = budget;
+        this.progress = progress;
+        this.neighborhoodTables = Math.max(2, neighborhoodTables);
+        this.random = new SplittableRandom(seed);
+        this.groups = problem.getGroups();
+        this.tables = new TableState[problem.getTables().size()];
+        this.groupTables = new int[groups.size()];
+        this.tableScores = new long[tables.length];
+        for (int t = 0; t < tables.length; t++) {
+            tables[t] = new TableState(problem.getTables().get(t), problem);
+            tableIds.put(tables[t].getTable().getId(), t);
+        }
+    }
+
+    /**
+     * Builds a first assignment and improves it until the budget stops the search or it stagnates.
+     *
+     * @throws CancellationException if the solve is cancelled or the thread is interrupted.
+     */
+    public void run() {
+        construct();
+        publish();
+        log.debug("[LNS] Construction seated {} of {} groups at {} tables.", groups.size() - unassigned, groups.size(), openTables);
+
+        long idleLimit = Math.max(MIN_IDLE_STEPS, (long) IDLE_STEPS_PER_TABLE * tables.length);
+        long idle = 0;
+        while (idle < idleLimit && tables.length > 0 && !budget.shouldStopNow(progress.getNodes())) {
+            if (budget.isCancelled() || Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Guest assignment was cancelled");
+            }
+            steps++;
+            idle++;
+            int previousUnassigned = unassigned;
+            int previousOpenTables = openTables;
+            long previousPenalty = penalty;
+            if (step()) {
+                keptSteps++;
+                if (compare(unassigned, openTables, penalty, previousUnassigned, previousOpenTables, previousPenalty) < 0) {
+                    publish();
+                    idle = 0;
+                }
+            }
+        }
+        log.debug("[LNS] Kept {} of {} repairs.", keptSteps, steps);
+    }
+
+    /**
+     * Re-seats the groups a warm start leaves unseated, keeping the rest of the warm start where it is.
+     * <p>
+     * Every group is put back at its warm-start table if it still fits there. The groups that do not, and the groups
+     * without a table, are first inserted greedily. Any still left over are repaired into a neighborhood of the
+     * tables they were dropped from, the tables with room seating their relation or side, and one empty table; the
+     * neighborhood grows with every failed repair. The search stops as soon as every group is seated, so a small
+     * change only moves the groups of a few tables.
+     *
+     * @param warmStart The table of each group in the persisted assignment; groups missing from it are seated anew.
+     * @throws CancellationException if the solve is cancelled or the thread is interrupted.
+     */
+    public void runIncremental(Map<GuestGroup, SeatingTable> warmStart) {
+        boolean[] affected = load(warmStart);
+        List<Integer> unseated = unseatedGroups();
+        unseated.sort((a, b) -> Integer.compare(problem.getGroupSeats(b), problem.getGroupSeats(a)));
+        seatGreedily(unseated);
+        scoreAll();
+        publish();
+        log.debug(
+            "[LNS] Warm start kept {} groups and inserted {} of {} others.",
+            groups.size() - unseated.size(),
+            unseated.size() - unassigned,
+            unseated.size()
+        );
+
+        long idleLimit = Math.max(MIN_IDLE_STEPS, (long) IDLE_STEPS_PER_TABLE * tables.length);
+        int attempts = 0;
+        while (unassigned > 0 && attempts < idleLimit && !budget.shouldStopNow(progress.getNodes())) {
+            if (budget.isCancelled() || Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Guest assignment was cancelled");
+            }
+            steps++;
+            attempts++;
+            int previousUnassigned = unassigned;
+            if (repair(neighborhoodOf(affected, attempts))) {
+                keptSteps++;
+                if (unassigned < previousUnassigned) {
+                    publish();
+                }
+            }
+        }
+    }
+
+    /**
+     * Seats the groups one by one, largest first, each at the feasible table where it scores best, preferring
+     * open tables.
+     */
+    private void construct() {
+        List<Integer> order = new ArrayList<>(groups.size());
+        for (int g = 0; g < groups.size(); g++) {
+            order.add(g);
+            groupTables[g] = -1;
+        }
+        order.sort((a, b) -> Integer.compare(problem.getGroupSeats(b), problem.getGroupSeats(a)));
+        unassigned = groups.size();
+        seatGreedily(order);
+        scoreAll();
+    }
+
+    /**
+     * Puts every group of the warm start back at its table while the table has room and no avoidance conflict,
+     * and the table is accessible if the group needs it.
+     *
+     * @return For each table, whether a warm-start group no longer fits there.
+     */
+    private boolean[] load(Map<GuestGroup, SeatingTable> warmStart) {
+        boolean[] affected = new boolean[tables.length];
+        unassigned = groups.size();
+        for (int g = 0; g < groups.size(); g++) {
+            groupTables[g] = -1;
+            SeatingTable table = warmStart.get(groups.get(g));
+            Integer t = table == null ? null : tableIds.get(table.getId());
+            if (t == null) {
+                continue;
+            }
+            TableState ts = tables[t];
+            boolean allowed = !problem.requiresAccessibility(g) || ts.isAccessible();
+            if (allowed && ts.getFreeSeats() >= problem.getGroupSeats(g) && ts.canAssignGroupReplacing(g, -1)) {
+                ts.assignGroup(groups.get(g));
+                groupTables[g] = t;
+                unassigned--;
+            } else {
+                affected[t] = true;
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * Seats the given groups in order, each at the feasible table where it scores best, preferring open tables.
+     * As in the backtracking search, a group needing accessibility is only seated at an accessible table. Groups
+     * no table has room for stay unseated.
+     */
+    private void seatGreedily(List<Integer> order) {
+        for (int g : order) {
+            int best = -1;
+            long bestKey = Long.MAX_VALUE;
+            for (int t = 0; t < tables.length; t++) {
+                TableState ts = tables[t];
+                if (problem.requiresAccessibility(g) && !ts.isAccessible()) {
+                    continue;
+                }
+                if (ts.getFreeSeats() < problem.getGroupSeats(g) || !ts.canAssignGroupReplacing(g, -1)) {
+                    continue;
+                }
+                long key = (ts.isOpen() ? 0L : 1L) * (1L << 40) + penaltyCalculator.calculate(ts, g);
+                if (key < bestKey) {
+                    bestKey = key;
+                    best = t;
+                }
+            }
+            if (best >= 0) {
+                tables[best].assignGroup(groups.get(g));
+                groupTables[g] = best;
+                unassigned--;
+            }
+        }
+    }
+
+    private void scoreAll() {
+        penalty = 0;
+        openTables = 0;
+        for (int t = 0; t < tables.length; t++) {
+            tableScores[t] = penaltyCalculator.scoreTable(tables[t]);
+            penalty += tableScores[t];
+            if (tables[t].isOpen()) {
+                openTables++;
+            }
+        }
+    }
+
+    private List<Integer> unseatedGroups() {
+        List<Integer> unseated = new ArrayList<>();
+        for (int g = 0; g < groups.size(); g++) {
+            if (groupTables[g] < 0) {
+                unseated.add(g);
+            }
+        }
+        return unseated;
+    }
+
+    /**
+     * Destroys and repairs one neighborhood, keeping the repair if it is not worse.
+     *
+     * @return True if the repair was kept.
+     */
+    private boolean step() {
+        return repair(selectNeighborhood());
+    }
+
+    /**
+     * Re-seats the groups of the given tables, together with any unseated groups, on those tables, keeping the
+     * repair if it is not worse.
+     *
+     * @return True if the repair was kept.
+     */
+    private boolean repair(int[] neighborhood) {
+        List<GuestGroup> freed = new ArrayList<>();
+        List<SeatingTable> neighborhoodTableList = new ArrayList<>(neighborhood.length);
+        List<List<GuestGroup>> previous = new ArrayList<>(neighborhood.length);
+        for (int t : neighborhood) {
+            freed.addAll(tables[t].getAssignedGroups());
+            neighborhoodTableList.add(tables[t].getTable());
+            previous.add(List.copyOf(tables[t].getAssignedGroups()));
+        }
+        for (int g = 0; g < groups.size(); g++) {
+            if (groupTables[g] < 0) {
+                freed.add(groups.get(g));
+            }
+        }
+        if (freed.isEmpty()) {
+            return false;
+        }
+
+        Incumbent.Solution repaired = search(freed, neighborhoodTableList);
+        if (repaired.assignment().isEmpty()) {
+            return false;
+        }
+
+        int newUnassigned = unassigned;
+        int newOpenTables = openTables;
+        long newPenalty = penalty;
+        for (int t : neighborhood) {
+            newOpenTables -= tables[t].isOpen() ? 1 : 0;
+            newPenalty -= tableScores[t];
+            clear(t);
+        }
+        for (GuestGroup group : freed) {
+            SeatingTable table = repaired.assignment().get(group);
+            int g = problem.groupId(group);
+            int before = groupTables[g];
+            int after = table == null ? -1 : tableIds.get(table.getId());
+            if (after >= 0) {
+                tables[after].assignGroup(group);
+            }
+            groupTables[g] = after;
+            newUnassigned += (after < 0 ? 1 : 0) - (before < 0 ? 1 : 0);
+        }
+        long[] scores = new long[neighborhood.length];
+        for (int i = 0; i < neighborhood.length; i++) {
+            TableState ts = tables[neighborhood[i]];
+            scores[i] = penaltyCalculator.scoreTable(ts);
+            newPenalty += scores[i];
+            newOpenTables += ts.isOpen() ? 1 : 0;
+        }
+
+        if (compare(newUnassigned, newOpenTables, newPenalty, unassigned, openTables, penalty) <= 0) {
+            for (int i = 0; i < neighborhood.length; i++) {
+                tableScores[neighborhood[i]] = scores[i];
+            }
+            unassigned = newUnassigned;
+            openTables = newOpenTables;
+            penalty = newPenalty;
+            return true;
+        }
+
+        for (GuestGroup group : freed) {
+            groupTables[problem.groupId(group)] = -1;
+        }
+        for (int i = 0; i < neighborhood.length; i++) {
+            clear(neighborhood[i]);
+            for (GuestGroup group : previous.get(i)) {
+                tables[neighborhood[i]].assignGroup(group);
+                groupTables[problem.groupId(group)] = neighborhood[i];
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Re-seats the freed groups on the neighborhood's tables with a bounded backtracking search, given at most the
+     * time left on the solve's budget.
+     */
+    private Incumbent.Solution search(List<GuestGroup> freed, List<SeatingTable> neighborhoodTableList) {
+        Duration repairTime = budget
+            .getRemainingTime()
+            .filter(left -> left.compareTo(REPAIR_TIME_LIMIT) < 0)
+            .orElse(REPAIR_TIME_LIMIT);
+        if (repairTime.isZero()) {
+            return Incumbent.Solution.NONE;
+        }
+        SeatingProblem neighborhoodProblem = new SeatingProblem(freed, neighborhoodTableList, problem.getScoringCoefficients());
+        Incumbent repairIncumbent = new Incumbent();
+        SolverProgress repairProgress = new SolverProgress();
+        SearchStrategy.ValueOrder[] orders = SearchStrategy.ValueOrder.values();
+        SearchStrategy strategy = new SearchStrategy(SearchStrategy.TieBreak.RANDOM, orders[(int) (steps % orders.length)], random.nextLong());
+        SearchBudget repairBudget = SolverLimits.of(repairTime, REPAIR_NODE_LIMIT).start();
+        try {
+            new BacktrackingSearch(neighborhoodProblem, strategy, penaltyCalculator, repairIncumbent, repairBudget, repairProgress).run();
+        } finally {
+            progress.addTotals(repairProgress);
+        }
+        return repairIncumbent.get();
+    }
+
+    /**
+     * Picks a random open table and the tables related to it: first those seating guests of its relation or
+     * side, then any others, up to the neighborhood size. One empty table is included when there is one, so
+     * a repair can also spread groups out or seat groups that were left over.
+     */
+    private int[] selectNeighborhood() {
+        int size = Math.min(neighborhoodTables, tables.length);
+        int seed = randomOpenTable();
+        GuestGroup seedGroup = seed >= 0 ? tables[seed].getAssignedGroups().get(0) : null;
+        int relation = seedGroup == null ? -1 : problem.getGroupRelation(problem.groupId(seedGroup));
+        int side = seedGroup == null ? -1 : problem.getGroupSide(problem.groupId(seedGroup));
+
+        List<Integer> related = new ArrayList<>();
+        List<Integer> others = new ArrayList<>();
+        int empty = -1;
+        for (int t : shuffledTables()) {
+            if (t == seed) {
+                continue;
+            }
+            TableState ts = tables[t];
+            if (!ts.isOpen()) {
+                if (empty < 0) {
+                    empty = t;
+                } else {
+                    others.add(t);
+                }
+            } else if ((relation >= 0 && ts.countSameRelation(relation) > 0) || (side >= 0 && ts.countSameSide(side) > 0)) {
+                related.add(t);
+            } else {
+                others.add(t);
+            }
+        }
+
+        List<Integer> chosen = new ArrayList<>(size);
+        if (seed >= 0) {
+            chosen.add(seed);
+        }
+        if (empty >= 0) {
+            chosen.add(empty);
+        }
+        for (List<Integer> pool : List.of(related, others)) {
+            for (int t : pool) {
+                if (chosen.size() >= size) {
+                    break;
+                }
+                chosen.add(t);
+            }
+        }
+        return chosen.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Picks the neighborhood of an incremental repair: every affected table, one empty table, then open tables with
+     * room for the smallest unseated group, those seating its relation or side first, then any others. The size is
+     * the configured neighborhood size times the attempt, so repeated failures widen the search.
+     */
+    private int[] neighborhoodOf(boolean[] affected, int attempt) {
+        int size = (int) Math.min(tables.length, (long) neighborhoodTables * attempt);
+        List<Integer> unseated = unseatedGroups();
+        int minSeats = unseated.stream().mapToInt(problem::getGroupSeats).min().orElse(0);
+
+        List<Integer> chosen = new ArrayList<>(size);
+        List<Integer> related = new ArrayList<>();
+        List<Integer> others = new ArrayList<>();
+        List<Integer> rest = new ArrayList<>();
+        int empty = -1;
+        for (int t : shuffledTables()) {
+            TableState ts = tables[t];
+            if (affected[t]) {
+                chosen.add(t);
+            } else if (!ts.isOpen()) {
+                if (empty < 0) {
+                    empty = t;
+                } else {
+                    rest.add(t);
+                }
+            } else if (ts.getFreeSeats() < minSeats) {
+                rest.add(t);
+            } else if (isRelated(ts, unseated)) {
+                related.add(t);
+            } else {
+                others.add(t);
+            }
+        }
+        if (empty >= 0) {
+            chosen.add(empty);
+        }
+        for (List<Integer> pool : List.of(related, others, rest)) {
+            for (int t : pool) {
+                if (chosen.size() >= size) {
+                    break;
+                }
+                chosen.add(t);
+            }
+        }
+        return chosen.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private boolean isRelated(TableState ts, List<Integer> unseated) {
+        for (int g : unseated) {
+            int relation = problem.getGroupRelation(g);
+            int side = problem.getGroupSide(g);
+            if ((relation >= 0 && ts.countSameRelation(relation) > 0) || (side >= 0 && ts.countSameSide(side) > 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int randomOpenTable() {
+        for (int t : shuffledTables()) {
+            if (tables[t].isOpen()) {
+                return t;
+            }
+        }
+        return -1;
+    }
+
+    private int[] shuffledTables() {
+        int[] order = new int[tables.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return order;
+    }
+
+    private void clear(int table) {
+        TableState ts = tables[table];
+        List<GuestGroup> seated = List.copyOf(ts.getAssignedGroups());
+        for (GuestGroup group : seated) {
+            ts.removeGroup(group);
+        }
+    }
+
+    /**
+     * Offers the current assignment to the solve's incumbent and reports it if it is the new best.
+     */
+    private void publish() {
+        Map<GuestGroup, SeatingTable> assignment = new HashMap<>();
+        for (int g = 0; g < groups.size(); g++) {
+            if (groupTables[g] >= 0) {
+                assignment.put(groups.get(g), tables[groupTables[g]].getTable());
+            }
+        }
+        if (unassigned == 0) {
+            if (incumbent.offerComplete(assignment, openTables, penalty)) {
+                progress.onNewBest(openTables, penalty);
+                log.info("[LNS] 🥇 New best assignment found with {} open tables and penalty {}.", openTables, penalty);
+            }
+        } else {
+            incumbent.offerPartial(assignment, openTables, penalty);
+        }
+    }
+
+    /**
+     * Ranks assignments by unseated groups, then open tables, then penalty.
+     */
+    private static int compare(int unassigned, int openTables, long penalty, int otherUnassigned, int otherOpenTables, long otherPenalty) {
+        if (unassigned != otherUnassigned) {
+            return Integer.compare(unassigned, otherUnassigned);
+        }
+        if (openTables != otherOpenTables) {
+            return Integer.compare(openTables, otherOpenTables);
+        }
+        return Long.compare(penalty, otherPenalty);
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    public long getKeptSteps() {
+        return keptSteps;
+    }
+}
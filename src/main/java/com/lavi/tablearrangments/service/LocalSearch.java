@@ -0,0 +1,278 @@
+package com.lavi.tablearrangments.service;
+
+import com.lavi.tablearrangments.domain.GuestGroup;
+import com.lavi.tablearrangments.domain.SeatingTable;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Improvement phase run on a complete assignment once the backtracking search is done.
+ * <p>
+ * Each step either moves a group to another table or swaps two groups between tables. A step touches two
+ * tables, so only those are rescored with {@link PenaltyCalculator#scoreTable(TableState)} and the score of
+ * the assignment is updated by the delta. Steps are accepted by late acceptance hill climbing: a candidate is
+ * kept if it is no worse than the current assignment or than the current assignment of {@value #HISTORY_LENGTH}
+ * steps ago. This walks through plateaus and small worsenings without a temperature schedule to tune.
+ * <p>
+ * Assignments are ranked like the search ranks them: by open tables first, then by summed placement penalty.
+ * Steps never break a hard constraint: table capacity, avoidance, and the accessibility of an
+ * accessibility-requiring group's new table. The phase ends when its time is up, the solve is cancelled, or
+ * no better assignment has turned up for a while.
+ */
+public class LocalSearch {
+
+    private static final int HISTORY_LENGTH = 500;
+
+    /** Weight of one open table in the scalar cost, above any reachable penalty difference. */
+    private static final long OPEN_TABLE_COST = 1L << 32;
+
+    private static final int CLOCK_CHECK_MASK = 255;
+
+    private static final long MIN_IDLE_STEPS = 10_000;
+
+    private static final long IDLE_STEPS_PER_GROUP = 100;
+
+    private final SeatingProblem problem;
+
+    private final PenaltyCalculator penaltyCalculator;
+
+    private final SearchBudget budget;
+
+    private final SplittableRandom random;
+
+    private final List<GuestGroup> groups;
+
+    private final TableState[] tables;
+
+    private final int[] groupTables;
+
+    private final long[] tableScores;
+
+    private int openTables;
+
+    private long penalty;
+
+    private long steps;
+
+    private long acceptedSteps;
+
+    /**
+     * Creates an improvement phase for a solve.
+     *
+     * @param problem           The read-only problem index of the solve.
+     * @param penaltyCalculator Scores the tables a step touches.
+     * @param budget            The budget of the solve, checked for cancellation.
+     * @param seed              Seed of the step selection, so runs on the same input are reproducible.
+     */
+    public LocalSearch(SeatingProblem problem, PenaltyCalculator penaltyCalculator, SearchBudget budget, long seed) {
+        this.problem = problem;
+        this.penaltyCalculator = penaltyCalculator;
+        this.budget = budget;
+        this.random = new SplittableRandom(seed);
+        this.groups = problem.getGroups();
+        this.tables = new TableState[problem.getTables().size()];
+        this.groupTables = new int[groups.size()];
+        this.tableScores = new long[tables.length];
+        for (int t = 0; t < tables.length; t++) {
+            tables[t] = new TableState(problem.getTables().get(t), problem);
+        }
+    }
+
+    /**
+     * Improves a complete assignment.
+     *
+     * @param start     The assignment found by the search.
+     * @param timeLimit The longest the phase may run.
+     * @return The best assignment found, which is {@code start} if it is partial or could not be improved.
+     */
+    public Incumbent.Solution improve(Incumbent.Solution start, Duration timeLimit) {
+        if (!start.complete() || timeLimit.isZero() || timeLimit.isNegative() || tables.length < 2 || groups.isEmpty()) {
+            return start;
+        }
+        load(start.assignment());
+
+        long deadline = System.nanoTime() + timeLimit.toNanos();
+        long idleLimit = Math.max(MIN_IDLE_STEPS, IDLE_STEPS_PER_GROUP * groups.size());
+        long current = cost(openTables, penalty);
+        long[] history = new long[HISTORY_LENGTH];
+        Arrays.fill(history, current);
+
+        long best = current;
+        int bestOpenTables = openTables;
+        long bestPenalty = penalty;
+        int[] bestTables = groupTables.clone();
+
+        long idle = 0;
+        while (idle < idleLimit) {
+            if ((steps & CLOCK_CHECK_MASK) == 0 && (System.nanoTime() - deadline >= 0 || isCancelled())) {
+                break;
+            }
+            int slot = (int) (steps % HISTORY_LENGTH);
+            steps++;
+            idle++;
+            long threshold = Math.max(current, history[slot]);
+            if (random.nextBoolean() ? tryMove(threshold) : trySwap(threshold)) {
+                acceptedSteps++;
+                current = cost(openTables, penalty);
+                if (current < best) {
+                    best = current;
+                    bestOpenTables = openTables;
+                    bestPenalty = penalty;
+                    System.arraycopy(groupTables, 0, bestTables, 0, bestTables.length);
+                    idle = 0;
+                }
+            }
+            history[slot] = current;
+        }
+
+        if (best >= cost(start.openTables(), start.penalty())) {
+            return start;
+        }
+        Map<GuestGroup, SeatingTable> assignment = new HashMap<>();
+        for (int g = 0; g < bestTables.length; g++) {
+            assignment.put(groups.get(g), tables[bestTables[g]].getTable());
+        }
+        return new Incumbent.Solution(Map.copyOf(assignment), bestOpenTables, bestPenalty, true);
+    }
+
+    private void load(Map<GuestGroup, SeatingTable> assignment) {
+        Map<Long, Integer> tableIds = new HashMap<>();
+        for (int t = 0; t < tables.length; t++) {
+            tableIds.put(tables[t].getTable().getId(), t);
+        }
+        for (int g = 0; g < groups.size(); g++) {
+            GuestGroup group = groups.get(g);
+            int t = tableIds.get(assignment.get(group).getId());
+            groupTables[g] = t;
+            tables[t].assignGroup(group);
+        }
+        for (int t = 0; t < tables.length; t++) {
+            tableScores[t] = penaltyCalculator.scoreTable(tables[t]);
+            penalty += tableScores[t];
+            if (tables[t].isOpen()) {
+                openTables++;
+            }
+        }
+    }
+
+    /**
+     * Moves a random group to a random other table, and keeps the move if its cost is within the threshold.
+     */
+    private boolean tryMove(long threshold) {
+        int g = random.nextInt(groups.size());
+        int from = groupTables[g];
+        int to = otherTable(from);
+        GuestGroup group = groups.get(g);
+        TableState source = tables[from];
+        TableState target = tables[to];
+        if (target.getFreeSeats() < problem.getGroupSeats(g) || !isAllowed(g, target) || !target.canAssignGroupReplacing(g, -1)) {
+            return false;
+        }
+
+        int position = source.getAssignedGroups().indexOf(group);
+        source.removeGroup(group);
+        target.assignGroup(group);
+        long sourceScore = penaltyCalculator.scoreTable(source);
+        long targetScore = penaltyCalculator.scoreTable(target);
+        int newOpenTables = openTables - (source.isOpen() ? 0 : 1) + (target.getAssignedGroups().size() == 1 ? 1 : 0);
+        long newPenalty = penalty - tableScores[from] - tableScores[to] + sourceScore + targetScore;
+
+        if (cost(newOpenTables, newPenalty) <= threshold) {
+            groupTables[g] = to;
+            tableScores[from] = sourceScore;
+            tableScores[to] = targetScore;
+            openTables = newOpenTables;
+            penalty = newPenalty;
+            return true;
+        }
+        target.removeGroup(group);
+        source.assignGroup(group, position);
+        return false;
+    }
+
+    /**
+     * Swaps a random group with a random group of another table, and keeps the swap if its cost is within the threshold.
+     */
+    private boolean trySwap(long threshold) {
+        int g = random.nextInt(groups.size());
+        int from = groupTables[g];
+        int to = otherTable(from);
+        TableState source = tables[from];
+        TableState target = tables[to];
+        List<GuestGroup> targetGroups = target.getAssignedGroups();
+        if (targetGroups.isEmpty()) {
+            return false;
+        }
+        int otherPosition = random.nextInt(targetGroups.size());
+        GuestGroup group = groups.get(g);
+        GuestGroup other = targetGroups.get(otherPosition);
+        int h = problem.groupId(other);
+        int seats = problem.getGroupSeats(g);
+        int otherSeats = problem.getGroupSeats(h);
+        if (
+            source.getFreeSeats() + seats < otherSeats ||
+            target.getFreeSeats() + otherSeats < seats ||
+            !isAllowed(g, target) ||
+            !isAllowed(h, source) ||
+            !target.canAssignGroupReplacing(g, h) ||
+            !source.canAssignGroupReplacing(h, g)
+        ) {
+            return false;
+        }
+
+        int position = source.getAssignedGroups().indexOf(group);
+        source.removeGroup(group);
+        target.removeGroup(other);
+        source.assignGroup(other);
+        target.assignGroup(group);
+        long sourceScore = penaltyCalculator.scoreTable(source);
+        long targetScore = penaltyCalculator.scoreTable(target);
+        long newPenalty = penalty - tableScores[from] - tableScores[to] + sourceScore + targetScore;
+
+        if (cost(openTables, newPenalty) <= threshold) {
+            groupTables[g] = to;
+            groupTables[h] = from;
+            tableScores[from] = sourceScore;
+            tableScores[to] = targetScore;
+            penalty = newPenalty;
+            return true;
+        }
+        source.removeGroup(other);
+        target.removeGroup(group);
+        source.assignGroup(group, position);
+        target.assignGroup(other, otherPosition);
+        return false;
+    }
+
+    private int otherTable(int table) {
+        int other = random.nextInt(tables.length - 1);
+        return other >= table ? other + 1 : other;
+    }
+
+    /**
+     * A group needing accessibility may only be moved to an accessible table.
+     */
+    private boolean isAllowed(int groupId, TableState table) {
+        return !problem.requiresAccessibility(groupId) || table.isAccessible();
+    }
+
+    private boolean isCancelled() {
+        return budget.isCancelled() || Thread.currentThread().isInterrupted();
+    }
+
+    private static long cost(int openTables, long penalty) {
+        return openTables * OPEN_TABLE_COST + penalty;
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    public long getAcceptedSteps() {
+        return acceptedSteps;
+    }
+}
@@ -1,20 +1,63 @@
 package com.lavi.tablearrangments.service;
 
-import com.lavi.tablearrangments.domain.Guest;
+import com.lavi.tablearrangments.config.ApplicationProperties;
 import com.lavi.tablearrangments.domain.GuestGroup;
-import java.util.Objects;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
 
 /**
  * PenaltyCalculator is responsible for calculating the penalty score
  * for assigning a specific guest group to a seating table.
  * The penalty score is used by the assignment algorithm
  * to determine the optimal placement of guest groups.
+ * It is stateless, so one instance is shared by all solves and search workers.
+ * <p>
+ * The penalty is the dot product of the {@link ScoringFeature} values of the placement with the
+ * coefficients the solve's {@link ScoringModel} compiled into the {@link SeatingProblem}. The features
+ * are read from the group features precomputed by the problem and the incremental counters of
+ * {@link TableState}, so an evaluation does not allocate or log. The per-feature breakdown is only
+ * reported to an opt-in {@link PenaltyDiagnostics} sink.
  */
+@Component
 public class PenaltyCalculator {
 
-    private static final Logger log = LoggerFactory.getLogger(PenaltyCalculator.class);
+    private static final int NEAR_STAGE_MISS = ScoringFeature.NEAR_STAGE_MISS.ordinal();
+
+    private static final int SAME_RELATION = ScoringFeature.SAME_RELATION.ordinal();
+
+    private static final int PREFERRED_GUESTS = ScoringFeature.PREFERRED_GUESTS.ordinal();
+
+    private static final int SAME_SIDE = ScoringFeature.SAME_SIDE.ordinal();
+
+    private static final int EMPTY_SEATS_CUBED = ScoringFeature.EMPTY_SEATS_CUBED.ordinal();
+
+    private final PenaltyDiagnostics diagnostics;
+
+    /**
+     * Creates a calculator without diagnostics.
+     */
+    public PenaltyCalculator() {
+        this(PenaltyDiagnostics.NONE);
+    }
+
+    /**
+     * Creates a calculator reporting every evaluation to the given sink.
+     *
+     * @param diagnostics The sink receiving the per-feature breakdown.
+     */
+    public PenaltyCalculator(PenaltyDiagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+    }
+
+    /**
+     * Creates a calculator with the logging sink if {@code application.solver.penalty-diagnostics} is enabled.
+     *
+     * @param applicationProperties The application properties.
+     */
+    @Autowired
+    public PenaltyCalculator(ApplicationProperties applicationProperties) {
+        this(applicationProperties.getSolver().isPenaltyDiagnostics() ? PenaltyDiagnostics.logging() : PenaltyDiagnostics.NONE);
+    }
 
     /**
      * Calculates the total penalty for assigning the given guest group to the specified table.
@@ -23,107 +66,113 @@ public class PenaltyCalculator {
      * @param group The guest group being evaluated.
      * @return The calculated penalty score.
      */
-    public int calculate(GuestAssignmentService.TableState ts, GuestGroup group) {
-        int penalty = 0;
-
-        penalty += computeNearStagePenalty(ts, group);
-        penalty -= computeRelationBonus(ts, group);
-        penalty -= computePreferredGuestsBonus(ts, group);
-        penalty -= computeSidePreferenceBonus(ts, group);
-        penalty += computeEmptySeatsPenalty(ts, group);
-
-        log.info(
-            "[Penalty] 📊 Final penalty for group '{}' at table '{}' = {}.",
-            group.getNames(),
-            ts.getTable().getTableNumber(),
-            penalty
-        );
-
-        return penalty;
+    public int calculate(TableState ts, GuestGroup group) {
+        return calculate(ts, ts.getProblem().groupId(group));
     }
 
     /**
-     * Adds a penalty if the group requires near-stage seating and the table isn't near the stage.
+     * Calculates the total penalty for assigning the group with the given dense id to the specified table.
      *
-     * @param ts    The table state.
-     * @param group The guest group.
-     * @return Penalty value (200) or 0.
+     * @param ts      The current state of the seating table.
+     * @param groupId The dense id of the guest group being evaluated.
+     * @return The calculated penalty score.
      */
-    private int computeNearStagePenalty(GuestAssignmentService.TableState ts, GuestGroup group) {
-        if (group.requiresNearStage() && !ts.getTable().getNearStage()) {
-            log.info("[Penalty] Near stage requirement violated: +200");
-            return 200;
+    public int calculate(TableState ts, int groupId) {
+        int[] coefficients = ts.getProblem().getScoringCoefficients();
+        int nearStageMiss = computeNearStageMiss(ts, groupId);
+        int sameRelation = computeSameRelation(ts, groupId);
+        int preferredGuests = ts.countPreferredGuests(groupId);
+        int sameSide = computeSameSide(ts, groupId);
+        int emptySeatsCubed = computeEmptySeatsCubed(ts, groupId);
+
+        int penalty =
+            coefficients[NEAR_STAGE_MISS] * nearStageMiss +
+            coefficients[SAME_RELATION] * sameRelation +
+            coefficients[PREFERRED_GUESTS] * preferredGuests +
+            coefficients[SAME_SIDE] * sameSide +
+            coefficients[EMPTY_SEATS_CUBED] * emptySeatsCubed;
+
+        if (diagnostics != PenaltyDiagnostics.NONE) {
+            int[] features = new int[ScoringFeature.count()];
+            features[NEAR_STAGE_MISS] = nearStageMiss;
+            features[SAME_RELATION] = sameRelation;
+            features[PREFERRED_GUESTS] = preferredGuests;
+            features[SAME_SIDE] = sameSide;
+            features[EMPTY_SEATS_CUBED] = emptySeatsCubed;
+            diagnostics.record(ts, groupId, features, coefficients, penalty);
         }
-        return 0;
+        return penalty;
     }
 
     /**
-     * Calculates a bonus if the group shares the same relation with guests already assigned to the table.
+     * Scores a whole table as the sum of the placement penalties of its groups, replayed in seating order.
+     * Summed over all tables this is the path penalty the backtracking search accumulates, so a local
+     * search can rescore only the tables a move touches.
      *
-     * @param ts    The table state.
-     * @param group The guest group.
-     * @return Relation bonus value.
+     * @param ts The table state to score.
+     * @return The summed placement penalty of the table's groups.
      */
-    private int computeRelationBonus(GuestAssignmentService.TableState ts, GuestGroup group) {
-        String relation = group.getRelation();
-        int sameRelationCount = relation != null ? ts.countSameRelation(relation) : 0;
-        int bonus = sameRelationCount * 250;
-        if (bonus > 0) log.info("[Penalty] Same relation bonus: -{}", bonus);
-        return bonus;
+    public long scoreTable(TableState ts) {
+        return ts.replayPenalty(this);
     }
 
     /**
-     * Calculates a bonus if the group has preferred guests already assigned to the table.
+     * Returns 1 if the group requires near-stage seating and the table isn't near the stage.
      *
-     * @param ts    The table state.
-     * @param group The guest group.
-     * @return Preferred guests bonus value.
+     * @param ts      The table state.
+     * @param groupId The dense id of the guest group.
+     * @return 1 or 0.
      */
-    private int computePreferredGuestsBonus(GuestAssignmentService.TableState ts, GuestGroup group) {
-        int preferredGuestsCount = ts.countPreferredGuests(group);
-        int bonus = preferredGuestsCount * 150;
-        if (bonus > 0) log.info("[Penalty] Preferred guests bonus: -{}", bonus);
-        return bonus;
+    private int computeNearStageMiss(TableState ts, int groupId) {
+        return ts.getProblem().requiresNearStage(groupId) && !ts.isNearStage() ? 1 : 0;
     }
 
     /**
-     * Calculates a bonus if the group matches the preferred side (Bride/Groom) of the table.
+     * Counts the guests already assigned to the table that share the group's relation.
      *
-     * @param ts    The table state.
-     * @param group The guest group.
-     * @return Side preference bonus value.
+     * @param ts      The table state.
+     * @param groupId The dense id of the guest group.
+     * @return Number of same-relation guests.
      */
-    private int computeSidePreferenceBonus(GuestAssignmentService.TableState ts, GuestGroup group) {
-        String side = group.getGuests().stream().map(Guest::getSide).filter(Objects::nonNull).map(Enum::name).findFirst().orElse(null);
+    private int computeSameRelation(TableState ts, int groupId) {
+        int relation = ts.getProblem().getGroupRelation(groupId);
+        return relation >= 0 ? ts.countSameRelation(relation) : 0;
+    }
 
-        if (side == null) return 0;
+    /**
+     * Counts the guests already assigned to the table on the group's side (Bride/Groom). The side only counts
+     * while the table has free seats, and for a group with a relation only once the table already has that side.
+     *
+     * @param ts      The table state.
+     * @param groupId The dense id of the guest group.
+     * @return Number of same-side guests, or 0 if the side bonus does not apply.
+     */
+    private int computeSameSide(TableState ts, int groupId) {
+        SeatingProblem problem = ts.getProblem();
+        int side = problem.getGroupSide(groupId);
+        if (side < 0) return 0;
 
-        boolean hasRelation = group.getRelation() != null;
+        boolean hasRelation = problem.getGroupRelation(groupId) >= 0;
         boolean tableNotFull = ts.getFreeSeats() > 0;
         int sameSideCount = ts.countSameSide(side);
 
         if (tableNotFull && (!hasRelation || sameSideCount > 0)) {
-            int bonus = sameSideCount * 50;
-            log.info("[Penalty] Side preference bonus: -{}", bonus);
-            return bonus;
+            return sameSideCount;
         }
         return 0;
     }
 
     /**
-     * Adds a penalty based on the number of empty seats left after assigning the group.
-     * The penalty is calculated using a cubic function to heavily penalize empty seats.
+     * Returns the cube of the empty seats left after assigning the group, so that empty seats are heavily penalized.
      *
-     * @param ts    The table state.
-     * @param group The guest group.
-     * @return Empty seats penalty value.
+     * @param ts      The table state.
+     * @param groupId The dense id of the guest group.
+     * @return Cube of the seats left empty, or 0.
      */
-    private int computeEmptySeatsPenalty(GuestAssignmentService.TableState ts, GuestGroup group) {
-        int freeSeatsLeft = ts.getFreeSeats() - group.getTotalSeats();
+    private int computeEmptySeatsCubed(TableState ts, int groupId) {
+        int freeSeatsLeft = ts.getFreeSeats() - ts.getProblem().getGroupSeats(groupId);
         if (freeSeatsLeft > 0) {
-            int penalty = freeSeatsLeft * freeSeatsLeft * freeSeatsLeft * 10;
-            log.info("[Penalty] Empty seats penalty (exponential): +{}", penalty);
-            return penalty;
+            return freeSeatsLeft * freeSeatsLeft * freeSeatsLeft;
         }
         return 0;
     }
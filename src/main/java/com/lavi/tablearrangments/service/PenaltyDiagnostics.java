@@ -0,0 +1,55 @@
+package com.lavi.tablearrangments.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Opt-in sink for the per-feature breakdown of every placement penalty.
+ * <p>
+ * The scoring path only calls the sink when one is configured, so the default {@link #NONE} costs
+ * a reference comparison per evaluation. Enable the logging sink with
+ * {@code application.solver.penalty-diagnostics: true}.
+ */
+@FunctionalInterface
+public interface PenaltyDiagnostics {
+    /**
+     * Sink that discards everything; scoring skips it altogether.
+     */
+    PenaltyDiagnostics NONE = (table, groupId, features, coefficients, total) -> {};
+
+    /**
+     * Receives the terms of one placement penalty.
+     *
+     * @param table        The candidate table.
+     * @param groupId      The dense id of the group being placed.
+     * @param features     The {@link ScoringFeature} values of the placement, indexed by ordinal.
+     * @param coefficients The coefficients of the solve's scoring model, indexed by ordinal.
+     * @param total        The resulting penalty.
+     */
+    void record(TableState table, int groupId, int[] features, int[] coefficients, int total);
+
+    /**
+     * Returns a sink writing one DEBUG line per evaluation to the {@code PenaltyDiagnostics} logger.
+     *
+     * @return The logging sink.
+     */
+    static PenaltyDiagnostics logging() {
+        Logger log = LoggerFactory.getLogger(PenaltyDiagnostics.class);
+        return (table, groupId, features, coefficients, total) -> {
+            if (log.isDebugEnabled()) {
+                StringBuilder terms = new StringBuilder();
+                for (ScoringFeature feature : ScoringFeature.values()) {
+                    int i = feature.ordinal();
+                    terms.append(i == 0 ? "" : ", ").append(feature).append(' ').append(features[i]).append(" x ").append(coefficients[i]);
+                }
+                log.debug(
+                    "[Penalty] 📊 Group '{}' at table '{}' = {} ({})",
+                    table.getProblem().getGroups().get(groupId).getNames(),
+                    table.getTable().getTableNumber(),
+                    total,
+                    terms
+                );
+            }
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package com.lavi.tablearrangments.service;
+
+/**
+ * The features a placement penalty is computed from.
+ * <p>
+ * A {@link ScoringModel} compiles to one coefficient per feature, indexed by {@link #ordinal()}, and the
+ * penalty of placing a group at a table is the dot product of these coefficients with the feature values.
+ * Positive coefficients penalize a feature, negative ones reward it.
+ */
+public enum ScoringFeature {
+    /** 1 when the group wants near-stage seating and the table is not near the stage, otherwise 0. */
+    NEAR_STAGE_MISS,
+    /** Number of guests at the table sharing the group's relation. */
+    SAME_RELATION,
+    /** Number of guests at the table preferred by guests of the group. */
+    PREFERRED_GUESTS,
+    /** Number of guests at the table on the group's side, when the side bonus applies. */
+    SAME_SIDE,
+    /** Cube of the seats left empty at the table after placing the group. */
+    EMPTY_SEATS_CUBED;
+
+    private static final ScoringFeature[] VALUES = values();
+
+    /**
+     * Returns the number of features, which is the length of a compiled coefficient array.
+     */
+    public static int count() {
+        return VALUES.length;
+    }
+}
@@ -0,0 +1,20 @@
+package com.lavi.tablearrangments.service;
+
+/**
+ * Service provider interface for the scoring model of the seating search.
+ * <p>
+ * A model is compiled once per solve into a flat array of coefficients over the {@link ScoringFeature}s,
+ * which the {@link SeatingProblem} carries into the search. {@link PenaltyCalculator} only ever evaluates
+ * that array, so swapping models costs nothing at evaluation time. The default implementation is
+ * {@link WeightedScoringModel}; a {@code @Primary} bean of this type replaces it.
+ */
+@FunctionalInterface
+public interface ScoringModel {
+    /**
+     * Compiles the model for an event.
+     *
+     * @param eventId The event being solved, or {@code null} if the solve spans several events.
+     * @return One coefficient per {@link ScoringFeature}, indexed by ordinal.
+     */
+    int[] compile(Long eventId);
+}
@@ -0,0 +1,138 @@
+package com.lavi.tablearrangments.service;
+
+import com.lavi.tablearrangments.service.dto.AssignmentResultDTO.Termination;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Running budget of a solve, checked by the search workers on every node.
+ * <p>
+ * Once a limit is hit the budget stays exhausted, so every level of the recursion unwinds
+ * and the search returns the best assignment found so far. A worker that explores its whole
+ * search space {@link #stop() stops} the others, since the incumbent is then proven optimal.
+ */
+public class SearchBudget {
+
+    private static final int CLOCK_CHECK_MASK = 255;
+
+    private final long nodeLimit;
+
+    private final long deadlineNanos;
+
+    private final boolean timeLimited;
+
+    private volatile Termination termination;
+
+    private volatile boolean proven;
+
+    private volatile boolean cancelled;
+
+    SearchBudget(SolverLimits limits) {
+        this.nodeLimit = limits.getNodeLimit();
+        this.timeLimited = limits.getTimeBudget().toNanos() > 0;
+        this.deadlineNanos = System.nanoTime() + limits.getTimeBudget().toNanos();
+    }
+
+    /**
+     * Checks the limits after the given number of nodes. The clock is only read every 256 nodes.
+     *
+     * @param nodes The number of nodes explored so far.
+     * @return True if the search must stop.
+     */
+    public boolean shouldStop(long nodes) {
+        return shouldStop(nodes, (nodes & CLOCK_CHECK_MASK) == 0);
+    }
+
+    /**
+     * Checks the limits after the given number of nodes, always reading the clock. Meant for loops that
+     * check far less often than once per node.
+     *
+     * @param nodes The number of nodes explored so far.
+     * @return True if the search must stop.
+     */
+    public boolean shouldStopNow(long nodes) {
+        return shouldStop(nodes, true);
+    }
+
+    private boolean shouldStop(long nodes, boolean readClock) {
+        if (isStopped()) {
+            return true;
+        }
+        if (nodeLimit > 0 && nodes >= nodeLimit) {
+            termination = Termination.NODE_LIMIT;
+            return true;
+        }
+        if (timeLimited && readClock && System.nanoTime() - deadlineNanos >= 0) {
+            termination = Termination.TIME_LIMIT;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the wall-clock time left before the deadline, for a nested search that must not outlive the solve.
+     *
+     * @return The time left, zero once the deadline has passed; empty if the time is not limited.
+     */
+    public Optional<Duration> getRemainingTime() {
+        if (!timeLimited) {
+            return Optional.empty();
+        }
+        return Optional.of(Duration.ofNanos(Math.max(0L, deadlineNanos - System.nanoTime())));
+    }
+
+    /**
+     * Checks whether the search must stop, without counting a node.
+     *
+     * @return True if a limit was hit, the search space was exhausted or the solve was cancelled.
+     */
+    public boolean isStopped() {
+        return termination != null || proven || cancelled;
+    }
+
+    /**
+     * Records that a worker explored its whole search space, and stops the other workers.
+     */
+    public void stop() {
+        proven = true;
+    }
+
+    /**
+     * Stops all workers because the solve was cancelled.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Checks whether a worker explored its whole search space, which proves the incumbent optimal.
+     *
+     * @return True if the search space was exhausted.
+     */
+    public boolean isProven() {
+        return proven;
+    }
+
+    /**
+     * Checks whether a limit cut the search off before any worker exhausted its search space.
+     *
+     * @return True if the search was cut off.
+     */
+    public boolean isExhausted() {
+        return !proven && termination != null;
+    }
+
+    /**
+     * Returns why the search ended.
+     *
+     * @return The limit that was hit, or {@link Termination#COMPLETED} if the search space was exhausted.
+     */
+    public Termination getTermination() {
+        Termination current = termination;
+        return proven || current == null ? Termination.COMPLETED : current;
+    }
+}
@@ -0,0 +1,89 @@
+package com.lavi.tablearrangments.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Variable and value ordering of one backtracking search worker.
+ * <p>
+ * All strategies explore the complete search space and differ only in the order they visit it,
+ * so running several of them in parallel finds good incumbents sooner without losing completeness.
+ *
+ * @param tieBreak   How groups with the same number of options are ranked by the MRV heuristic.
+ * @param valueOrder How candidate tables for the selected group are ordered.
+ * @param seed       Seed of the random group ranking used by {@link TieBreak#RANDOM}.
+ */
+public record SearchStrategy(TieBreak tieBreak, ValueOrder valueOrder, long seed) {
+    /**
+     * The single-worker strategy, matching the sequential search.
+     */
+    public static final SearchStrategy DEFAULT = new SearchStrategy(TieBreak.LARGEST_DOMAIN, ValueOrder.PENALTY, 0L);
+
+    /**
+     * Tie-break between groups with the same number of options.
+     */
+    public enum TieBreak {
+        /** Prefer the group with the larger remaining domain. */
+        LARGEST_DOMAIN,
+        /** Prefer the group needing more seats. */
+        MOST_SEATS,
+        /** Prefer the group ranked first by a seeded random permutation. */
+        RANDOM,
+    }
+
+    /**
+     * Order in which candidate tables are tried.
+     */
+    public enum ValueOrder {
+        /** Lowest placement penalty first, then least constraining. */
+        PENALTY,
+        /** Fewest free seats left after placement first, then lowest penalty. */
+        BEST_FIT,
+        /** Least constraining for the other groups first, then lowest penalty. */
+        LEAST_CONSTRAINING,
+    }
+
+    /**
+     * Builds a portfolio of distinct strategies, starting with {@link #DEFAULT}.
+     * Beyond the fixed combinations, workers use random tie-breaks with distinct seeds.
+     *
+     * @param size The number of workers.
+     * @return One strategy per worker.
+     */
+    public static List<SearchStrategy> portfolio(int size) {
+        List<SearchStrategy> fixed = List.of(
+            DEFAULT,
+            new SearchStrategy(TieBreak.MOST_SEATS, ValueOrder.BEST_FIT, 0L),
+            new SearchStrategy(TieBreak.LARGEST_DOMAIN, ValueOrder.BEST_FIT, 0L),
+            new SearchStrategy(TieBreak.MOST_SEATS, ValueOrder.PENALTY, 0L)
+        );
+        List<SearchStrategy> strategies = new ArrayList<>(size);
+        ValueOrder[] orders = ValueOrder.values();
+        for (int i = 0; i < size; i++) {
+            strategies.add(i < fixed.size() ? fixed.get(i) : new SearchStrategy(TieBreak.RANDOM, orders[i % orders.length], i));
+        }
+        return strategies;
+    }
+
+    /**
+     * Returns the rank of each group under the seeded random permutation.
+     *
+     * @param groupCount The number of groups.
+     * @return Ranks indexed by group id; lower ranks are preferred.
+     */
+    public int[] randomRanks(int groupCount) {
+        int[] ranks = new int[groupCount];
+        for (int i = 0; i < groupCount; i++) {
+            ranks[i] = i;
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = groupCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = ranks[i];
+            ranks[i] = ranks[j];
+            ranks[j] = tmp;
+        }
+        return ranks;
+    }
+}
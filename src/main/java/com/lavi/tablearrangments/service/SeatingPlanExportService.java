@@ -0,0 +1,162 @@
+package com.lavi.tablearrangments.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.lavi.tablearrangments.repository.GuestRepository;
+import com.lavi.tablearrangments.repository.SeatingPlanRow;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service class for exporting seating plans: every guest of the current user joined to its event and table.
+ * <p>
+ * Rows are read as projections from a forward-only stream in a read-only transaction and written to the output as
+ * they arrive, so memory stays constant whatever the number of guests: neither the list nor any guest entity with its
+ * eager links is ever materialized.
+ */
+@Service
+@Transactional(readOnly = true)
+public class SeatingPlanExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatingPlanExportService.class);
+
+    /**
+     * Output format of an export.
+     */
+    public enum Format {
+        /** One JSON object per line. */
+        NDJSON("application/x-ndjson", "ndjson"),
+        /** Comma-separated values with a header line. */
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        /**
+         * Returns the format with the given name, ignoring case.
+         *
+         * @param name The format name, {@code ndjson} or {@code csv}.
+         * @return The format.
+         * @throws IllegalArgumentException if there is no such format.
+         */
+        public static Format of(String name) {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final String CSV_HEADER =
+        "eventId,eventName,tableId,tableNumber,guestId,lastNameAndFirstName,numberOfSeats,status,side,relation,accessibility,nearStage";
+
+    private final GuestRepository guestRepository;
+
+    private final ObjectWriter rowWriter;
+
+    public SeatingPlanExportService(GuestRepository guestRepository, ObjectMapper objectMapper) {
+        this.guestRepository = guestRepository;
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Writes the seating plan of the current user to the given output, which is flushed but not closed.
+     *
+     * @param eventId The event to export, or {@code null} for every event of the current user.
+     * @param format  The output format.
+     * @param out     The output to write to.
+     * @return The number of guests written.
+     * @throws IOException if writing to the output fails.
+     */
+    public long export(Long eventId, Format format, OutputStream out) throws IOException {
+        try (
+            Stream<SeatingPlanRow> rows = eventId == null
+                ? guestRepository.streamSeatingPlanByEventUserIsCurrentUser()
+                : guestRepository.streamSeatingPlanByEventIdAndEventUserIsCurrentUser(eventId)
+        ) {
+            long count = format == Format.CSV ? writeCsv(rows.iterator(), out) : writeNdjson(rows.iterator(), out);
+            log.debug("Exported a seating plan of {} guests as {}", count, format);
+            return count;
+        }
+    }
+
+    private long writeNdjson(Iterator<SeatingPlanRow> rows, OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = rowWriter.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (rows.hasNext()) {
+                rowWriter.writeValue(generator, rows.next());
+                generator.writeRaw('\n');
+                count++;
+            }
+        }
+        out.flush();
+        return count;
+    }
+
+    private long writeCsv(Iterator<SeatingPlanRow> rows, OutputStream out) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        while (rows.hasNext()) {
+            SeatingPlanRow row = rows.next();
+            writer.write(
+                String.join(
+                    ",",
+                    csv(row.eventId()),
+                    csv(row.eventName()),
+                    csv(row.tableId()),
+                    csv(row.tableNumber()),
+                    csv(row.guestId()),
+                    csv(row.lastNameAndFirstName()),
+                    csv(row.numberOfSeats()),
+                    csv(row.status()),
+                    csv(row.side()),
+                    csv(row.relation()),
+                    csv(row.accessibility()),
+                    csv(row.nearStage())
+                )
+            );
+            writer.write("\r\n");
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * Formats a CSV field, quoting it when it contains a separator, a quote or a line break.
+     */
+    private static String csv(Object value) {
+        String text = Objects.toString(value, "");
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,294 @@
+package com.lavi.tablearrangments.service;
+
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.lavi.tablearrangments.domain.Guest;
+import com.lavi.tablearrangments.domain.GuestGroup;
+import com.lavi.tablearrangments.domain.SeatingTable;
+import java.util.*;
+
+/**
+ * Read-only index over the input of a single seating solve.
+ * <p>
+ * Every guest taking part in the solve gets a dense integer id (its position in {@link #getGuests()}),
+ * and every group its position in {@link #getGroups()}. The avoid/prefer relationships are folded once
+ * into a group-by-group conflict bitmatrix and an affinity weight matrix, so the backtracking search
+ * checks hard constraints and prefer bonuses with word operations and array lookups instead of
+ * walking the entity graph.
+ * <p>
+ * The per-group features used for scoring (seats, near-stage and accessibility needs, relation and
+ * dominant side) are computed once here, so evaluating a placement reads arrays instead of streaming
+ * over the group's guests. The scoring model of the solve is carried as a flat coefficient array over
+ * these features, compiled by a {@link ScoringModel} before the search starts.
+ */
+public class SeatingProblem {
+
+    private final List<GuestGroup> groups;
+
+    private final List<SeatingTable> tables;
+
+    private final List<Guest> guests = new ArrayList<>();
+
+    /** Dense id of each guest, keyed by entity id without boxing; {@link Guest#hashCode()} is the class hash. */
+    private final LongIntHashMap guestIds = new LongIntHashMap();
+
+    private final Map<GuestGroup, Integer> groupIds = new IdentityHashMap<>();
+
+    private final int[][] groupGuests;
+
+    private final int[] guestGroups;
+
+    private final int[] guestRelations;
+
+    private final int[] guestSides;
+
+    /** Row g has bit h set when a guest of group g and a guest of group h must avoid each other. */
+    private final long[][] groupConflicts;
+
+    /** Entry [g][h] counts the guests of group h preferred by guests of group g. */
+    private final int[][] groupAffinities;
+
+    private final int[] groupSeats;
+
+    private final boolean[] groupNearStage;
+
+    private final boolean[] groupAccessibility;
+
+    private final int[] groupRelations;
+
+    private final int[] groupSides;
+
+    private final int[] scoringCoefficients;
+
+    /**
+     * Builds the index for the given groups and tables, scored with the built-in weights.
+     *
+     * @param groups The guest groups to seat.
+     * @param tables The available seating tables.
+     */
+    public SeatingProblem(List<GuestGroup> groups, List<SeatingTable> tables) {
+        this(groups, tables, WeightedScoringModel.defaultCoefficients());
+    }
+
+    /**
+     * Builds the index for the given groups and tables.
+     *
+     * @param groups              The guest groups to seat.
+     * @param tables              The available seating tables.
+     * @param scoringCoefficients One coefficient per {@link ScoringFeature}, as compiled by a {@link ScoringModel}.
+     * @throws IllegalArgumentException if there is not exactly one coefficient per feature.
+     */
+    public SeatingProblem(List<GuestGroup> groups, List<SeatingTable> tables, int[] scoringCoefficients) {
+        if (scoringCoefficients.length != ScoringFeature.count()) {
+            throw new IllegalArgumentException(
+                "Expected " + ScoringFeature.count() + " scoring coefficients but got " + scoringCoefficients.length
+            );
+        }
+        this.scoringCoefficients = scoringCoefficients.clone();
+        this.groups = List.copyOf(groups);
+        this.tables = List.copyOf(tables);
+        this.groupGuests = new int[groups.size()][];
+        this.groupSeats = new int[groups.size()];
+        this.groupNearStage = new boolean[groups.size()];
+        this.groupAccessibility = new boolean[groups.size()];
+        this.groupRelations = new int[groups.size()];
+        this.groupSides = new int[groups.size()];
+
+        for (int g = 0; g < groups.size(); g++) {
+            GuestGroup group = groups.get(g);
+            groupIds.put(group, g);
+            groupSeats[g] = group.getTotalSeats();
+            groupNearStage[g] = group.requiresNearStage();
+            groupAccessibility[g] = group.requiresAccessibility();
+            List<Guest> members = group.getGuests();
+            groupRelations[g] = members.isEmpty() || members.get(0).getRelation() == null ? -1 : members.get(0).getRelation().ordinal();
+            groupSides[g] = -1;
+            for (Guest guest : members) {
+                if (guest.getSide() != null) {
+                    groupSides[g] = guest.getSide().ordinal();
+                    break;
+                }
+            }
+            groupGuests[g] = new int[members.size()];
+            for (int i = 0; i < members.size(); i++) {
+                Guest guest = members.get(i);
+                int id = denseId(guest);
+                if (id < 0) {
+                    id = guests.size();
+                    guests.add(guest);
+                    if (guest.getId() != null) {
+                        guestIds.put(guest.getId(), id);
+                    }
+                }
+                groupGuests[g][i] = id;
+            }
+        }
+
+        int guestCount = guests.size();
+        int groupCount = groups.size();
+        this.guestGroups = new int[guestCount];
+        this.guestRelations = new int[guestCount];
+        this.guestSides = new int[guestCount];
+        this.groupConflicts = new long[groupCount][BitSetUtils.wordsFor(groupCount)];
+        this.groupAffinities = new int[groupCount][groupCount];
+
+        for (int g = 0; g < groupCount; g++) {
+            for (int guest : groupGuests[g]) {
+                guestGroups[guest] = g;
+            }
+        }
+
+        for (int i = 0; i < guestCount; i++) {
+            Guest guest = guests.get(i);
+            int group = guestGroups[i];
+            guestRelations[i] = guest.getRelation() == null ? -1 : guest.getRelation().ordinal();
+            guestSides[i] = guest.getSide() == null ? -1 : guest.getSide().ordinal();
+            for (int preferred : resolve(guest.getPreferGuests())) {
+                groupAffinities[group][guestGroups[preferred]]++;
+            }
+            for (int avoided : resolve(guest.getAvoidGuests())) {
+                // Avoidance is a hard constraint in both directions
+                BitSetUtils.set(groupConflicts[group], guestGroups[avoided]);
+                BitSetUtils.set(groupConflicts[guestGroups[avoided]], group);
+            }
+        }
+    }
+
+    /**
+     * Maps related guests to dense ids, dropping guests that are not part of this solve.
+     */
+    private int[] resolve(Set<Guest> related) {
+        if (related == null || related.isEmpty()) {
+            return new int[0];
+        }
+        int[] ids = new int[related.size()];
+        int size = 0;
+        for (Guest other : related) {
+            int id = denseId(other);
+            if (id >= 0) {
+                ids[size++] = id;
+            }
+        }
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * Returns the dense id of a guest of this solve, or -1 for a guest that is not part of it or has no id.
+     */
+    private int denseId(Guest guest) {
+        return guest.getId() == null ? -1 : guestIds.getOrDefault(guest.getId(), -1);
+    }
+
+    public List<GuestGroup> getGroups() {
+        return groups;
+    }
+
+    public List<SeatingTable> getTables() {
+        return tables;
+    }
+
+    public List<Guest> getGuests() {
+        return guests;
+    }
+
+    public int getGuestCount() {
+        return guests.size();
+    }
+
+    /**
+     * Returns the dense id of the group. For the groups of a whole solve this is the id the group was
+     * numbered with; the groups of a sub-problem, such as a neighborhood repair, are looked up instead.
+     *
+     * @param group A group passed to the constructor.
+     * @return The group's dense id.
+     * @throws IllegalArgumentException if the group is not part of this problem.
+     */
+    public int groupId(GuestGroup group) {
+        int numbered = group.getId();
+        if (numbered >= 0 && numbered < groups.size() && groups.get(numbered) == group) {
+            return numbered;
+        }
+        Integer id = groupIds.get(group);
+        if (id == null) {
+            throw new IllegalArgumentException("Group is not part of this seating problem: " + group.getNames());
+        }
+        return id;
+    }
+
+    /**
+     * Returns the number of seats the group needs.
+     */
+    public int getGroupSeats(int groupId) {
+        return groupSeats[groupId];
+    }
+
+    /**
+     * Returns whether any guest of the group prefers near-stage seating.
+     */
+    public boolean requiresNearStage(int groupId) {
+        return groupNearStage[groupId];
+    }
+
+    /**
+     * Returns whether any guest of the group requires accessibility.
+     */
+    public boolean requiresAccessibility(int groupId) {
+        return groupAccessibility[groupId];
+    }
+
+    /**
+     * Returns the {@link com.lavi.tablearrangments.domain.enumeration.GuestRelation} ordinal of the group's first guest, or -1.
+     */
+    public int getGroupRelation(int groupId) {
+        return groupRelations[groupId];
+    }
+
+    /**
+     * Returns the {@link com.lavi.tablearrangments.domain.enumeration.GuestSide} ordinal of the first guest of the group with a side, or -1.
+     */
+    public int getGroupSide(int groupId) {
+        return groupSides[groupId];
+    }
+
+    /**
+     * Returns the scoring coefficients indexed by {@link ScoringFeature} ordinal.
+     * The array is shared by every evaluation and must not be modified.
+     */
+    public int[] getScoringCoefficients() {
+        return scoringCoefficients;
+    }
+
+    /**
+     * Returns the dense ids of the guests in the group.
+     */
+    public int[] getGroupGuests(int groupId) {
+        return groupGuests[groupId];
+    }
+
+    /**
+     * Returns the {@link com.lavi.tablearrangments.domain.enumeration.GuestRelation} ordinal of the guest, or -1.
+     */
+    public int getGuestRelation(int guestId) {
+        return guestRelations[guestId];
+    }
+
+    /**
+     * Returns the {@link com.lavi.tablearrangments.domain.enumeration.GuestSide} ordinal of the guest, or -1.
+     */
+    public int getGuestSide(int guestId) {
+        return guestSides[guestId];
+    }
+
+    /**
+     * Returns the bitset over group ids of groups that must not share a table with the group.
+     */
+    public long[] getGroupConflicts(int groupId) {
+        return groupConflicts[groupId];
+    }
+
+    /**
+     * Returns how many guests of the other group are preferred by guests of the group.
+     */
+    public int getAffinity(int groupId, int otherGroupId) {
+        return groupAffinities[groupId][otherGroupId];
+    }
+}
@@ -0,0 +1,73 @@
+package com.lavi.tablearrangments.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * All mutable state of a single seating solve.
+ * <p>
+ * {@link GuestAssignmentService} is a singleton shared by every request, so it keeps no per-solve
+ * fields: each call to {@link GuestAssignmentService#solve(Long, SolverProgress, SolverLimits)} creates one
+ * context and passes it along. Concurrent solves for different users or events never share a context.
+ */
+public class SolveContext {
+
+    private final SolverProgress progress;
+
+    private final SearchBudget budget;
+
+    private final Incumbent incumbent = new Incumbent();
+
+    private final List<String> warnings = new ArrayList<>();
+
+    private List<Long> loadedGuestIds = List.of();
+
+    private SeatingProblem problem;
+
+    /**
+     * Starts a solve: the clock of the limits starts now.
+     *
+     * @param progress Receives node, prune and best-assignment updates from the search.
+     * @param limits   Wall-clock and node budget of the search.
+     */
+    public SolveContext(SolverProgress progress, SolverLimits limits) {
+        this.progress = progress;
+        this.budget = limits.start();
+    }
+
+    public SolverProgress getProgress() {
+        return progress;
+    }
+
+    public SearchBudget getBudget() {
+        return budget;
+    }
+
+    public Incumbent getIncumbent() {
+        return incumbent;
+    }
+
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    /**
+     * Returns the ids of every guest loaded for the solve, including guests that are not seated,
+     * whose previous assignment is reset when the result is persisted.
+     */
+    public List<Long> getLoadedGuestIds() {
+        return loadedGuestIds;
+    }
+
+    public void setLoadedGuestIds(List<Long> loadedGuestIds) {
+        this.loadedGuestIds = loadedGuestIds;
+    }
+
+    public SeatingProblem getProblem() {
+        return problem;
+    }
+
+    public void setProblem(SeatingProblem problem) {
+        this.problem = problem;
+    }
+}
@@ -0,0 +1,129 @@
+package com.lavi.tablearrangments.service;
+
+import com.lavi.tablearrangments.domain.Guest;
+import com.lavi.tablearrangments.domain.SeatingTable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Canonical hash of everything a full solve depends on, used as the key of the solve result cache.
+ * <p>
+ * Guests and tables are hashed in id order and links as sorted id lists, so the fingerprint does not depend on
+ * the order rows were loaded in. The current assignment of the guests is deliberately left out: a full solve
+ * ignores it, so re-running an unchanged problem, or reverting a change, maps back to the same key.
+ * <p>
+ * The time budget and node limit are left out too: only results whose search ran to completion are cached, and
+ * those do not depend on how much budget was left over. The time of the local search phase is kept, because that
+ * phase stops on its clock rather than on completion, so a longer phase can end on a better assignment.
+ */
+final class SolveFingerprint {
+
+    private static final byte NULL = 0;
+
+    private final MessageDigest digest;
+
+    private SolveFingerprint() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Computes the fingerprint of a solve.
+     *
+     * @param eventId             The event being solved, or {@code null} if the solve spans several events.
+     * @param guests              Every loaded guest, whatever its status.
+     * @param tables              The tables of the solve.
+     * @param scoringCoefficients The compiled scoring model of the solve.
+     * @param localSearchTime     Time reserved for the local search phase of the solve.
+     * @return The fingerprint as a hex string.
+     */
+    static String of(Long eventId, List<Guest> guests, List<SeatingTable> tables, int[] scoringCoefficients, Duration localSearchTime) {
+        SolveFingerprint fingerprint = new SolveFingerprint();
+        fingerprint.add(eventId);
+        fingerprint.add(localSearchTime.toMillis());
+        fingerprint.add(scoringCoefficients.length);
+        for (int coefficient : scoringCoefficients) {
+            fingerprint.add(coefficient);
+        }
+
+        fingerprint.add(guests.size());
+        for (Guest guest : guests.stream().sorted(Comparator.comparing(Guest::getId)).toList()) {
+            fingerprint.add(guest.getId());
+            fingerprint.add(guest.getLastNameAndFirstName());
+            fingerprint.add(guest.getNumberOfSeats());
+            fingerprint.add(guest.getNearStage());
+            fingerprint.add(guest.getAccessibility());
+            fingerprint.add(guest.getStatus());
+            fingerprint.add(guest.getSide());
+            fingerprint.add(guest.getRelation());
+            fingerprint.addIds(guest.getAvoidGuests());
+            fingerprint.addIds(guest.getPreferGuests());
+        }
+
+        fingerprint.add(tables.size());
+        for (SeatingTable table : tables.stream().sorted(Comparator.comparing(SeatingTable::getId)).toList()) {
+            fingerprint.add(table.getId());
+            fingerprint.add(table.getTableNumber());
+            fingerprint.add(table.getMaxSeats());
+            fingerprint.add(table.getNearStage());
+            fingerprint.add(table.getAccessibility());
+        }
+        return HexFormat.of().formatHex(fingerprint.digest.digest());
+    }
+
+    private void add(long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            digest.update((byte) (value >>> shift));
+        }
+    }
+
+    private void add(Long value) {
+        if (value == null) {
+            digest.update(NULL);
+        } else {
+            digest.update((byte) 1);
+            add(value.longValue());
+        }
+    }
+
+    private void add(Integer value) {
+        add(value == null ? null : value.longValue());
+    }
+
+    private void add(Boolean value) {
+        digest.update(value == null ? NULL : value ? (byte) 2 : (byte) 1);
+    }
+
+    private void add(Enum<?> value) {
+        add(value == null ? null : value.name());
+    }
+
+    private void add(String value) {
+        if (value == null) {
+            digest.update(NULL);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            digest.update((byte) 1);
+            add(bytes.length);
+            digest.update(bytes);
+        }
+    }
+
+    private void addIds(Set<Guest> guests) {
+        long[] sorted = guests.stream().map(Guest::getId).filter(Objects::nonNull).mapToLong(Long::longValue).sorted().toArray();
+        add(sorted.length);
+        for (long id : sorted) {
+            add(id);
+        }
+    }
+}
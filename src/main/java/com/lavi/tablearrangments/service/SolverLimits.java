@@ -0,0 +1,103 @@
+package com.lavi.tablearrangments.service;
+
+import com.lavi.tablearrangments.config.ApplicationProperties;
+import java.time.Duration;
+
+/**
+ * Wall-clock and node budget for a single seating solve.
+ * <p>
+ * A zero or negative value disables the corresponding limit. Defaults come from
+ * {@code application.solver.time-budget} and {@code application.solver.node-limit},
+ * and can be overridden per request.
+ */
+public final class SolverLimits {
+
+    private static final SolverLimits UNLIMITED = new SolverLimits(Duration.ZERO, 0L);
+
+    private final Duration timeBudget;
+
+    private final long nodeLimit;
+
+    private SolverLimits(Duration timeBudget, long nodeLimit) {
+        this.timeBudget = timeBudget;
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Returns limits that never stop the search.
+     */
+    public static SolverLimits unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * Builds limits from the configured defaults and optional per-request values.
+     * A per-request value can only tighten a configured limit, so callers cannot lift the server-side cap.
+     *
+     * @param solver       The configured solver properties.
+     * @param timeBudgetMs Optional wall-clock budget in milliseconds.
+     * @param nodeLimit    Optional maximum number of search nodes.
+     * @return The effective limits.
+     */
+    public static SolverLimits of(ApplicationProperties.Solver solver, Long timeBudgetMs, Long nodeLimit) {
+        Duration timeBudget = solver.getTimeBudget();
+        if (timeBudgetMs != null && timeBudgetMs > 0 && (isDisabled(timeBudget.toMillis()) || timeBudgetMs < timeBudget.toMillis())) {
+            timeBudget = Duration.ofMillis(timeBudgetMs);
+        }
+        long nodes = solver.getNodeLimit();
+        if (nodeLimit != null && nodeLimit > 0 && (isDisabled(nodes) || nodeLimit < nodes)) {
+            nodes = nodeLimit;
+        }
+        return new SolverLimits(timeBudget, nodes);
+    }
+
+    /**
+     * Builds limits from explicit values, for a search nested in a solve such as a neighborhood repair.
+     *
+     * @param timeBudget The wall-clock budget; zero disables it.
+     * @param nodeLimit  The maximum number of search nodes; zero disables it.
+     * @return The limits.
+     */
+    public static SolverLimits of(Duration timeBudget, long nodeLimit) {
+        return new SolverLimits(timeBudget, nodeLimit);
+    }
+
+    private static boolean isDisabled(long limit) {
+        return limit <= 0;
+    }
+
+    /**
+     * Takes part of the time budget out for a phase that runs after the search.
+     *
+     * @param reserve The time kept back.
+     * @return Limits for the search, with the time budget reduced by the reserve; these limits if the time is not limited.
+     */
+    public SolverLimits reserve(Duration reserve) {
+        if (isDisabled(timeBudget.toMillis()) || reserve.isZero() || reserve.isNegative()) {
+            return this;
+        }
+        return new SolverLimits(timeBudget.minus(reserve), nodeLimit);
+    }
+
+    public Duration getTimeBudget() {
+        return timeBudget;
+    }
+
+    public long getNodeLimit() {
+        return nodeLimit;
+    }
+
+    /**
+     * Starts the clock for a solve.
+     *
+     * @return A budget tracking these limits from now on.
+     */
+    public SearchBudget start() {
+        return new SearchBudget(this);
+    }
+
+    @Override
+    public String toString() {
+        return "SolverLimits{timeBudget=" + timeBudget + ", nodeLimit=" + nodeLimit + "}";
+    }
+}
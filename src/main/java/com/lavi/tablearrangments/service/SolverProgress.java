@@ -0,0 +1,203 @@
+package com.lavi.tablearrangments.service;
+
+import com.lavi.tablearrangments.service.dto.SolverProgressDTO;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a single seating solve, written by the search workers and read by progress subscribers.
+ * <p>
+ * Each search worker counts nodes and prunes in its own {@link Counter}, with plain fields, and adds
+ * them to the shared totals once every {@value #PUBLISH_INTERVAL} nodes, so reporting costs an increment
+ * and a mask test on the hot path however many workers run. Readers only ever see flushed totals.
+ * <p>
+ * It also arbitrates between cancelling a solve and persisting its result: whichever of {@link #cancel()} and
+ * {@link #beginPersist()} comes first wins, so a solve is either cancelled without writing or writes and completes.
+ */
+public class SolverProgress {
+
+    static final int PUBLISH_INTERVAL = 1024;
+
+    private final long startNanos = System.nanoTime();
+
+    private final AtomicLong nodes = new AtomicLong();
+
+    private final AtomicLong prunes = new AtomicLong();
+
+    private final AtomicLong boundPrunes = new AtomicLong();
+
+    private volatile int bestOpenTables = -1;
+
+    private volatile long bestPenalty;
+
+    private volatile boolean finished;
+
+    private boolean cancelled;
+
+    private boolean persisting;
+
+    /**
+     * Creates the counters of one search worker.
+     *
+     * @return A counter to be used by a single thread.
+     */
+    public Counter newCounter() {
+        return new Counter();
+    }
+
+    /**
+     * Records a new best complete assignment, ranked by open tables and then by penalty. Updates that do not
+     * improve on the reported best are ignored,
+     * so concurrent workers cannot make the reported best go backwards.
+     *
+     * @param openTables The number of tables used by the assignment.
+     * @param penalty    The summed placement penalty of the assignment.
+     */
+    public synchronized void onNewBest(int openTables, long penalty) {
+        if (bestOpenTables < 0 || openTables < bestOpenTables || (openTables == bestOpenTables && penalty < bestPenalty)) {
+            bestPenalty = penalty;
+            bestOpenTables = openTables;
+        }
+    }
+
+    /**
+     * Adds the node and prune totals of a finished nested search, such as a neighborhood repair, to this solve.
+     *
+     * @param nested The progress of the nested search, whose workers have flushed their counters.
+     */
+    public void addTotals(SolverProgress nested) {
+        nodes.addAndGet(nested.getNodes());
+        prunes.addAndGet(nested.getPrunes());
+        boundPrunes.addAndGet(nested.getBoundPrunes());
+    }
+
+    /**
+     * Marks the solve as finished. Workers flush their counters before this is called.
+     */
+    public void finish() {
+        finished = true;
+    }
+
+    /**
+     * Requests that the solve be cancelled, unless it already started writing its assignment.
+     *
+     * @return True if the solve will not write anything; false if the write has started and the solve will complete.
+     */
+    public synchronized boolean cancel() {
+        if (!persisting) {
+            cancelled = true;
+        }
+        return cancelled;
+    }
+
+    /**
+     * Marks the start of the write of the assignment, after which the solve can no longer be cancelled.
+     *
+     * @return True if the solve may write; false if it was cancelled first.
+     */
+    public synchronized boolean beginPersist() {
+        if (!cancelled) {
+            persisting = true;
+        }
+        return persisting;
+    }
+
+    public long getNodes() {
+        return nodes.get();
+    }
+
+    public long getPrunes() {
+        return prunes.get();
+    }
+
+    public long getBoundPrunes() {
+        return boundPrunes.get();
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Builds a snapshot from the flushed totals.
+     *
+     * @return The current progress.
+     */
+    public SolverProgressDTO snapshot() {
+        SolverProgressDTO dto = new SolverProgressDTO();
+        dto.setFinished(finished);
+        dto.setNodesExplored(nodes.get());
+        dto.setPrunes(prunes.get());
+        dto.setBoundPrunes(boundPrunes.get());
+        synchronized (this) {
+            if (bestOpenTables >= 0) {
+                dto.setBestOpenTables(bestOpenTables);
+                dto.setBestPenalty(bestPenalty);
+            }
+        }
+        dto.setElapsedMillis((System.nanoTime() - startNanos) / 1_000_000);
+        return dto;
+    }
+
+    /**
+     * Node and prune counters of one search worker. Not thread-safe: owned by the worker's thread.
+     */
+    public final class Counter {
+
+        private long pendingNodes;
+
+        private long pendingPrunes;
+
+        private long pendingBoundPrunes;
+
+        private long knownTotalNodes;
+
+        private Counter() {}
+
+        /**
+         * Records that the search expanded one more node.
+         */
+        public void onNode() {
+            if ((++pendingNodes & (PUBLISH_INTERVAL - 1)) == 0) {
+                flush();
+            }
+        }
+
+        /**
+         * Records that the search cut a branch without exploring it.
+         */
+        public void onPrune() {
+            pendingPrunes++;
+        }
+
+        /**
+         * Records that the search cut a branch because its lower bound cannot beat the best assignment.
+         */
+        public void onBoundPrune() {
+            pendingPrunes++;
+            pendingBoundPrunes++;
+        }
+
+        /**
+         * Returns the nodes explored by all workers as of this worker's last flush, plus its own since then.
+         *
+         * @return An estimate of the total node count, exact when there is a single worker.
+         */
+        public long getNodes() {
+            return knownTotalNodes + pendingNodes;
+        }
+
+        /**
+         * Adds the pending counts to the shared totals.
+         */
+        public void flush() {
+            knownTotalNodes = nodes.addAndGet(pendingNodes);
+            if (pendingPrunes != 0) {
+                prunes.addAndGet(pendingPrunes);
+                boundPrunes.addAndGet(pendingBoundPrunes);
+            }
+            pendingNodes = 0;
+            pendingPrunes = 0;
+            pendingBoundPrunes = 0;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.lavi.tablearrangments.service;
+
+import com.lavi.tablearrangments.domain.GuestGroup;
+import com.lavi.tablearrangments.domain.SeatingTable;
+import com.lavi.tablearrangments.domain.enumeration.GuestRelation;
+import com.lavi.tablearrangments.domain.enumeration.GuestSide;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Represents the current state of a seating table during the assignment process.
+ * Tracks assigned groups and the number of used seats.
+ * <p>
+ * Per-relation and per-side guest counters and a bitset of seated group ids are maintained
+ * incrementally by {@link #assignGroup} and undone by {@link #removeGroup}. Conflicts and prefer
+ * counts are looked up in the {@link SeatingProblem} matrices, so scoring a candidate group does
+ * not depend on how many guests are already seated.
+ */
+public class TableState {
+
+    private static final Logger log = LoggerFactory.getLogger(TableState.class);
+
+    private final SeatingTable table;
+    private final SeatingProblem problem;
+    private final boolean nearStage;
+    private final boolean accessible;
+    private final List<GuestGroup> assignedGroups = new ArrayList<>();
+    private final int[] relationCounts = new int[GuestRelation.values().length];
+    private final int[] sideCounts = new int[GuestSide.values().length];
+    private final long[] seatedGroups;
+    private final List<GuestGroup> assignedGroupsView = Collections.unmodifiableList(assignedGroups);
+    private int usedSeats = 0;
+
+    public TableState(SeatingTable table, SeatingProblem problem) {
+        this.table = table;
+        this.problem = problem;
+        this.nearStage = Boolean.TRUE.equals(table.getNearStage());
+        this.accessible = Boolean.TRUE.equals(table.getAccessibility());
+        this.seatedGroups = new long[BitSetUtils.wordsFor(problem.getGroups().size())];
+    }
+
+    /**
+     * Creates an independent copy of a table state, for a forked subtree search.
+     *
+     * @param other The table state to copy.
+     */
+    public TableState(TableState other) {
+        this.table = other.table;
+        this.problem = other.problem;
+        this.nearStage = other.nearStage;
+        this.accessible = other.accessible;
+        this.assignedGroups.addAll(other.assignedGroups);
+        System.arraycopy(other.relationCounts, 0, relationCounts, 0, relationCounts.length);
+        System.arraycopy(other.sideCounts, 0, sideCounts, 0, sideCounts.length);
+        this.seatedGroups = other.seatedGroups.clone();
+        this.usedSeats = other.usedSeats;
+    }
+
+    /**
+     * Checks if the table can accommodate the given guest group based on seat availability
+     * and accessibility requirements.
+     *
+     * @param group The guest group to check.
+     * @return True if the table can fit the group, false otherwise.
+     */
+    public boolean canFit(GuestGroup group) {
+        int groupId = problem.groupId(group);
+        // אם יש מספיק מקומות בשולחן – בדוק האם מתאים לפי נגישות
+        if (getFreeSeats() >= problem.getGroupSeats(groupId)) {
+            if (problem.requiresAccessibility(groupId) && !accessible && log.isDebugEnabled()) {
+                // יש מקום אבל השולחן לא נגיש – אפשרי, אבל בעדיפות נמוכה יותר (Soft Constraint)
+                log.debug(
+                    "[Accessibility] ⚠️ Group '{}' requires accessibility but table '{}' is not accessible.",
+                    group.getNames(),
+                    table.getTableNumber()
+                );
+            }
+            return true; // תמיד מאפשר מבחינת כמות מקומות, גם אם לא עומד בנגישות
+        }
+        return false;
+    }
+
+    /**
+     * Assigns a guest group to this table and updates the used seats count and guest counters accordingly.
+     *
+     * @param group The guest group to assign.
+     */
+    public void assignGroup(GuestGroup group) {
+        int groupId = problem.groupId(group);
+        assignedGroups.add(group);
+        usedSeats += problem.getGroupSeats(groupId);
+        updateCounters(groupId, 1);
+    }
+
+    /**
+     * Assigns a guest group to this table at the given position of the seating order, so a local search
+     * can undo a removal without changing the order the table's penalty is replayed in.
+     *
+     * @param group    The guest group to assign.
+     * @param position The position in {@link #getAssignedGroups()}.
+     */
+    public void assignGroup(GuestGroup group, int position) {
+        int groupId = problem.groupId(group);
+        assignedGroups.add(position, group);
+        usedSeats += problem.getGroupSeats(groupId);
+        updateCounters(groupId, 1);
+    }
+
+    /**
+     * Removes a guest group from this table and reverts the used seats count and guest counters accordingly.
+     *
+     * @param group The guest group to remove.
+     */
+    public void removeGroup(GuestGroup group) {
+        if (assignedGroups.remove(group)) {
+            int groupId = problem.groupId(group);
+            usedSeats -= problem.getGroupSeats(groupId);
+            updateCounters(groupId, -1);
+        }
+    }
+
+    /**
+     * Seats the groups of this table again one by one in seating order, scoring each placement before it is made.
+     * Only the counters are rebuilt, so the replay does not allocate and leaves the table as it was.
+     *
+     * @param calculator The calculator scoring each placement.
+     * @return The summed placement penalty of the table's groups.
+     */
+    long replayPenalty(PenaltyCalculator calculator) {
+        Arrays.fill(relationCounts, 0);
+        Arrays.fill(sideCounts, 0);
+        Arrays.fill(seatedGroups, 0L);
+        usedSeats = 0;
+        long penalty = 0L;
+        for (int i = 0; i < assignedGroups.size(); i++) {
+            int groupId = problem.groupId(assignedGroups.get(i));
+            penalty += calculator.calculate(this, groupId);
+            usedSeats += problem.getGroupSeats(groupId);
+            updateCounters(groupId, 1);
+        }
+        return penalty;
+    }
+
+    private void updateCounters(int groupId, int delta) {
+        if (delta > 0) {
+            BitSetUtils.set(seatedGroups, groupId);
+        } else {
+            BitSetUtils.clear(seatedGroups, groupId);
+        }
+        for (int guest : problem.getGroupGuests(groupId)) {
+            int relation = problem.getGuestRelation(guest);
+            if (relation >= 0) {
+                relationCounts[relation] += delta;
+            }
+            int side = problem.getGuestSide(guest);
+            if (side >= 0) {
+                sideCounts[side] += delta;
+            }
+        }
+    }
+
+    /**
+     * Counts the number of guests already seated at this table that have the specified relation.
+     *
+     * @param relation The relation to count (e.g., FAMILY, FRIEND).
+     * @return Number of guests at this table with the specified relation.
+     */
+
+    public int countSameRelation(String relation) {
+        return countSameRelation(GuestRelation.valueOf(relation).ordinal());
+    }
+
+    /**
+     * Counts the guests already seated at this table with the relation of the given ordinal.
+     *
+     * @param relation The {@link GuestRelation} ordinal.
+     * @return Number of guests at this table with that relation.
+     */
+    public int countSameRelation(int relation) {
+        return relationCounts[relation];
+    }
+
+    /**
+     * Counts the number of guests already seated at this table that belong to the specified side (e.g., GROOM or BRIDE).
+     * This is used to help maintain balance between guests from different sides during the seating assignment process.
+     *
+     * @param side The side to count guests for (GROOM, BRIDE, or BOTH).
+     * @return Number of guests assigned to this table that belong to the specified side.
+     */
+
+    public int countSameSide(String side) {
+        return countSameSide(GuestSide.valueOf(side).ordinal());
+    }
+
+    /**
+     * Counts the guests already seated at this table on the side of the given ordinal.
+     *
+     * @param side The {@link GuestSide} ordinal.
+     * @return Number of guests at this table on that side.
+     */
+    public int countSameSide(int side) {
+        return sideCounts[side];
+    }
+
+    /**
+     * Counts how many guests already seated at this table are preferred by the given guest group.
+     * This can be used to prioritize seating arrangements that satisfy 'preferGuests' constraints.
+     *
+     * @param group The guest group being considered for seating.
+     * @return Number of preferred guests already seated at this table.
+     */
+
+    public int countPreferredGuests(GuestGroup group) {
+        return countPreferredGuests(problem.groupId(group));
+    }
+
+    /**
+     * Counts how many guests already seated at this table are preferred by the group with the given id.
+     *
+     * @param groupId The dense id of the group being considered.
+     * @return Number of preferred guests already seated at this table.
+     */
+    public int countPreferredGuests(int groupId) {
+        int count = 0;
+        for (
+            int seated = BitSetUtils.nextSetBit(seatedGroups, 0);
+            seated >= 0;
+            seated = BitSetUtils.nextSetBit(seatedGroups, seated + 1)
+        ) {
+            count += problem.getAffinity(groupId, seated);
+        }
+        return count;
+    }
+
+    /**
+     * Calculates and returns the number of free seats remaining at this table.
+     *
+     * @return The number of free seats available.
+     */
+    public int getFreeSeats() {
+        return table.getMaxSeats() - usedSeats;
+    }
+
+    /**
+     * Determines if the given guest group can be assigned to this table
+     * without violating any avoidance constraints (hard constraints).
+     *
+     * @param group The guest group to check.
+     * @return True if no conflicts are found, false otherwise.
+     */
+    public boolean canAssignGroup(GuestGroup group) {
+        long[] conflicts = problem.getGroupConflicts(problem.groupId(group));
+        if (BitSetUtils.intersects(conflicts, seatedGroups)) {
+            if (log.isDebugEnabled()) {
+                GuestGroup existing = assignedGroups
+                    .stream()
+                    .filter(g -> BitSetUtils.get(conflicts, problem.groupId(g)))
+                    .findFirst()
+                    .orElse(null);
+                log.debug(
+                    "[AvoidGuests] ❌ Conflict detected: Group '{}' must avoid Group '{}'",
+                    existing == null ? "" : existing.getNames(),
+                    group.getNames()
+                );
+            }
+            return false; // שינוי חשוב: מחזיר false במקרה של קונפליקט
+        }
+        return true; // אין קונפליקט, אפשר לשבץ
+    }
+
+    /**
+     * Determines if the group with the given id could take the place of another group at this table
+     * without violating any avoidance constraints.
+     *
+     * @param groupId        The dense id of the arriving group.
+     * @param leavingGroupId The dense id of a seated group that leaves the table, or -1 if none does.
+     * @return True if the arriving group conflicts with none of the remaining groups.
+     */
+    public boolean canAssignGroupReplacing(int groupId, int leavingGroupId) {
+        long[] conflicts = problem.getGroupConflicts(groupId);
+        for (int w = 0; w < conflicts.length; w++) {
+            long overlap = conflicts[w] & seatedGroups[w];
+            if (leavingGroupId >= 0 && w == BitSetUtils.wordIndex(leavingGroupId)) {
+                overlap &= ~(1L << leavingGroupId);
+            }
+            if (overlap != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the table is accessible; a missing flag counts as not accessible.
+     */
+    public boolean isAccessible() {
+        return accessible;
+    }
+
+    /**
+     * Checks whether at least one group is seated at this table.
+     *
+     * @return True if the table is in use.
+     */
+    public boolean isOpen() {
+        return !assignedGroups.isEmpty();
+    }
+
+    public int getUsedSeats() {
+        return usedSeats;
+    }
+
+    /**
+     * Returns the groups seated at this table, in assignment order.
+     *
+     * @return A read-only view of the seated groups.
+     */
+    public List<GuestGroup> getAssignedGroups() {
+        return assignedGroupsView;
+    }
+
+    /**
+     * Returns whether the table is near the stage; a missing flag counts as not near.
+     */
+    public boolean isNearStage() {
+        return nearStage;
+    }
+
+    public SeatingProblem getProblem() {
+        return problem;
+    }
+
+    /**
+     * Retrieves the SeatingTable object associated with this table state.
+     *
+     * @return The associated SeatingTable entity.
+     */
+    public SeatingTable getTable() {
+        return table;
+    }
+}
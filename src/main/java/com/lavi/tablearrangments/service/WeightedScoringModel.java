@@ -0,0 +1,71 @@
+package com.lavi.tablearrangments.service;
+
+import com.lavi.tablearrangments.config.ApplicationProperties;
+import com.lavi.tablearrangments.config.ApplicationProperties.Solver.ScoringWeights;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Default {@link ScoringModel}: a weighted sum of the {@link ScoringFeature}s with the weights of
+ * {@code application.solver.scoring}. The near-stage and empty-seat weights are penalties, the relation,
+ * preferred-guest and side weights are bonuses. An event listed under {@code events} overrides
+ * the weights it sets and keeps the defaults for the others.
+ */
+@Component
+public class WeightedScoringModel implements ScoringModel {
+
+    private final ApplicationProperties.Solver.Scoring scoring;
+
+    /**
+     * Creates the model with today's built-in weights.
+     */
+    public WeightedScoringModel() {
+        this(new ApplicationProperties.Solver.Scoring());
+    }
+
+    /**
+     * Creates the model with the weights of the given configuration.
+     *
+     * @param scoring The default and per-event weights.
+     */
+    public WeightedScoringModel(ApplicationProperties.Solver.Scoring scoring) {
+        this.scoring = scoring;
+    }
+
+    @Autowired
+    public WeightedScoringModel(ApplicationProperties applicationProperties) {
+        this(applicationProperties.getSolver().getScoring());
+    }
+
+    /**
+     * Returns the coefficients of the built-in weights.
+     *
+     * @return One coefficient per {@link ScoringFeature}, indexed by ordinal.
+     */
+    public static int[] defaultCoefficients() {
+        return new WeightedScoringModel().compile(null);
+    }
+
+    @Override
+    public int[] compile(Long eventId) {
+        ScoringWeights defaults = scoring.getDefaults();
+        ScoringWeights override = eventId == null ? null : scoring.getEvents().get(eventId);
+
+        int[] coefficients = new int[ScoringFeature.count()];
+        coefficients[ScoringFeature.NEAR_STAGE_MISS.ordinal()] = weight(defaults, override, ScoringWeights::getNearStagePenalty);
+        coefficients[ScoringFeature.SAME_RELATION.ordinal()] = -weight(defaults, override, ScoringWeights::getRelationBonus);
+        coefficients[ScoringFeature.PREFERRED_GUESTS.ordinal()] = -weight(defaults, override, ScoringWeights::getPreferredGuestBonus);
+        coefficients[ScoringFeature.SAME_SIDE.ordinal()] = -weight(defaults, override, ScoringWeights::getSideBonus);
+        coefficients[ScoringFeature.EMPTY_SEATS_CUBED.ordinal()] = weight(defaults, override, ScoringWeights::getEmptySeatFactor);
+        return coefficients;
+    }
+
+    private static int weight(ScoringWeights defaults, ScoringWeights override, Function<ScoringWeights, Integer> getter) {
+        Integer value = override == null ? null : getter.apply(override);
+        if (value == null) {
+            value = getter.apply(defaults);
+        }
+        return value == null ? 0 : value;
+    }
+}
@@ -0,0 +1,188 @@
+package com.lavi.tablearrangments.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A DTO representing the outcome of a seating assignment solve.
+ */
+public class AssignmentResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Why the search stopped.
+     */
+    public enum Termination {
+        /** The whole search space was explored. */
+        COMPLETED,
+        /** The wall-clock budget ran out; the assignment is the best found so far. */
+        TIME_LIMIT,
+        /** The node budget ran out; the assignment is the best found so far. */
+        NODE_LIMIT,
+    }
+
+    private List<String> warnings = new ArrayList<>();
+
+    private int assignedGroups;
+
+    private int unassignedGroups;
+
+    private Integer openTables;
+
+    private Map<Long, Long> guestTableIds = new LinkedHashMap<>();
+
+    private Termination termination = Termination.COMPLETED;
+
+    private boolean optimal;
+
+    private long nodesExplored;
+
+    private long prunes;
+
+    private long boundPrunes;
+
+    private long elapsedMillis;
+
+    private int updatedGuests;
+
+    private boolean cached;
+
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    public void setWarnings(List<String> warnings) {
+        this.warnings = warnings;
+    }
+
+    public int getAssignedGroups() {
+        return assignedGroups;
+    }
+
+    public void setAssignedGroups(int assignedGroups) {
+        this.assignedGroups = assignedGroups;
+    }
+
+    public int getUnassignedGroups() {
+        return unassignedGroups;
+    }
+
+    public void setUnassignedGroups(int unassignedGroups) {
+        this.unassignedGroups = unassignedGroups;
+    }
+
+    public Integer getOpenTables() {
+        return openTables;
+    }
+
+    public void setOpenTables(Integer openTables) {
+        this.openTables = openTables;
+    }
+
+    /**
+     * Returns the table id assigned to each seated guest, keyed by guest id.
+     */
+    public Map<Long, Long> getGuestTableIds() {
+        return guestTableIds;
+    }
+
+    public void setGuestTableIds(Map<Long, Long> guestTableIds) {
+        this.guestTableIds = guestTableIds;
+    }
+
+    public Termination getTermination() {
+        return termination;
+    }
+
+    public void setTermination(Termination termination) {
+        this.termination = termination;
+    }
+
+    /**
+     * Returns true when every group was seated and the search space was exhausted,
+     * so no assignment with fewer open tables exists.
+     */
+    public boolean isOptimal() {
+        return optimal;
+    }
+
+    public void setOptimal(boolean optimal) {
+        this.optimal = optimal;
+    }
+
+    public long getNodesExplored() {
+        return nodesExplored;
+    }
+
+    public void setNodesExplored(long nodesExplored) {
+        this.nodesExplored = nodesExplored;
+    }
+
+    public long getPrunes() {
+        return prunes;
+    }
+
+    public void setPrunes(long prunes) {
+        this.prunes = prunes;
+    }
+
+    /**
+     * Returns how many of the {@link #getPrunes() prunes} were cut by the open-table lower bound.
+     */
+    public long getBoundPrunes() {
+        return boundPrunes;
+    }
+
+    public void setBoundPrunes(long boundPrunes) {
+        this.boundPrunes = boundPrunes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Returns how many guest records the solve wrote; an incremental solve only writes the guests whose table changed.
+     */
+    public int getUpdatedGuests() {
+        return updatedGuests;
+    }
+
+    public void setUpdatedGuests(int updatedGuests) {
+        this.updatedGuests = updatedGuests;
+    }
+
+    /**
+     * Returns whether the result was reused from an earlier solve of an identical problem instead of searched for.
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    public void setCached(boolean cached) {
+        this.cached = cached;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AssignmentResultDTO{" +
+            "assignedGroups=" + assignedGroups +
+            ", unassignedGroups=" + unassignedGroups +
+            ", openTables=" + openTables +
+            ", termination=" + termination +
+            ", optimal=" + optimal +
+            ", updatedGuests=" + updatedGuests +
+            ", cached=" + cached +
+            ", warnings=" + warnings.size() +
+            "}";
+    }
+}
@@ -0,0 +1,98 @@
+package com.lavi.tablearrangments.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO representing a snapshot of a running seating solve.
+ */
+public class SolverProgressDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long nodesExplored;
+
+    private long prunes;
+
+    private long boundPrunes;
+
+    private Integer bestOpenTables;
+
+    private Long bestPenalty;
+
+    private long elapsedMillis;
+
+    private boolean finished;
+
+    public long getNodesExplored() {
+        return nodesExplored;
+    }
+
+    public void setNodesExplored(long nodesExplored) {
+        this.nodesExplored = nodesExplored;
+    }
+
+    public long getPrunes() {
+        return prunes;
+    }
+
+    public void setPrunes(long prunes) {
+        this.prunes = prunes;
+    }
+
+    /**
+     * Returns how many of the {@link #getPrunes() prunes} were cut by the open-table lower bound.
+     */
+    public long getBoundPrunes() {
+        return boundPrunes;
+    }
+
+    public void setBoundPrunes(long boundPrunes) {
+        this.boundPrunes = boundPrunes;
+    }
+
+    public Integer getBestOpenTables() {
+        return bestOpenTables;
+    }
+
+    public void setBestOpenTables(Integer bestOpenTables) {
+        this.bestOpenTables = bestOpenTables;
+    }
+
+    public Long getBestPenalty() {
+        return bestPenalty;
+    }
+
+    public void setBestPenalty(Long bestPenalty) {
+        this.bestPenalty = bestPenalty;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public void setFinished(boolean finished) {
+        this.finished = finished;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SolverProgressDTO{" +
+            "nodesExplored=" + nodesExplored +
+            ", prunes=" + prunes +
+            ", boundPrunes=" + boundPrunes +
+            ", bestOpenTables=" + bestOpenTables +
+            ", bestPenalty=" + bestPenalty +
+            ", elapsedMillis=" + elapsedMillis +
+            ", finished=" + finished +
+            "}";
+    }
+}
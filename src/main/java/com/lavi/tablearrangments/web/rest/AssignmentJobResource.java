@@ -0,0 +1,129 @@
+package com.lavi.tablearrangments.web.rest;
+
+import com.lavi.tablearrangments.service.AssignmentJobService;
+import com.lavi.tablearrangments.service.GuestAssignmentService;
+import com.lavi.tablearrangments.service.dto.AssignmentJobDTO;
+import com.lavi.tablearrangments.service.dto.AssignmentResultDTO;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tech.jhipster.web.util.ResponseUtil;
+
+/**
+ * REST controller for running guest-to-table assignments as background jobs.
+ * A job is submitted, then polled until it finishes, and its result fetched separately.
+ */
+@RestController
+@RequestMapping("/api/guests/assign/jobs")
+public class AssignmentJobResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AssignmentJobResource.class);
+
+    private final AssignmentJobService assignmentJobService;
+
+    private final GuestAssignmentService guestAssignmentService;
+
+    public AssignmentJobResource(AssignmentJobService assignmentJobService, GuestAssignmentService guestAssignmentService) {
+        this.assignmentJobService = assignmentJobService;
+        this.guestAssignmentService = guestAssignmentService;
+    }
+
+    /**
+     * {@code POST /guests/assign/jobs} : Submit a new assignment job for the current user.
+     *
+     * @param timeBudgetMs optional wall-clock budget of the solve in milliseconds; can only tighten the configured budget.
+     * @param maxNodes optional maximum number of search nodes; can only tighten the configured limit.
+     * @param incremental when true, keeps the persisted assignment and only re-seats guests that lost their seat
+     *                    since the last solve, writing only the guests whose table changed.
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)} and with body the job status,
+     * or with status {@code 503 (Service Unavailable)} if too many jobs are already queued.
+     * @throws URISyntaxException if the Location URI syntax is incorrect.
+     */
+    @PostMapping("")
+    public ResponseEntity<AssignmentJobDTO> submitAssignmentJob(
+        @RequestParam(name = "timeBudgetMs", required = false) Long timeBudgetMs,
+        @RequestParam(name = "maxNodes", required = false) Long maxNodes,
+        @RequestParam(name = "incremental", defaultValue = "false") boolean incremental
+    ) throws URISyntaxException {
+        LOG.debug(
+            "REST request to submit an assignment job, timeBudgetMs={}, maxNodes={}, incremental={}",
+            timeBudgetMs,
+            maxNodes,
+            incremental
+        );
+        try {
+            AssignmentJobDTO job = assignmentJobService.submit(null, guestAssignmentService.limits(timeBudgetMs, maxNodes), incremental);
+            return ResponseEntity.accepted().location(new URI("/api/guests/assign/jobs/" + job.getId())).body(job);
+        } catch (TaskRejectedException e) {
+            LOG.warn("Assignment job rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * {@code GET /guests/assign/jobs/:id} : Get the status of an assignment job.
+     *
+     * @param id the id of the job.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the job status, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<AssignmentJobDTO> getAssignmentJob(@PathVariable("id") String id) {
+        LOG.debug("REST request to get assignment job : {}", id);
+        return ResponseUtil.wrapOrNotFound(assignmentJobService.getStatus(id));
+    }
+
+    /**
+     * {@code GET /guests/assign/jobs/:id/result} : Get the result of a completed assignment job.
+     *
+     * @param id the id of the job.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result,
+     * or with status {@code 409 (Conflict)} if the job has not completed, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/{id}/result")
+    public ResponseEntity<AssignmentResultDTO> getAssignmentJobResult(@PathVariable("id") String id) {
+        LOG.debug("REST request to get assignment job result : {}", id);
+        Optional<AssignmentJobDTO> job = assignmentJobService.getStatus(id);
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return assignmentJobService
+            .getResult(id)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    /**
+     * {@code GET /guests/assign/jobs/:id/progress} : Stream the progress of an assignment job as Server-Sent Events.
+     * A {@code progress} event carrying nodes explored, prunes, best open-table count, best penalty and elapsed time
+     * is sent twice a second, followed by a {@code status} event when the job finishes.
+     *
+     * @param id the id of the job.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the event stream, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping(value = "/{id}/progress", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAssignmentJobProgress(@PathVariable("id") String id) {
+        LOG.debug("REST request to stream assignment job progress : {}", id);
+        return ResponseUtil.wrapOrNotFound(assignmentJobService.subscribeProgress(id));
+    }
+
+    /**
+     * {@code DELETE /guests/assign/jobs/:id} : Cancel a queued or running assignment job.
+     * A job already writing its assignment is not cancelled and still reports {@code RUNNING}, then {@code COMPLETED}.
+     *
+     * @param id the id of the job.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the job status, or with status {@code 404 (Not Found)}.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<AssignmentJobDTO> cancelAssignmentJob(@PathVariable("id") String id) {
+        LOG.debug("REST request to cancel assignment job : {}", id);
+        return ResponseUtil.wrapOrNotFound(assignmentJobService.cancel(id));
+    }
+}
@@ -5,6 +5,10 @@ import com.lavi.tablearrangments.domain.User;
 import com.lavi.tablearrangments.repository.EventRepository;
 import com.lavi.tablearrangments.repository.UserRepository;
 import com.lavi.tablearrangments.security.SecurityUtils;
+import com.lavi.tablearrangments.service.AssignmentJobService;
+import com.lavi.tablearrangments.service.GuestAssignmentService;
+import com.lavi.tablearrangments.service.SeatingPlanExportService;
+import com.lavi.tablearrangments.service.dto.AssignmentJobDTO;
 import com.lavi.tablearrangments.web.rest.errors.BadRequestAlertException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
@@ -17,11 +21,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -44,10 +54,22 @@ public class EventResource {
 
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
+    private final GuestAssignmentService guestAssignmentService;
+    private final AssignmentJobService assignmentJobService;
+    private final SeatingPlanExportService seatingPlanExportService;
 
-    public EventResource(EventRepository eventRepository, UserRepository userRepository) {
+    public EventResource(
+        EventRepository eventRepository,
+        UserRepository userRepository,
+        GuestAssignmentService guestAssignmentService,
+        AssignmentJobService assignmentJobService,
+        SeatingPlanExportService seatingPlanExportService
+    ) {
         this.eventRepository = eventRepository;
         this.userRepository = userRepository;
+        this.guestAssignmentService = guestAssignmentService;
+        this.assignmentJobService = assignmentJobService;
+        this.seatingPlanExportService = seatingPlanExportService;
     }
 
     /**
@@ -168,6 +190,74 @@ public class EventResource {
         return ResponseUtil.wrapOrNotFound(event);
     }
 
+    /**
+     * {@code POST /events/:id/assign} : Submit an assignment job seating the guests of one event at its tables.
+     * Only the event's guests and tables are loaded and written, so events of the same user can be solved in parallel.
+     * The job runs in the background like those of {@link AssignmentJobResource}, which serves its status, progress
+     * and result.
+     *
+     * @param id the ID of the event to seat.
+     * @param timeBudgetMs optional wall-clock budget of the solve in milliseconds; can only tighten the configured budget.
+     * @param maxNodes optional maximum number of search nodes; can only tighten the configured limit.
+     * @param incremental when true, keeps the persisted assignment and only re-seats guests that lost their seat
+     *                    since the last solve, writing only the guests whose table changed.
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)} and with body the job status,
+     * or with status {@code 404 (Not Found)} if the event does not belong to the current user,
+     * or with status {@code 503 (Service Unavailable)} if too many jobs are already queued.
+     * @throws URISyntaxException if the Location URI syntax is incorrect.
+     */
+    @PostMapping("/{id}/assign")
+    public ResponseEntity<AssignmentJobDTO> assignEventGuestsToTables(
+        @PathVariable("id") Long id,
+        @RequestParam(name = "timeBudgetMs", required = false) Long timeBudgetMs,
+        @RequestParam(name = "maxNodes", required = false) Long maxNodes,
+        @RequestParam(name = "incremental", defaultValue = "false") boolean incremental
+    ) throws URISyntaxException {
+        LOG.debug("REST request to assign the guests of Event : {} (incremental: {})", id, incremental);
+        if (!eventRepository.existsByIdAndUserIsCurrentUser(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            AssignmentJobDTO job = assignmentJobService.submit(id, guestAssignmentService.limits(timeBudgetMs, maxNodes), incremental);
+            return ResponseEntity.accepted().location(new URI("/api/guests/assign/jobs/" + job.getId())).body(job);
+        } catch (TaskRejectedException e) {
+            LOG.warn("Assignment job for event {} rejected: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * {@code GET /events/:id/seating-plan} : Download the seating plan of an event, one line per guest with its table.
+     * The plan is streamed straight to the response as it is read, so its size does not affect memory.
+     *
+     * @param id the ID of the event to export.
+     * @param format {@code ndjson} (default) or {@code csv}.
+     * @return the streamed seating plan as an attachment, or 404 if the event does not belong to the current user.
+     * @throws BadRequestAlertException if the format is unknown.
+     */
+    @GetMapping("/{id}/seating-plan")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<StreamingResponseBody> exportSeatingPlan(
+        @PathVariable("id") Long id,
+        @RequestParam(name = "format", defaultValue = "ndjson") String format
+    ) {
+        LOG.debug("REST request to export the seating plan of Event : {} as {}", id, format);
+        SeatingPlanExportService.Format exportFormat;
+        try {
+            exportFormat = SeatingPlanExportService.Format.of(format);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unknown export format", ENTITY_NAME, "formatinvalid");
+        }
+        if (!eventRepository.existsByIdAndUserIsCurrentUser(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        String filename = "seating-plan-" + id + "." + exportFormat.getExtension();
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+            .body(out -> seatingPlanExportService.export(id, exportFormat, out));
+    }
+
     /**
      * {@code DELETE /events/:id} : Delete an event by ID.
      *
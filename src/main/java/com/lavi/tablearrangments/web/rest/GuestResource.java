@@ -4,6 +4,10 @@ import com.lavi.tablearrangments.domain.Guest;
 import com.lavi.tablearrangments.repository.GuestRepository;
 import com.lavi.tablearrangments.security.SecurityUtils;
 import com.lavi.tablearrangments.service.GuestAssignmentService;
+import com.lavi.tablearrangments.service.SeatingPlanExportService;
+import com.lavi.tablearrangments.service.SolverLimits;
+import com.lavi.tablearrangments.service.SolverProgress;
+import com.lavi.tablearrangments.service.dto.AssignmentResultDTO;
 import com.lavi.tablearrangments.web.rest.errors.BadRequestAlertException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
@@ -16,11 +20,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -44,10 +53,16 @@ public class GuestResource {
 
     private final GuestRepository guestRepository;
     private final GuestAssignmentService guestAssignmentService;
+    private final SeatingPlanExportService seatingPlanExportService;
 
-    public GuestResource(GuestRepository guestRepository, GuestAssignmentService guestAssignmentService) {
+    public GuestResource(
+        GuestRepository guestRepository,
+        GuestAssignmentService guestAssignmentService,
+        SeatingPlanExportService seatingPlanExportService
+    ) {
         this.guestRepository = guestRepository;
         this.guestAssignmentService = guestAssignmentService;
+        this.seatingPlanExportService = seatingPlanExportService;
     }
 
     /**
@@ -64,6 +79,7 @@ public class GuestResource {
             throw new BadRequestAlertException("A new guest cannot already have an ID", ENTITY_NAME, "idexists");
         }
         guest = guestRepository.save(guest);
+        guestRepository.evictLinkCaches();
         return ResponseEntity.created(new URI("/api/guests/" + guest.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, guest.getId().toString()))
             .body(guest);
@@ -86,6 +102,7 @@ public class GuestResource {
         }
 
         guest = guestRepository.save(guest);
+        guestRepository.evictLinkCaches();
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, guest.getId().toString()))
             .body(guest);
@@ -149,22 +166,88 @@ public class GuestResource {
 
     /**
      * {@code GET /guests} : Get all guests of the current user.
+     * <p>
+     * With a {@code cursor}, pages are read by keyset instead of by offset: each page seeks past the last row of the
+     * previous one, so every page costs the same however deep it is. Pass an empty cursor for the first page and follow
+     * the {@code Link} header with {@code rel="next"}, which is absent on the last page.
      *
-     * @param pageable the pagination information.
+     * @param pageable the pagination information; only the page size is used with a cursor.
      * @param eagerload whether to eagerly load relationships (ignored).
+     * @param cursor the opaque cursor of the page to read, empty for the first keyset page.
+     * @param orderByName with an empty cursor, order the keyset pages by name, then id, instead of by id.
+     * @param count with a cursor, whether to also return the total number of guests in the {@code X-Total-Count} header.
      * @return the list of guests.
      */
     @GetMapping("")
     public ResponseEntity<List<Guest>> getAllGuests(
         @org.springdoc.core.annotations.ParameterObject Pageable pageable,
-        @RequestParam(name = "eagerload", required = false, defaultValue = "true") boolean eagerload
+        @RequestParam(name = "eagerload", required = false, defaultValue = "true") boolean eagerload,
+        @RequestParam(name = "cursor", required = false) String cursor,
+        @RequestParam(name = "orderByName", defaultValue = "false") boolean orderByName,
+        @RequestParam(name = "count", defaultValue = "false") boolean count
     ) {
+        if (cursor != null) {
+            return getGuestsAfter(cursor, orderByName, pageable.getPageSize(), count);
+        }
         LOG.debug("REST request to get a page of Guests by current user");
         Page<Guest> page = guestRepository.findAllByEventUserIsCurrentUser(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    private ResponseEntity<List<Guest>> getGuestsAfter(String cursor, boolean orderByName, int size, boolean count) {
+        LOG.debug("REST request to get a keyset page of Guests by current user after : {}", cursor);
+        KeysetCursor position = decodeCursor(cursor, orderByName);
+        Pageable limit = PageRequest.ofSize(size + 1);
+        List<Guest> guests = position.byName()
+            ? guestRepository.findAllAfterNameByEventUserIsCurrentUser(position.name(), position.id(), limit)
+            : guestRepository.findAllAfterIdByEventUserIsCurrentUser(position.id(), limit);
+        KeysetCursor next = null;
+        if (guests.size() > size) {
+            guests = guests.subList(0, size);
+            Guest last = guests.get(size - 1);
+            next = position.after(last.getLastNameAndFirstName(), last.getId());
+        }
+        Long totalCount = count ? guestRepository.countByEventUserIsCurrentUser() : null;
+        return ResponseEntity.ok().headers(KeysetCursor.headers(next, totalCount)).body(guests);
+    }
+
+    private static KeysetCursor decodeCursor(String cursor, boolean orderByName) {
+        if (cursor.isEmpty()) {
+            return KeysetCursor.first(orderByName);
+        }
+        try {
+            return KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+    }
+
+    /**
+     * {@code GET /guests/seating-plan} : Download the seating plan of every event of the current user, one line per guest
+     * with its table. The plan is streamed straight to the response as it is read, so its size does not affect memory.
+     *
+     * @param format {@code ndjson} (default) or {@code csv}.
+     * @return the streamed seating plan as an attachment.
+     * @throws BadRequestAlertException if the format is unknown.
+     */
+    @GetMapping("/seating-plan")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<StreamingResponseBody> exportSeatingPlan(@RequestParam(name = "format", defaultValue = "ndjson") String format) {
+        LOG.debug("REST request to export the seating plan of the current user as {}", format);
+        SeatingPlanExportService.Format exportFormat;
+        try {
+            exportFormat = SeatingPlanExportService.Format.of(format);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unknown export format", ENTITY_NAME, "formatinvalid");
+        }
+        String filename = "seating-plan." + exportFormat.getExtension();
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+            .body(out -> seatingPlanExportService.export(null, exportFormat, out));
+    }
+
     /**
      * {@code GET /guests/:id} : Get a specific guest by ID.
      *
@@ -185,15 +268,32 @@ public class GuestResource {
 
     /**
      * {@code POST /guests/assign} : Assign guests to tables.
+     * Blocks until the solve finishes; prefer {@code POST /guests/assign/jobs} for large events.
+     * When the search is cut off by its time or node budget, the best assignment found so far is kept,
+     * a warning is added and the {@code X-<app>-solver-termination} header names the limit that was hit.
      *
+     * @param timeBudgetMs optional wall-clock budget of the solve in milliseconds; can only tighten the configured budget.
+     * @param maxNodes optional maximum number of search nodes; can only tighten the configured limit.
+     * @param incremental when true, keeps the persisted assignment and only re-seats guests that lost their seat
+     *                    since the last solve, writing only the guests whose table changed.
      * @return list of warnings if any, or an error response in case of failure.
      */
     @PostMapping("/assign")
-    public ResponseEntity<List<String>> assignGuestsToTables() {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<List<String>> assignGuestsToTables(
+        @RequestParam(name = "timeBudgetMs", required = false) Long timeBudgetMs,
+        @RequestParam(name = "maxNodes", required = false) Long maxNodes,
+        @RequestParam(name = "incremental", defaultValue = "false") boolean incremental
+    ) {
         try {
-            LOG.info("🔥 Received request to assign guests to tables");
-            List<String> warnings = guestAssignmentService.assignAll();
-            return ResponseEntity.ok(warnings);
+            LOG.info("🔥 Received request to assign guests to tables (incremental: {})", incremental);
+            SolverLimits limits = guestAssignmentService.limits(timeBudgetMs, maxNodes);
+            AssignmentResultDTO result = incremental
+                ? guestAssignmentService.solveIncremental(new SolverProgress(), limits)
+                : guestAssignmentService.solve(new SolverProgress(), limits);
+            return ResponseEntity.ok()
+                .header("X-" + applicationName + "-solver-termination", result.getTermination().name())
+                .body(result.getWarnings());
         } catch (IllegalStateException ex) {
             LOG.error("Assignment failed due to state issue: {}", ex.getMessage());
             return ResponseEntity.badRequest().body(List.of(ex.getMessage()));
@@ -219,6 +319,7 @@ public class GuestResource {
         }
 
         guestRepository.deleteById(id);
+        guestRepository.evictLinkCaches();
         return ResponseEntity.noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
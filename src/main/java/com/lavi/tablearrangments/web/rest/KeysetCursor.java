@@ -0,0 +1,86 @@
+package com.lavi.tablearrangments.web.rest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Position of a keyset page: the sort key of the last row of the previous page.
+ * <p>
+ * A cursor on {@code (id)} has no name; a cursor on {@code (lastNameAndFirstName, id)} also carries the name of the
+ * last row. Clients only see the URL-safe Base64 form and pass it back unchanged, so the encoding can evolve.
+ *
+ * @param name the name of the last row, or {@code null} when paging by id alone.
+ * @param id   the id of the last row.
+ */
+record KeysetCursor(String name, long id) {
+    private static final String BY_ID = "i";
+    private static final String BY_NAME = "n";
+
+    /**
+     * Returns the position before the first row.
+     *
+     * @param byName whether the rows are ordered by name, then id, rather than by id.
+     * @return the cursor of the first page.
+     */
+    static KeysetCursor first(boolean byName) {
+        return new KeysetCursor(byName ? "" : null, 0L);
+    }
+
+    /**
+     * Decodes a cursor returned by {@link #encode()}.
+     *
+     * @param cursor the opaque cursor.
+     * @return the decoded position.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    static KeysetCursor decode(String cursor) {
+        String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+        if (parts.length == 2 && BY_ID.equals(parts[0])) {
+            return new KeysetCursor(null, Long.parseLong(parts[1]));
+        }
+        if (parts.length == 3 && BY_NAME.equals(parts[0])) {
+            return new KeysetCursor(parts[2], Long.parseLong(parts[1]));
+        }
+        throw new IllegalArgumentException("Malformed cursor");
+    }
+
+    boolean byName() {
+        return name != null;
+    }
+
+    /**
+     * Returns the position after the given row, in the same order as this cursor.
+     */
+    KeysetCursor after(String lastName, long lastId) {
+        return new KeysetCursor(byName() ? lastName : null, lastId);
+    }
+
+    String encode() {
+        String raw = byName() ? BY_NAME + ":" + id + ":" + name : BY_ID + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Builds the headers of a keyset page: a {@code Link} to the next page if there is one, and the total count if it was asked for.
+     *
+     * @param next       the cursor of the next page, or {@code null} on the last page.
+     * @param totalCount the number of rows over all pages, or {@code null} if not counted.
+     * @return the headers.
+     */
+    static HttpHeaders headers(KeysetCursor next, Long totalCount) {
+        HttpHeaders headers = new HttpHeaders();
+        if (next != null) {
+            String uri = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("page")
+                .replaceQueryParam("cursor", next.encode())
+                .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + uri + ">; rel=\"next\"");
+        }
+        if (totalCount != null) {
+            headers.add("X-Total-Count", Long.toString(totalCount));
+        }
+        return headers;
+    }
+}
@@ -14,6 +14,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
@@ -150,22 +151,56 @@ public class SeatingTableResource {
 
     /**
      * {@code GET  /seating-tables} : get all the seatingTables.
+     * <p>
+     * With a {@code cursor}, pages are read by keyset in id order instead of by offset. Pass an empty cursor for the
+     * first page and follow the {@code Link} header with {@code rel="next"}, which is absent on the last page.
      *
-     * @param pageable the pagination information.
+     * @param pageable the pagination information; only the page size is used with a cursor.
      * @param eagerload flag to eager load entities from relationships (This is applicable for many-to-many).
+     * @param cursor the opaque cursor of the page to read, empty for the first keyset page.
+     * @param count with a cursor, whether to also return the total number of tables in the {@code X-Total-Count} header.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of seatingTables in body.
      */
     @GetMapping("")
     public ResponseEntity<List<SeatingTable>> getAllSeatingTables(
         @org.springdoc.core.annotations.ParameterObject Pageable pageable,
-        @RequestParam(name = "eagerload", required = false, defaultValue = "true") boolean eagerload
+        @RequestParam(name = "eagerload", required = false, defaultValue = "true") boolean eagerload,
+        @RequestParam(name = "cursor", required = false) String cursor,
+        @RequestParam(name = "count", defaultValue = "false") boolean count
     ) {
+        if (cursor != null) {
+            return getSeatingTablesAfter(cursor, pageable.getPageSize(), count);
+        }
         LOG.debug("REST request to get a page of SeatingTables");
         Page<SeatingTable> page = seatingTableRepository.findAllByEventUserIsCurrentUser(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    private ResponseEntity<List<SeatingTable>> getSeatingTablesAfter(String cursor, int size, boolean count) {
+        LOG.debug("REST request to get a keyset page of SeatingTables after : {}", cursor);
+        KeysetCursor position;
+        try {
+            position = cursor.isEmpty() ? KeysetCursor.first(false) : KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+        if (position.byName()) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+        List<SeatingTable> seatingTables = seatingTableRepository.findAllAfterIdByEventUserIsCurrentUser(
+            position.id(),
+            PageRequest.ofSize(size + 1)
+        );
+        KeysetCursor next = null;
+        if (seatingTables.size() > size) {
+            seatingTables = seatingTables.subList(0, size);
+            next = position.after(null, seatingTables.get(size - 1).getId());
+        }
+        Long totalCount = count ? seatingTableRepository.countByEventUserIsCurrentUser() : null;
+        return ResponseEntity.ok().headers(KeysetCursor.headers(next, totalCount)).body(seatingTables);
+    }
+
     /**
      * {@code GET  /seating-tables/:id} : get the "id" seatingTable.
      *
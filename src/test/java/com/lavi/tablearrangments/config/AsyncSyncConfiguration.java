@@ -3,7 +3,9 @@ package com.lavi.tablearrangments.config;
 import java.util.concurrent.Executor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 
 @Configuration
 public class AsyncSyncConfiguration {
@@ -12,4 +14,14 @@ public class AsyncSyncConfiguration {
     public Executor taskExecutor() {
         return new SyncTaskExecutor();
     }
+
+    @Bean(name = "assignmentTaskExecutor")
+    public AsyncTaskExecutor assignmentTaskExecutor() {
+        return new TaskExecutorAdapter(new SyncTaskExecutor());
+    }
+
+    @Bean(name = "progressTaskExecutor")
+    public AsyncTaskExecutor progressTaskExecutor() {
+        return new TaskExecutorAdapter(new SyncTaskExecutor());
+    }
 }
@@ -0,0 +1,62 @@
+package com.lavi.tablearrangments.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.lavi.tablearrangments.domain.enumeration.GuestRelation;
+import com.lavi.tablearrangments.domain.enumeration.GuestSide;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class GuestGroupTest {
+
+    @Test
+    void factsAreComputedOnceFromTheGuests() {
+        List<Guest> guests = new ArrayList<>();
+        guests.add(new Guest().id(1L).lastNameAndFirstName("Cohen Dana").numberOfSeats(2).relation(GuestRelation.GROOM_FAMILY));
+        guests.add(
+            new Guest().id(2L).lastNameAndFirstName("Levi Avi").numberOfSeats(3).side(GuestSide.BRIDE).accessibility(true).nearStage(true)
+        );
+
+        GuestGroup group = new GuestGroup(guests);
+        guests.clear();
+
+        assertThat(group.getId()).isEqualTo(GuestGroup.NO_ID);
+        assertThat(group.getGuests()).hasSize(2);
+        assertThat(group.getTotalSeats()).isEqualTo(5);
+        assertThat(group.requiresAccessibility()).isTrue();
+        assertThat(group.requiresNearStage()).isTrue();
+        assertThat(group.getRelation()).isEqualTo("GROOM_FAMILY");
+        assertThat(group.getDominantSide()).isEqualTo("BRIDE");
+        assertThat(group.getNames()).isEqualTo("Cohen Dana, Levi Avi");
+        assertThatThrownBy(() -> group.getGuests().add(new Guest())).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void withIdNumbersACopy() {
+        GuestGroup group = new GuestGroup(List.of(new Guest().id(1L).numberOfSeats(1)));
+
+        GuestGroup numbered = group.withId(7);
+
+        assertThat(numbered.getId()).isEqualTo(7);
+        assertThat(numbered.getGuests()).isEqualTo(group.getGuests());
+        assertThat(numbered).isNotEqualTo(group);
+        assertThat(group.getId()).isEqualTo(GuestGroup.NO_ID);
+    }
+
+    @Test
+    void internalConflictsAreFoundByIdInEitherDirection() {
+        Guest first = new Guest().id(1L).numberOfSeats(1);
+        Guest second = new Guest().id(2L).numberOfSeats(1);
+        Guest outsider = new Guest().id(3L).numberOfSeats(1);
+        first.addAvoidGuests(outsider);
+
+        assertThat(new GuestGroup(List.of(first, second)).hasInternalConflict()).isFalse();
+
+        second.addAvoidGuests(new Guest().id(1L));
+
+        assertThat(new GuestGroup(List.of(first, second)).hasInternalConflict()).isTrue();
+        assertThat(new GuestGroup(List.of(second, first)).hasInternalConflict()).isTrue();
+    }
+}
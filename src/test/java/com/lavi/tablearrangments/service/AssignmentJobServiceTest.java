@@ -0,0 +1,195 @@
+package com.lavi.tablearrangments.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.lavi.tablearrangments.config.ApplicationProperties;
+import com.lavi.tablearrangments.service.dto.AssignmentJobDTO;
+import com.lavi.tablearrangments.service.dto.AssignmentResultDTO;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Test class for the {@link AssignmentJobService}, running jobs synchronously and progress sends on a thread pool.
+ */
+class AssignmentJobServiceTest {
+
+    private GuestAssignmentService guestAssignmentService;
+
+    private AssignmentJobService assignmentJobService;
+
+    private ExecutorService progressExecutor;
+
+    @BeforeEach
+    void setUp() {
+        guestAssignmentService = mock(GuestAssignmentService.class);
+        progressExecutor = Executors.newCachedThreadPool();
+        assignmentJobService = new AssignmentJobService(
+            guestAssignmentService,
+            new TaskExecutorAdapter(new SyncTaskExecutor()),
+            new TaskExecutorAdapter(progressExecutor),
+            new ApplicationProperties()
+        );
+        login("planner");
+    }
+
+    @AfterEach
+    void cleanup() {
+        SecurityContextHolder.clearContext();
+        progressExecutor.shutdownNow();
+    }
+
+    private static void login(String login) {
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(new UsernamePasswordAuthenticationToken(login, login));
+        SecurityContextHolder.setContext(securityContext);
+    }
+
+    @Test
+    void completedJobExposesResultToOwnerOnly() {
+        AssignmentResultDTO result = new AssignmentResultDTO();
+        result.setWarnings(List.of("warning"));
+        when(guestAssignmentService.solve(any(), any(), any())).thenReturn(result);
+
+        String id = assignmentJobService.submit(null, SolverLimits.unlimited(), false).getId();
+
+        assertThat(assignmentJobService.getStatus(id)).map(AssignmentJobDTO::getStatus).contains(AssignmentJobDTO.Status.COMPLETED);
+        assertThat(assignmentJobService.getResult(id)).contains(result);
+
+        login("other");
+        assertThat(assignmentJobService.getStatus(id)).isEmpty();
+        assertThat(assignmentJobService.getResult(id)).isEmpty();
+    }
+
+    @Test
+    void failedAndCancelledJobsHaveNoResult() {
+        when(guestAssignmentService.solve(any(), any(), any())).thenThrow(
+            new IllegalStateException("Guest X requires more seats than any table!")
+        );
+        String failedId = assignmentJobService.submit(null, SolverLimits.unlimited(), false).getId();
+        AssignmentJobDTO failed = assignmentJobService.getStatus(failedId).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(AssignmentJobDTO.Status.FAILED);
+        assertThat(failed.getMessage()).isEqualTo(AssignmentJobService.INVALID_SETUP_MESSAGE).doesNotContain("Guest X");
+
+        doThrow(new CancellationException()).when(guestAssignmentService).solve(any(), any(), any());
+        String cancelled = assignmentJobService.submit(null, SolverLimits.unlimited(), false).getId();
+        assertThat(assignmentJobService.getStatus(cancelled)).map(AssignmentJobDTO::getStatus).contains(AssignmentJobDTO.Status.CANCELLED);
+        assertThat(assignmentJobService.getResult(cancelled)).isEmpty();
+    }
+
+    @Test
+    void stalledSubscriberNeitherBlocksOthersNorQueuesTicks() throws Exception {
+        when(guestAssignmentService.solve(any(), any(), any())).thenReturn(new AssignmentResultDTO());
+        String id = assignmentJobService.submit(null, SolverLimits.unlimited(), false).getId();
+        CountDownLatch stalling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger stalledSends = new AtomicInteger();
+        SseEmitter stalled = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                stalledSends.incrementAndGet();
+                stalling.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        CountDownLatch fastCompleted = new CountDownLatch(1);
+        SseEmitter fast = new SseEmitter() {
+            @Override
+            public void complete() {
+                fastCompleted.countDown();
+            }
+        };
+        assignmentJobService.subscribeProgress(id, stalled);
+        assignmentJobService.subscribeProgress(id, fast);
+
+        assignmentJobService.publishProgress();
+        assertThat(stalling.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(fastCompleted.await(5, TimeUnit.SECONDS)).isTrue();
+        assignmentJobService.publishProgress();
+        assignmentJobService.publishProgress();
+        release.countDown();
+        progressExecutor.shutdown();
+
+        assertThat(progressExecutor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        // The progress and final status of the first tick only; the ticks sent while it stalled were dropped.
+        assertThat(stalledSends).hasValue(2);
+    }
+
+    @Test
+    void jobWritingItsAssignmentIsNotCancelled() throws Exception {
+        AssignmentJobService asyncJobService = new AssignmentJobService(
+            guestAssignmentService,
+            new TaskExecutorAdapter(progressExecutor),
+            new TaskExecutorAdapter(progressExecutor),
+            new ApplicationProperties()
+        );
+        AssignmentResultDTO result = new AssignmentResultDTO();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(guestAssignmentService.solve(any(), any(), any())).thenAnswer(invocation -> {
+            SolverProgress progress = invocation.getArgument(1);
+            assertThat(progress.beginPersist()).isTrue();
+            writing.countDown();
+            release.await();
+            return result;
+        });
+        String id = asyncJobService.submit(null, SolverLimits.unlimited(), false).getId();
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(asyncJobService.cancel(id)).map(AssignmentJobDTO::getStatus).contains(AssignmentJobDTO.Status.RUNNING);
+        release.countDown();
+        progressExecutor.shutdown();
+
+        assertThat(progressExecutor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(asyncJobService.getStatus(id)).map(AssignmentJobDTO::getStatus).contains(AssignmentJobDTO.Status.COMPLETED);
+        assertThat(asyncJobService.getResult(id)).contains(result);
+    }
+
+    @Test
+    void incrementalJobRunsAnIncrementalSolve() {
+        AssignmentResultDTO result = new AssignmentResultDTO();
+        when(guestAssignmentService.solveIncremental(any(), any(), any())).thenReturn(result);
+
+        AssignmentJobDTO job = assignmentJobService.submit(null, SolverLimits.unlimited(), true);
+
+        assertThat(job.isIncremental()).isTrue();
+        assertThat(assignmentJobService.getResult(job.getId())).contains(result);
+        verify(guestAssignmentService, never()).solve(any(), any(), any());
+    }
+
+    @Test
+    void eventJobOnlySolvesThatEvent() {
+        when(guestAssignmentService.solve(eq(7L), any(), any())).thenReturn(new AssignmentResultDTO());
+
+        AssignmentJobDTO job = assignmentJobService.submit(7L, SolverLimits.unlimited(), false);
+
+        assertThat(job.getEventId()).isEqualTo(7L);
+        assertThat(assignmentJobService.getStatus(job.getId())).map(AssignmentJobDTO::getStatus).contains(AssignmentJobDTO.Status.COMPLETED);
+        verify(guestAssignmentService).solve(eq(7L), any(), any());
+    }
+}
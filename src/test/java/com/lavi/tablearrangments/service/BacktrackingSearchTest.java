@@ -0,0 +1,103 @@
+package com.lavi.tablearrangments.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.lavi.tablearrangments.domain.Guest;
+import com.lavi.tablearrangments.domain.GuestGroup;
+import com.lavi.tablearrangments.domain.SeatingTable;
+import com.lavi.tablearrangments.domain.enumeration.GuestRelation;
+import com.lavi.tablearrangments.service.dto.AssignmentResultDTO.Termination;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import org.junit.jupiter.api.Test;
+
+class BacktrackingSearchTest {
+
+    private static GuestGroup group(long id, int seats, GuestRelation relation) {
+        Guest guest = new Guest().id(id).lastNameAndFirstName("Guest " + id).numberOfSeats(seats).relation(relation).accessibility(false);
+        return new GuestGroup(List.of(guest));
+    }
+
+    private static SeatingProblem problem() {
+        List<GuestGroup> groups = List.of(
+            group(1L, 3, GuestRelation.GROOM_FAMILY),
+            group(2L, 1, GuestRelation.GROOM_FAMILY),
+            group(3L, 2, GuestRelation.BRIDE_FAMILY),
+            group(4L, 2, GuestRelation.BRIDE_FAMILY)
+        );
+        List<SeatingTable> tables = new ArrayList<>();
+        for (long id = 1; id <= 4; id++) {
+            tables.add(new SeatingTable().id(id).tableNumber((int) id).maxSeats(4).accessibility(false).nearStage(false));
+        }
+        return new SeatingProblem(groups, tables);
+    }
+
+    @Test
+    void singleWorkerFindsMinimalOpenTables() {
+        SeatingProblem problem = problem();
+        Incumbent incumbent = new Incumbent();
+        SearchBudget budget = SolverLimits.unlimited().start();
+        SolverProgress progress = new SolverProgress();
+
+        new BacktrackingSearch(problem, SearchStrategy.DEFAULT, new PenaltyCalculator(), incumbent, budget, progress).run();
+
+        assertThat(incumbent.get().complete()).isTrue();
+        assertThat(incumbent.get().assignment()).hasSize(4);
+        assertThat(incumbent.getOpenTables()).isEqualTo(2);
+        assertThat(budget.getTermination()).isEqualTo(Termination.COMPLETED);
+        assertThat(progress.getNodes()).isPositive();
+    }
+
+    @Test
+    void portfolioWorkersShareTheIncumbent() {
+        SeatingProblem problem = problem();
+        Incumbent incumbent = new Incumbent();
+        SearchBudget budget = SolverLimits.unlimited().start();
+        SolverProgress progress = new SolverProgress();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<ForkJoinTask<?>> workers = SearchStrategy.portfolio(6)
+                .stream()
+                .<ForkJoinTask<?>>map(strategy ->
+                    pool.submit(() -> new BacktrackingSearch(problem, strategy, new PenaltyCalculator(), incumbent, budget, progress).run())
+                )
+                .toList();
+            workers.forEach(ForkJoinTask::join);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(incumbent.getOpenTables()).isEqualTo(2);
+        assertThat(budget.isExhausted()).isFalse();
+        assertThat(progress.snapshot().getBestOpenTables()).isEqualTo(2);
+    }
+
+    @Test
+    void subtreeSplitSearchMatchesSequentialResult() {
+        SeatingProblem problem = problem();
+        Incumbent incumbent = new Incumbent();
+        SearchBudget budget = SolverLimits.unlimited().start();
+        SolverProgress progress = new SolverProgress();
+        BacktrackingSearch root = new BacktrackingSearch(
+            problem,
+            SearchStrategy.DEFAULT,
+            new PenaltyCalculator(),
+            incumbent,
+            budget,
+            progress,
+            2
+        );
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            pool.submit(root::run).join();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(incumbent.get().complete()).isTrue();
+        assertThat(incumbent.getOpenTables()).isEqualTo(2);
+        assertThat(budget.getTermination()).isEqualTo(Termination.COMPLETED);
+    }
+}
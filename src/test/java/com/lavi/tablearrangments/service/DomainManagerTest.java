@@ -0,0 +1,124 @@
+package com.lavi.tablearrangments.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.lavi.tablearrangments.domain.Guest;
+import com.lavi.tablearrangments.domain.GuestGroup;
+import com.lavi.tablearrangments.domain.SeatingTable;
+import com.lavi.tablearrangments.domain.enumeration.GuestRelation;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class DomainManagerTest {
+
+    private static GuestGroup group(long id, int seats, boolean accessibility) {
+        Guest guest = new Guest()
+            .id(id)
+            .lastNameAndFirstName("Guest " + id)
+            .numberOfSeats(seats)
+            .relation(GuestRelation.GROOM_FAMILY)
+            .accessibility(accessibility);
+        return new GuestGroup(List.of(guest));
+    }
+
+    private static SeatingTable table(long id, int maxSeats, boolean accessibility) {
+        return new SeatingTable().id(id).tableNumber((int) id).maxSeats(maxSeats).accessibility(accessibility);
+    }
+
+    @Test
+    void initialDomainsFollowCapacity() {
+        GuestGroup small = group(1L, 2, false);
+        GuestGroup large = group(2L, 6, false);
+        SeatingTable t1 = table(1L, 4, false);
+        SeatingTable t2 = table(2L, 8, false);
+
+        DomainManager domainManager = new DomainManager(List.of(small, large), List.of(t1, t2));
+
+        assertThat(domainManager.getDomain(small)).containsExactly(t1, t2);
+        assertThat(domainManager.getDomain(large)).containsExactly(t2);
+        assertThat(domainManager.getDomainSize(large)).isEqualTo(1);
+    }
+
+    @Test
+    void ac3RemovesInaccessibleTablesAndUndoRestoresThem() {
+        GuestGroup needsAccess = group(1L, 2, true);
+        GuestGroup other = group(2L, 2, false);
+        SeatingTable accessible = table(1L, 4, true);
+        SeatingTable regular = table(2L, 4, false);
+
+        DomainManager domainManager = new DomainManager(List.of(needsAccess, other), List.of(accessible, regular));
+        int mark = domainManager.mark();
+
+        assertThat(domainManager.applyAC3()).isTrue();
+        assertThat(domainManager.getDomain(needsAccess)).containsExactly(accessible);
+        assertThat(domainManager.getDomain(other)).containsExactly(accessible, regular);
+
+        domainManager.removeTableFromAllDomains(regular);
+        assertThat(domainManager.countOtherGroupsWithTable(accessible, needsAccess)).isEqualTo(1);
+        assertThat(domainManager.getDomain(other)).containsExactly(accessible);
+
+        domainManager.undoTo(mark);
+        assertThat(domainManager.getDomain(needsAccess)).containsExactly(accessible, regular);
+        assertThat(domainManager.getDomain(other)).containsExactly(accessible, regular);
+    }
+
+    @Test
+    void ac3KeepsSharedTableOnlyWhenBothGroupsFit() {
+        GuestGroup g1 = group(1L, 3, false);
+        GuestGroup g2 = group(2L, 3, false);
+        SeatingTable onlyTable = table(1L, 4, false);
+
+        DomainManager domainManager = new DomainManager(List.of(g1, g2), List.of(onlyTable));
+
+        // Both groups need the single table but cannot share it: wipeout resets to the initial domains
+        assertThat(domainManager.applyAC3()).isFalse();
+        assertThat(domainManager.getDomain(g1)).containsExactly(onlyTable);
+        assertThat(domainManager.getDomain(g2)).containsExactly(onlyTable);
+    }
+
+    @Test
+    void copyIsIndependentOfTheOriginal() {
+        GuestGroup g1 = group(1L, 2, false);
+        GuestGroup g2 = group(2L, 2, false);
+        SeatingTable t1 = table(1L, 4, false);
+        SeatingTable t2 = table(2L, 4, false);
+
+        DomainManager original = new DomainManager(List.of(g1, g2), List.of(t1, t2));
+        original.removeTableFromAllDomains(t1);
+        DomainManager copy = new DomainManager(original);
+        copy.removeTableFromAllDomains(t2);
+
+        assertThat(original.getDomain(g1)).containsExactly(t2);
+        assertThat(copy.isDomainEmpty(g1)).isTrue();
+        copy.undoTo(0);
+        assertThat(copy.getDomain(g1)).containsExactly(t2);
+    }
+
+    @Test
+    void ac3PropagatesSingleTablesAlongInteractingGroupsAndAgainAfterUndo() {
+        GuestGroup a = group(1L, 3, false);
+        GuestGroup b = group(2L, 3, false);
+        GuestGroup c = group(3L, 3, false);
+        GuestGroup single = group(4L, 1, false);
+        SeatingTable t1 = table(1L, 4, false);
+        SeatingTable t2 = table(2L, 4, false);
+        SeatingTable t3 = table(3L, 4, false);
+
+        DomainManager domainManager = new DomainManager(List.of(a, b, c, single), List.of(t1, t2, t3));
+        assertThat(domainManager.applyAC3()).isTrue();
+        domainManager.retainTables(b, new long[] { 0b011L });
+        int mark = domainManager.mark();
+        domainManager.retainTables(a, new long[] { 0b001L });
+
+        // a only has t1, so b is left with t2, which c then loses; the one-seat group fits next to any of them
+        assertThat(domainManager.applyAC3()).isTrue();
+        assertThat(domainManager.getDomain(b)).containsExactly(t2);
+        assertThat(domainManager.getDomain(c)).containsExactly(t3);
+        assertThat(domainManager.getDomain(single)).containsExactly(t1, t2, t3);
+
+        domainManager.undoTo(mark);
+        assertThat(domainManager.applyAC3()).isTrue();
+        assertThat(domainManager.getDomain(b)).containsExactly(t1, t2);
+        assertThat(domainManager.getDomain(c)).containsExactly(t1, t2, t3);
+    }
+}
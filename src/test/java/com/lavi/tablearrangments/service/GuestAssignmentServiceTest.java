@@ -0,0 +1,522 @@
+package com.lavi.tablearrangments.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.lavi.tablearrangments.config.ApplicationProperties;
+import com.lavi.tablearrangments.domain.Guest;
+import com.lavi.tablearrangments.domain.SeatingTable;
+import com.lavi.tablearrangments.domain.enumeration.GuestRelation;
+import com.lavi.tablearrangments.domain.enumeration.GuestSide;
+import com.lavi.tablearrangments.domain.enumeration.GuestStatus;
+import com.lavi.tablearrangments.repository.GuestLink;
+import com.lavi.tablearrangments.repository.GuestRepository;
+import com.lavi.tablearrangments.repository.GuestSolverRow;
+import com.lavi.tablearrangments.repository.SeatingTableRepository;
+import com.lavi.tablearrangments.security.SecurityUtils;
+import com.lavi.tablearrangments.service.dto.AssignmentResultDTO;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Test class for the {@link GuestAssignmentService}, with mocked repositories returning a different event per user.
+ */
+class GuestAssignmentServiceTest {
+
+    private static final int USERS = 8;
+
+    private final Map<String, UserData> data = new HashMap<>();
+
+    private final Set<Long> writtenGuestIds = ConcurrentHashMap.newKeySet();
+
+    private GuestRepository guestRepository;
+
+    private GuestAssignmentService guestAssignmentService;
+
+    private record UserData(List<Guest> guests, List<SeatingTable> tables) {}
+
+    @BeforeEach
+    void setUp() {
+        for (int u = 0; u < USERS; u++) {
+            data.put("planner" + u, userData(u));
+        }
+        guestRepository = mock(GuestRepository.class);
+        SeatingTableRepository seatingTableRepository = mock(SeatingTableRepository.class);
+        when(guestRepository.findSolverRowsByEventUserIsCurrentUser()).thenAnswer(invocation ->
+            currentUserData().guests().stream().map(GuestAssignmentServiceTest::row).toList()
+        );
+        when(guestRepository.findAvoidLinksByEventUserIsCurrentUser()).thenAnswer(invocation ->
+            links(currentUserData().guests(), Guest::getAvoidGuests)
+        );
+        when(guestRepository.findPreferLinksByEventUserIsCurrentUser()).thenAnswer(invocation ->
+            links(currentUserData().guests(), Guest::getPreferGuests)
+        );
+        when(seatingTableRepository.findByUserIsCurrentUser()).thenAnswer(invocation -> currentUserData().tables());
+        when(guestRepository.findSolverRowsByEventIdAndEventUserIsCurrentUser(any())).thenAnswer(invocation ->
+            currentEventGuests(invocation.getArgument(0)).stream().map(GuestAssignmentServiceTest::row).toList()
+        );
+        when(guestRepository.findAvoidLinksByEventIdAndEventUserIsCurrentUser(any())).thenAnswer(invocation ->
+            links(currentEventGuests(invocation.getArgument(0)), Guest::getAvoidGuests)
+        );
+        when(guestRepository.findPreferLinksByEventIdAndEventUserIsCurrentUser(any())).thenAnswer(invocation ->
+            links(currentEventGuests(invocation.getArgument(0)), Guest::getPreferGuests)
+        );
+        when(seatingTableRepository.findByEventIdAndUserIsCurrentUser(any())).thenAnswer(invocation ->
+            currentEventId().equals(invocation.getArgument(0)) ? currentUserData().tables() : List.of()
+        );
+        when(guestRepository.clearTables(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            writtenGuestIds.addAll(ids);
+            currentUserData().guests().stream().filter(g -> ids.contains(g.getId())).forEach(g -> g.setTable(null));
+            return ids.size();
+        });
+        when(guestRepository.assignTable(any(), any(), any())).thenAnswer(invocation -> {
+            SeatingTable table = invocation.getArgument(0);
+            Collection<Long> ids = invocation.getArgument(2);
+            writtenGuestIds.addAll(ids);
+            currentUserData().guests().stream().filter(g -> ids.contains(g.getId())).forEach(g -> g.setTable(table));
+            return ids.size();
+        });
+        guestAssignmentService = new GuestAssignmentService(
+            guestRepository,
+            seatingTableRepository,
+            mock(PlatformTransactionManager.class),
+            new ApplicationProperties(),
+            new PenaltyCalculator(),
+            new WeightedScoringModel(),
+            new ConcurrentMapCacheManager()
+        );
+    }
+
+    @AfterEach
+    void cleanup() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private UserData currentUserData() {
+        return data.get(SecurityUtils.getCurrentUserLogin().orElseThrow());
+    }
+
+    /**
+     * Each user owns a single event, whose id is the user's number.
+     */
+    private static Long currentEventId() {
+        return Long.valueOf(SecurityUtils.getCurrentUserLogin().orElseThrow().substring("planner".length()));
+    }
+
+    private List<Guest> currentEventGuests(Long eventId) {
+        return currentEventId().equals(eventId) ? currentUserData().guests() : List.of();
+    }
+
+    private static GuestSolverRow row(Guest guest) {
+        return new GuestSolverRow(
+            guest.getId(),
+            guest.getLastNameAndFirstName(),
+            guest.getNumberOfSeats(),
+            guest.getNearStage(),
+            guest.getStatus(),
+            guest.getSide(),
+            guest.getRelation(),
+            guest.getAccessibility(),
+            null,
+            guest.getTable() == null ? null : guest.getTable().getId()
+        );
+    }
+
+    private static List<GuestLink> links(List<Guest> guests, Function<Guest, Set<Guest>> relation) {
+        return guests.stream().flatMap(g -> relation.apply(g).stream().map(other -> new GuestLink(g.getId(), other.getId()))).toList();
+    }
+
+    private static UserData userData(int user) {
+        List<SeatingTable> tables = new ArrayList<>();
+        for (int t = 1; t <= 4; t++) {
+            tables.add(
+                new SeatingTable()
+                    .id(user * 100L + t)
+                    .tableNumber(t)
+                    .maxSeats(4)
+                    .accessibility(false)
+                    .nearStage(false)
+            );
+        }
+        List<Guest> guests = new ArrayList<>();
+        long id = user * 100L;
+        for (int i = 0; i < 3 + user % 3; i++) {
+            guests.add(guest(++id, 1, GuestRelation.GROOM_FAMILY, GuestSide.GROOM));
+        }
+        for (int i = 0; i < 2; i++) {
+            guests.add(guest(++id, 2, GuestRelation.BRIDE_FAMILY, GuestSide.BRIDE));
+        }
+        return new UserData(guests, tables);
+    }
+
+    private static Guest guest(long id, int seats, GuestRelation relation, GuestSide side) {
+        return new Guest()
+            .id(id)
+            .lastNameAndFirstName("Guest " + id)
+            .numberOfSeats(seats)
+            .relation(relation)
+            .side(side)
+            .status(GuestStatus.CONFIRMED)
+            .accessibility(false)
+            .nearStage(false);
+    }
+
+    private static void login(String login) {
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(new UsernamePasswordAuthenticationToken(login, login));
+        SecurityContextHolder.setContext(securityContext);
+    }
+
+    private AssignmentResultDTO solveAs(String login) {
+        return solveAs(login, SolverLimits.unlimited());
+    }
+
+    private AssignmentResultDTO solveAs(String login, SolverLimits limits) {
+        login(login);
+        try {
+            return guestAssignmentService.solve(new SolverProgress(), limits);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private AssignmentResultDTO solveIncrementalAs(String login) {
+        login(login);
+        try {
+            return guestAssignmentService.solveIncremental(new SolverProgress(), SolverLimits.unlimited());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    /**
+     * The table seating the most guests, which seats at least two after a full solve of any user.
+     */
+    private static SeatingTable fullestTable(UserData user) {
+        Map<SeatingTable, Long> guestCounts = user
+            .guests()
+            .stream()
+            .filter(g -> g.getTable() != null)
+            .collect(Collectors.groupingBy(Guest::getTable, Collectors.counting()));
+        SeatingTable fullest = guestCounts.entrySet().stream().max(Map.Entry.comparingByValue()).orElseThrow().getKey();
+        assertThat(guestCounts.get(fullest)).isGreaterThanOrEqualTo(2);
+        return fullest;
+    }
+
+    private static Set<Long> guestIdsAt(Map<Long, SeatingTable> tablesByGuestId, SeatingTable table) {
+        return tablesByGuestId.entrySet().stream().filter(e -> e.getValue() == table).map(Map.Entry::getKey).collect(Collectors.toSet());
+    }
+
+    private static Map<Long, SeatingTable> tablesByGuestId(UserData user) {
+        return user.guests().stream().filter(g -> g.getTable() != null).collect(Collectors.toMap(Guest::getId, Guest::getTable));
+    }
+
+    @Test
+    void solveSeatsEveryGuestOnTheUsersOwnTables() {
+        AssignmentResultDTO result = solveAs("planner1");
+
+        UserData user = data.get("planner1");
+        Set<Long> tableIds = user.tables().stream().map(SeatingTable::getId).collect(Collectors.toSet());
+        assertThat(result.getUnassignedGroups()).isZero();
+        assertThat(result.isOptimal()).isTrue();
+        assertThat(result.getGuestTableIds()).hasSize(user.guests().size());
+        assertThat(tableIds).containsAll(result.getGuestTableIds().values());
+        assertThat(user.guests()).allSatisfy(g -> assertThat(g.getTable()).isNotNull());
+    }
+
+    @Test
+    void solveLoadsAvoidanceLinksAsIdPairs() {
+        UserData user = data.get("planner3");
+        Guest first = user.guests().get(0);
+        Guest second = user.guests().get(1);
+        first.getAvoidGuests().add(second);
+
+        AssignmentResultDTO result = solveAs("planner3");
+
+        assertThat(result.getUnassignedGroups()).isZero();
+        assertThat(result.getGuestTableIds().get(first.getId())).isNotEqualTo(result.getGuestTableIds().get(second.getId()));
+    }
+
+    @Test
+    void concurrentSolvesDoNotInterfere() throws Exception {
+        Map<String, Map<Long, Long>> expected = new HashMap<>();
+        for (String login : data.keySet()) {
+            expected.put(login, new HashMap<>(solveAs(login).getGuestTableIds()));
+        }
+
+        int rounds = 3;
+        ExecutorService executor = Executors.newFixedThreadPool(USERS);
+        CountDownLatch start = new CountDownLatch(1);
+        Map<String, List<Future<AssignmentResultDTO>>> futures = new HashMap<>();
+        try {
+            for (String login : data.keySet()) {
+                for (int round = 0; round < rounds; round++) {
+                    futures
+                        .computeIfAbsent(login, key -> new ArrayList<>())
+                        .add(
+                            executor.submit(() -> {
+                                start.await();
+                                return solveAs(login);
+                            })
+                        );
+                }
+            }
+            start.countDown();
+            for (Map.Entry<String, List<Future<AssignmentResultDTO>>> entry : futures.entrySet()) {
+                for (Future<AssignmentResultDTO> future : entry.getValue()) {
+                    AssignmentResultDTO result = future.get(60, TimeUnit.SECONDS);
+                    assertThat(result.getGuestTableIds()).isEqualTo(expected.get(entry.getKey()));
+                    assertThat(result.getUnassignedGroups()).isZero();
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (UserData user : data.values()) {
+            Set<Long> ownTables = user.tables().stream().map(SeatingTable::getId).collect(Collectors.toSet());
+            assertThat(user.guests()).allSatisfy(g -> assertThat(ownTables).contains(g.getTable().getId()));
+        }
+    }
+
+    @Test
+    void incrementalSolveOnlyWritesANewlyConfirmedGuest() {
+        solveAs("planner2");
+        UserData user = data.get("planner2");
+        Map<Long, SeatingTable> before = tablesByGuestId(user);
+        Guest newcomer = guest(299L, 1, GuestRelation.GROOM_FAMILY, GuestSide.GROOM);
+        user.guests().add(newcomer);
+        writtenGuestIds.clear();
+
+        AssignmentResultDTO result = solveIncrementalAs("planner2");
+
+        assertThat(result.getUnassignedGroups()).isZero();
+        assertThat(result.getUpdatedGuests()).isEqualTo(1);
+        assertThat(writtenGuestIds).containsExactly(299L);
+        assertThat(newcomer.getTable()).isNotNull();
+        assertThat(tablesByGuestId(user)).containsAllEntriesOf(before);
+    }
+
+    @Test
+    void incrementalSolveOnlyMovesTheGuestsOfARemovedTable() {
+        solveAs("planner2");
+        UserData user = data.get("planner2");
+        SeatingTable removed = user.guests().get(0).getTable();
+        Map<Long, SeatingTable> before = tablesByGuestId(user);
+        Set<Long> displaced = before.entrySet().stream().filter(e -> e.getValue() == removed).map(Map.Entry::getKey).collect(Collectors.toSet());
+        user.tables().remove(removed);
+        writtenGuestIds.clear();
+
+        AssignmentResultDTO result = solveIncrementalAs("planner2");
+
+        assertThat(result.getUnassignedGroups()).isZero();
+        assertThat(writtenGuestIds).isNotEmpty();
+        assertThat(displaced).containsAll(writtenGuestIds);
+        assertThat(user.guests()).allSatisfy(g -> assertThat(user.tables()).contains(g.getTable()));
+        before.forEach((guestId, table) -> {
+            if (!displaced.contains(guestId)) {
+                assertThat(result.getGuestTableIds()).containsEntry(guestId, table.getId());
+            }
+        });
+    }
+
+    @Test
+    void incrementalSolveOnlyMovesTheGuestsOfATableWhoseSeatsDropped() {
+        solveAs("planner2");
+        UserData user = data.get("planner2");
+        Map<Long, SeatingTable> before = tablesByGuestId(user);
+        SeatingTable shrunk = fullestTable(user);
+        Set<Long> seatedThere = guestIdsAt(before, shrunk);
+        int occupancy = user.guests().stream().filter(g -> g.getTable() == shrunk).mapToInt(Guest::getNumberOfSeats).sum();
+        shrunk.setMaxSeats(occupancy - 1);
+        writtenGuestIds.clear();
+
+        AssignmentResultDTO result = solveIncrementalAs("planner2");
+
+        assertThat(result.getUnassignedGroups()).isZero();
+        assertThat(writtenGuestIds).isNotEmpty();
+        assertThat(seatedThere).containsAll(writtenGuestIds);
+        int seatsLeft = user.guests().stream().filter(g -> g.getTable() == shrunk).mapToInt(Guest::getNumberOfSeats).sum();
+        assertThat(seatsLeft).isLessThanOrEqualTo(shrunk.getMaxSeats());
+        before.forEach((guestId, table) -> {
+            if (!writtenGuestIds.contains(guestId)) {
+                assertThat(result.getGuestTableIds()).containsEntry(guestId, table.getId());
+            }
+        });
+    }
+
+    @Test
+    void incrementalSolveOnlyMovesTheGuestsOfANewAvoidanceBetweenTableMates() {
+        solveAs("planner2");
+        UserData user = data.get("planner2");
+        Map<Long, SeatingTable> before = tablesByGuestId(user);
+        SeatingTable shared = fullestTable(user);
+        List<Guest> tableMates = user.guests().stream().filter(g -> g.getTable() == shared).toList();
+        Guest first = tableMates.get(0);
+        Guest second = tableMates.get(1);
+        first.getAvoidGuests().add(second);
+        writtenGuestIds.clear();
+
+        AssignmentResultDTO result = solveIncrementalAs("planner2");
+
+        assertThat(result.getUnassignedGroups()).isZero();
+        assertThat(writtenGuestIds).isNotEmpty();
+        assertThat(guestIdsAt(before, shared)).containsAll(writtenGuestIds);
+        assertThat(first.getTable()).isNotSameAs(second.getTable());
+        before.forEach((guestId, table) -> {
+            if (!writtenGuestIds.contains(guestId)) {
+                assertThat(result.getGuestTableIds()).containsEntry(guestId, table.getId());
+            }
+        });
+    }
+
+    @Test
+    void eventSolveOnlyLoadsTheRowsOfThatEvent() {
+        login("planner3");
+        AssignmentResultDTO result;
+        try {
+            result = guestAssignmentService.solve(3L, new SolverProgress(), SolverLimits.unlimited());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        UserData user = data.get("planner3");
+        assertThat(result.getUnassignedGroups()).isZero();
+        assertThat(result.getGuestTableIds()).hasSize(user.guests().size());
+        assertThat(user.guests()).allSatisfy(g -> assertThat(g.getTable()).isNotNull());
+        verify(guestRepository).findSolverRowsByEventIdAndEventUserIsCurrentUser(3L);
+        verify(guestRepository, never()).findSolverRowsByEventUserIsCurrentUser();
+        verify(guestRepository, never()).findAvoidLinksByEventUserIsCurrentUser();
+    }
+
+    @Test
+    void repeatedSolveOfAnUnchangedProblemReusesTheCachedResult() {
+        AssignmentResultDTO first = solveAs("planner4");
+        writtenGuestIds.clear();
+
+        AssignmentResultDTO second = solveAs("planner4");
+
+        assertThat(first.isCached()).isFalse();
+        assertThat(second.isCached()).isTrue();
+        assertThat(second.getGuestTableIds()).isEqualTo(first.getGuestTableIds());
+        assertThat(second.getUpdatedGuests()).isZero();
+        assertThat(writtenGuestIds).isEmpty();
+    }
+
+    @Test
+    void revertingAChangeReusesTheCachedResultOfTheOriginalProblem() {
+        AssignmentResultDTO first = solveAs("planner4");
+        UserData user = data.get("planner4");
+        Guest guest = user.guests().get(0);
+        guest.setNumberOfSeats(2);
+
+        assertThat(solveAs("planner4").isCached()).isFalse();
+
+        guest.setNumberOfSeats(1);
+        AssignmentResultDTO reverted = solveAs("planner4");
+
+        assertThat(reverted.isCached()).isTrue();
+        assertThat(reverted.getGuestTableIds()).isEqualTo(first.getGuestTableIds());
+        tablesByGuestId(user).forEach((guestId, table) -> assertThat(first.getGuestTableIds()).containsEntry(guestId, table.getId()));
+    }
+
+    @Test
+    void completedSolveIsReusedUnderADifferentBudget() {
+        AssignmentResultDTO first = solveAs("planner5", SolverLimits.of(Duration.ofMinutes(1), 0L));
+
+        AssignmentResultDTO second = solveAs("planner5", SolverLimits.of(Duration.ofMinutes(2), 1_000_000L));
+
+        assertThat(first.getTermination()).isEqualTo(AssignmentResultDTO.Termination.COMPLETED);
+        assertThat(second.isCached()).isTrue();
+        assertThat(second.getGuestTableIds()).isEqualTo(first.getGuestTableIds());
+    }
+
+    @Test
+    void solveCutOffByItsBudgetIsNotReused() {
+        SolverLimits limits = SolverLimits.of(Duration.ofMinutes(1), 1L);
+        AssignmentResultDTO first = solveAs("planner5", limits);
+
+        AssignmentResultDTO second = solveAs("planner5", limits);
+
+        assertThat(first.getTermination()).isEqualTo(AssignmentResultDTO.Termination.NODE_LIMIT);
+        assertThat(second.isCached()).isFalse();
+        assertThat(second.getTermination()).isEqualTo(AssignmentResultDTO.Termination.NODE_LIMIT);
+    }
+
+    @Test
+    void cancellationIsRefusedOnceTheWriteHasStarted() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            Collection<Long> ids = invocation.getArgument(0);
+            writtenGuestIds.addAll(ids);
+            return ids.size();
+        })
+            .when(guestRepository)
+            .clearTables(any());
+        SolverProgress progress = new SolverProgress();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<AssignmentResultDTO> solve = executor.submit(() -> {
+                login("planner6");
+                try {
+                    return guestAssignmentService.solve(progress, SolverLimits.unlimited());
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            });
+            assertThat(writing.await(30, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(progress.cancel()).isFalse();
+            release.countDown();
+
+            assertThat(solve.get(30, TimeUnit.SECONDS).getUnassignedGroups()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(writtenGuestIds).isNotEmpty();
+    }
+
+    @Test
+    void solveCancelledBeforeTheWriteWritesNothing() {
+        SolverProgress progress = new SolverProgress();
+        assertThat(progress.cancel()).isTrue();
+        login("planner6");
+
+        assertThatThrownBy(() -> guestAssignmentService.solve(progress, SolverLimits.unlimited())).isInstanceOf(
+            CancellationException.class
+        );
+        assertThat(writtenGuestIds).isEmpty();
+    }
+}
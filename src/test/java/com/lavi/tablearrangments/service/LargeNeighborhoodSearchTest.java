@@ -0,0 +1,137 @@
+package com.lavi.tablearrangments.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.lavi.tablearrangments.domain.Guest;
+import com.lavi.tablearrangments.domain.GuestGroup;
+import com.lavi.tablearrangments.domain.SeatingTable;
+import com.lavi.tablearrangments.domain.enumeration.GuestRelation;
+import com.lavi.tablearrangments.domain.enumeration.GuestSide;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class LargeNeighborhoodSearchTest {
+
+    private static final GuestRelation[] RELATIONS = GuestRelation.values();
+
+    /**
+     * 30 groups of one to four seats, 75 seats in all, with every fifth group avoiding the next one, and 16 tables of 10 seats.
+     */
+    private static SeatingProblem problem() {
+        List<GuestGroup> groups = new ArrayList<>();
+        Guest previous = null;
+        for (int i = 0; i < 30; i++) {
+            Guest guest = new Guest()
+                .id((long) i)
+                .lastNameAndFirstName("Guest " + i)
+                .numberOfSeats(1 + (i % 4))
+                .relation(RELATIONS[i % 6])
+                .side(i % 2 == 0 ? GuestSide.GROOM : GuestSide.BRIDE)
+                .accessibility(false);
+            if (previous != null && i % 5 == 1) {
+                previous.getAvoidGuests().add(guest);
+            }
+            groups.add(new GuestGroup(List.of(guest)));
+            previous = guest;
+        }
+        List<SeatingTable> tables = new ArrayList<>();
+        for (long id = 1; id <= 16; id++) {
+            tables.add(new SeatingTable().id(id).tableNumber((int) id).maxSeats(10).accessibility(false).nearStage(false));
+        }
+        return new SeatingProblem(groups, tables);
+    }
+
+    @Test
+    void seatsEveryGroupAtTheMinimalNumberOfTablesWithoutConflicts() {
+        SeatingProblem problem = problem();
+        Incumbent incumbent = new Incumbent();
+        SearchBudget budget = SolverLimits.of(Duration.ofSeconds(2), 0L).start();
+        SolverProgress progress = new SolverProgress();
+        LargeNeighborhoodSearch lns = new LargeNeighborhoodSearch(problem, new PenaltyCalculator(), incumbent, budget, progress, 6, 0L);
+
+        lns.run();
+
+        Incumbent.Solution best = incumbent.get();
+        assertThat(best.complete()).isTrue();
+        assertThat(best.assignment()).hasSize(30);
+        assertThat(best.openTables()).isEqualTo(8);
+        assertThat(budget.isProven()).isFalse();
+        assertThat(lns.getSteps()).isPositive();
+        assertThat(progress.getNodes()).isPositive();
+
+        Map<GuestGroup, SeatingTable> assignment = best.assignment();
+        List<GuestGroup> groups = problem.getGroups();
+        for (int g = 0; g + 1 < groups.size(); g++) {
+            if (g % 5 == 0) {
+                assertThat(assignment.get(groups.get(g))).isNotSameAs(assignment.get(groups.get(g + 1)));
+            }
+        }
+        for (SeatingTable table : problem.getTables()) {
+            int seats = assignment.entrySet().stream().filter(e -> e.getValue() == table).mapToInt(e -> e.getKey().getTotalSeats()).sum();
+            assertThat(seats).isLessThanOrEqualTo(table.getMaxSeats());
+        }
+    }
+
+    @Test
+    void incrementalRunRepairsAroundAGroupThatOnlyFitsAfterAMove() {
+        List<GuestGroup> groups = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            Guest guest = new Guest()
+                .id(id)
+                .lastNameAndFirstName("Guest " + id)
+                .numberOfSeats(id == 3 ? 4 : 2)
+                .relation(GuestRelation.GROOM_FRIENDS)
+                .accessibility(false);
+            groups.add(new GuestGroup(List.of(guest)));
+        }
+        List<SeatingTable> tables = new ArrayList<>();
+        for (long id = 1; id <= 2; id++) {
+            tables.add(new SeatingTable().id(id).tableNumber((int) id).maxSeats(4).accessibility(false).nearStage(false));
+        }
+        SeatingProblem problem = new SeatingProblem(groups, tables);
+        Incumbent incumbent = new Incumbent();
+        LargeNeighborhoodSearch lns = new LargeNeighborhoodSearch(
+            problem,
+            new PenaltyCalculator(),
+            incumbent,
+            SolverLimits.unlimited().start(),
+            new SolverProgress(),
+            2,
+            0L
+        );
+
+        lns.runIncremental(Map.of(groups.get(0), tables.get(0), groups.get(1), tables.get(1)));
+
+        Map<GuestGroup, SeatingTable> assignment = incumbent.get().assignment();
+        assertThat(incumbent.get().complete()).isTrue();
+        assertThat(assignment.get(groups.get(0))).isSameAs(assignment.get(groups.get(1)));
+        assertThat(assignment.get(groups.get(2))).isNotSameAs(assignment.get(groups.get(0)));
+        assertThat(lns.getKeptSteps()).isPositive();
+    }
+
+    @Test
+    void neverSeatsAGroupNeedingAccessibilityAtAnInaccessibleTable() {
+        Guest guest = new Guest().id(1L).lastNameAndFirstName("Guest 1").numberOfSeats(2).relation(GuestRelation.BRIDE_FAMILY);
+        GuestGroup group = new GuestGroup(List.of(guest.accessibility(true)));
+        SeatingTable table = new SeatingTable().id(1L).tableNumber(1).maxSeats(10).accessibility(false).nearStage(false);
+        SeatingProblem problem = new SeatingProblem(List.of(group), List.of(table));
+        Incumbent incumbent = new Incumbent();
+        LargeNeighborhoodSearch lns = new LargeNeighborhoodSearch(
+            problem,
+            new PenaltyCalculator(),
+            incumbent,
+            SolverLimits.of(Duration.ofSeconds(1), 0L).start(),
+            new SolverProgress(),
+            2,
+            0L
+        );
+
+        lns.runIncremental(Map.of(group, table));
+
+        assertThat(incumbent.get().complete()).isFalse();
+        assertThat(incumbent.get().assignment()).doesNotContainKey(group);
+    }
+}
@@ -0,0 +1,99 @@
+package com.lavi.tablearrangments.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.lavi.tablearrangments.domain.Guest;
+import com.lavi.tablearrangments.domain.GuestGroup;
+import com.lavi.tablearrangments.domain.SeatingTable;
+import com.lavi.tablearrangments.domain.enumeration.GuestRelation;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class LocalSearchTest {
+
+    private static GuestGroup group(long id, GuestRelation relation) {
+        Guest guest = new Guest().id(id).lastNameAndFirstName("Guest " + id).numberOfSeats(2).relation(relation).accessibility(false);
+        return new GuestGroup(List.of(guest));
+    }
+
+    private static SeatingTable table(long id) {
+        return new SeatingTable().id(id).tableNumber((int) id).maxSeats(4).accessibility(false).nearStage(false);
+    }
+
+    /**
+     * Two tables seating one groom family and one bride family group each, where sorting by relation is better.
+     */
+    private static Incumbent.Solution mixedStart(SeatingProblem problem) {
+        List<GuestGroup> groups = problem.getGroups();
+        List<SeatingTable> tables = problem.getTables();
+        Map<GuestGroup, SeatingTable> assignment = Map.of(
+            groups.get(0),
+            tables.get(0),
+            groups.get(2),
+            tables.get(0),
+            groups.get(1),
+            tables.get(1),
+            groups.get(3),
+            tables.get(1)
+        );
+        return new Incumbent.Solution(assignment, 2, Long.MAX_VALUE / 4, true);
+    }
+
+    private static SeatingProblem problem(List<GuestGroup> groups) {
+        return new SeatingProblem(groups, List.of(table(1L), table(2L)));
+    }
+
+    private static List<GuestGroup> groups() {
+        return new ArrayList<>(
+            List.of(
+                group(1L, GuestRelation.GROOM_FAMILY),
+                group(2L, GuestRelation.GROOM_FAMILY),
+                group(3L, GuestRelation.BRIDE_FAMILY),
+                group(4L, GuestRelation.BRIDE_FAMILY)
+            )
+        );
+    }
+
+    @Test
+    void seatsSameRelationGroupsTogether() {
+        SeatingProblem problem = problem(groups());
+        LocalSearch localSearch = new LocalSearch(problem, new PenaltyCalculator(), SolverLimits.unlimited().start(), 0L);
+
+        Incumbent.Solution improved = localSearch.improve(mixedStart(problem), Duration.ofSeconds(5));
+
+        List<GuestGroup> groups = problem.getGroups();
+        assertThat(improved.complete()).isTrue();
+        assertThat(improved.openTables()).isEqualTo(2);
+        assertThat(improved.assignment().get(groups.get(0))).isSameAs(improved.assignment().get(groups.get(1)));
+        assertThat(improved.assignment().get(groups.get(2))).isSameAs(improved.assignment().get(groups.get(3)));
+        assertThat(localSearch.getAcceptedSteps()).isPositive();
+    }
+
+    @Test
+    void neverSeatsAvoidingGroupsTogether() {
+        List<GuestGroup> groups = groups();
+        groups.get(0).getGuests().get(0).getAvoidGuests().add(groups.get(1).getGuests().get(0));
+        SeatingProblem problem = problem(groups);
+        LocalSearch localSearch = new LocalSearch(problem, new PenaltyCalculator(), SolverLimits.unlimited().start(), 0L);
+
+        Incumbent.Solution improved = localSearch.improve(mixedStart(problem), Duration.ofSeconds(5));
+
+        assertThat(improved.assignment().get(groups.get(0))).isNotSameAs(improved.assignment().get(groups.get(1)));
+        assertThat(improved.assignment()).hasSize(4);
+    }
+
+    @Test
+    void keepsPartialAssignmentsAndZeroTime() {
+        SeatingProblem problem = problem(groups());
+        LocalSearch localSearch = new LocalSearch(problem, new PenaltyCalculator(), SolverLimits.unlimited().start(), 0L);
+        Incumbent.Solution start = mixedStart(problem);
+        Incumbent.Solution partial = new Incumbent.Solution(Map.of(problem.getGroups().get(0), problem.getTables().get(0)), 1, 0L, false);
+
+        assertThat(localSearch.improve(start, Duration.ZERO)).isSameAs(start);
+        assertThat(localSearch.improve(partial, Duration.ofSeconds(5))).isSameAs(partial);
+        assertThat(localSearch.getSteps()).isZero();
+    }
+}
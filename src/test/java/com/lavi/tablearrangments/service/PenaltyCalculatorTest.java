@@ -0,0 +1,75 @@
+package com.lavi.tablearrangments.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.lavi.tablearrangments.config.ApplicationProperties;
+import com.lavi.tablearrangments.domain.Guest;
+import com.lavi.tablearrangments.domain.GuestGroup;
+import com.lavi.tablearrangments.domain.SeatingTable;
+import com.lavi.tablearrangments.domain.enumeration.GuestRelation;
+import com.lavi.tablearrangments.domain.enumeration.GuestSide;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PenaltyCalculatorTest {
+
+    private static Guest guest(long id, int seats, GuestSide side, boolean nearStage) {
+        return new Guest()
+            .id(id)
+            .lastNameAndFirstName("Guest " + id)
+            .numberOfSeats(seats)
+            .relation(GuestRelation.GROOM_FRIENDS)
+            .side(side)
+            .nearStage(nearStage)
+            .accessibility(false);
+    }
+
+    /**
+     * A table with one seated groom friend, and a new groom friend wanting the stage and preferring the seated guest.
+     */
+    private static TableState seatNewcomer(int[] scoringCoefficients) {
+        Guest seated = guest(1L, 2, GuestSide.GROOM, false);
+        Guest newcomer = guest(2L, 1, GuestSide.GROOM, true);
+        newcomer.getPreferGuests().add(seated);
+        GuestGroup seatedGroup = new GuestGroup(List.of(seated));
+        GuestGroup newGroup = new GuestGroup(List.of(newcomer));
+        SeatingTable table = new SeatingTable().id(1L).tableNumber(1).maxSeats(6).nearStage(false).accessibility(false);
+        SeatingProblem problem = new SeatingProblem(List.of(seatedGroup, newGroup), List.of(table), scoringCoefficients);
+        TableState ts = new TableState(table, problem);
+        ts.assignGroup(seatedGroup);
+        return ts;
+    }
+
+    @Test
+    void combinesAllTermsAndReportsThemToTheSink() {
+        TableState ts = seatNewcomer(WeightedScoringModel.defaultCoefficients());
+
+        List<int[]> recorded = new ArrayList<>();
+        PenaltyCalculator calculator = new PenaltyCalculator((t, groupId, features, coefficients, total) -> {
+            recorded.add(features);
+            recorded.add(new int[] { total });
+        });
+
+        // near stage +200, one same-relation guest -250, one preferred guest -150, one same-side guest -50, 3 empty seats 27 x 10
+        int expected = 200 - 250 - 150 - 50 + 270;
+        assertThat(calculator.calculate(ts, 1)).isEqualTo(expected);
+        assertThat(recorded).containsExactly(new int[] { 1, 1, 1, 1, 27 }, new int[] { expected });
+        assertThat(new PenaltyCalculator().calculate(ts, 1)).isEqualTo(expected);
+    }
+
+    @Test
+    void appliesPerEventWeightsOverTheDefaults() {
+        ApplicationProperties.Solver.Scoring scoring = new ApplicationProperties.Solver.Scoring();
+        ApplicationProperties.Solver.ScoringWeights override = new ApplicationProperties.Solver.ScoringWeights();
+        override.setNearStagePenalty(0);
+        override.setEmptySeatFactor(1);
+        scoring.getEvents().put(7L, override);
+        WeightedScoringModel model = new WeightedScoringModel(scoring);
+
+        assertThat(model.compile(null)).containsExactly(200, -250, -150, -50, 10);
+        assertThat(model.compile(8L)).containsExactly(200, -250, -150, -50, 10);
+        assertThat(model.compile(7L)).containsExactly(0, -250, -150, -50, 1);
+        assertThat(new PenaltyCalculator().calculate(seatNewcomer(model.compile(7L)), 1)).isEqualTo(-250 - 150 - 50 + 27);
+    }
+}
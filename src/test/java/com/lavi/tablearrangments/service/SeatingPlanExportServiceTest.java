@@ -0,0 +1,77 @@
+package com.lavi.tablearrangments.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lavi.tablearrangments.domain.enumeration.GuestRelation;
+import com.lavi.tablearrangments.domain.enumeration.GuestSide;
+import com.lavi.tablearrangments.domain.enumeration.GuestStatus;
+import com.lavi.tablearrangments.repository.GuestRepository;
+import com.lavi.tablearrangments.repository.SeatingPlanRow;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link SeatingPlanExportService}.
+ */
+class SeatingPlanExportServiceTest {
+
+    private GuestRepository guestRepository;
+
+    private SeatingPlanExportService seatingPlanExportService;
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        guestRepository = mock(GuestRepository.class);
+        seatingPlanExportService = new SeatingPlanExportService(guestRepository, new ObjectMapper());
+        Stream<SeatingPlanRow> rows = Stream.of(
+            new SeatingPlanRow(1L, "Wedding", 10L, 1, 100L, "Cohen, Dana", 2, GuestStatus.CONFIRMED, GuestSide.BRIDE,
+                GuestRelation.BRIDE_FAMILY, false, true),
+            new SeatingPlanRow(1L, "Wedding", null, null, 101L, "Levi \"Dudu\"", 1, GuestStatus.WAITING_APPROVAL, null,
+                GuestRelation.GROOM_FRIENDS, null, false)
+        ).onClose(() -> closed.set(true));
+        when(guestRepository.streamSeatingPlanByEventIdAndEventUserIsCurrentUser(1L)).thenReturn(rows);
+    }
+
+    private String export(SeatingPlanExportService.Format format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(seatingPlanExportService.export(1L, format, out)).isEqualTo(2);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void exportsOneJsonObjectPerLineAndClosesTheStream() throws Exception {
+        String[] lines = export(SeatingPlanExportService.Format.NDJSON).split("\n");
+
+        assertThat(lines).hasSize(2);
+        assertThat(new ObjectMapper().readTree(lines[0]).get("lastNameAndFirstName").asText()).isEqualTo("Cohen, Dana");
+        assertThat(new ObjectMapper().readTree(lines[1]).get("tableNumber").isNull()).isTrue();
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void exportsQuotedCsvWithAHeaderLine() throws Exception {
+        String[] lines = export(SeatingPlanExportService.Format.CSV).split("\r\n");
+
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).startsWith("eventId,eventName,tableId");
+        assertThat(lines[1]).isEqualTo("1,Wedding,10,1,100,\"Cohen, Dana\",2,CONFIRMED,BRIDE,BRIDE_FAMILY,false,true");
+        assertThat(lines[2]).isEqualTo("1,Wedding,,,101,\"Levi \"\"Dudu\"\"\",1,WAITING_APPROVAL,,GROOM_FRIENDS,,false");
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void parsesFormatNamesIgnoringCase() {
+        assertThat(SeatingPlanExportService.Format.of("csv")).isEqualTo(SeatingPlanExportService.Format.CSV);
+        assertThatThrownBy(() -> SeatingPlanExportService.Format.of("xml")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,57 @@
+package com.lavi.tablearrangments.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.lavi.tablearrangments.domain.Guest;
+import com.lavi.tablearrangments.domain.SeatingTable;
+import com.lavi.tablearrangments.domain.enumeration.GuestRelation;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SolveFingerprintTest {
+
+    private static final int[] COEFFICIENTS = { 200, 250, 150, 50, 10 };
+
+    private static Guest guest(long id) {
+        return new Guest().id(id).lastNameAndFirstName("Guest " + id).numberOfSeats(1).relation(GuestRelation.GROOM_FAMILY);
+    }
+
+    private static SeatingTable table(long id) {
+        return new SeatingTable().id(id).tableNumber((int) id).maxSeats(4).accessibility(false).nearStage(false);
+    }
+
+    private static String fingerprint(List<Guest> guests, List<SeatingTable> tables) {
+        return SolveFingerprint.of(1L, guests, tables, COEFFICIENTS, Duration.ZERO);
+    }
+
+    @Test
+    void ignoresLoadOrderAndCurrentAssignment() {
+        Guest first = guest(1L);
+        Guest second = guest(2L);
+        first.addAvoidGuests(second);
+        String fingerprint = fingerprint(List.of(first, second), List.of(table(1L), table(2L)));
+
+        second.setTable(table(2L));
+
+        assertThat(fingerprint(List.of(second, first), List.of(table(2L), table(1L)))).isEqualTo(fingerprint);
+    }
+
+    @Test
+    void changesWithGuestsLinksTablesAndLocalSearchTime() {
+        Guest first = guest(1L);
+        Guest second = guest(2L);
+        List<Guest> guests = List.of(first, second);
+        List<SeatingTable> tables = List.of(table(1L));
+        String fingerprint = fingerprint(guests, tables);
+
+        first.addPreferGuests(second);
+        String linked = fingerprint(guests, tables);
+        second.setNumberOfSeats(2);
+        String resized = fingerprint(guests, tables);
+
+        assertThat(List.of(fingerprint, linked, resized)).doesNotHaveDuplicates();
+        assertThat(fingerprint(guests, List.of(table(1L).maxSeats(6)))).isNotEqualTo(resized);
+        assertThat(SolveFingerprint.of(1L, guests, tables, COEFFICIENTS, Duration.ofSeconds(1))).isNotEqualTo(resized);
+    }
+}
@@ -0,0 +1,65 @@
+package com.lavi.tablearrangments.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.lavi.tablearrangments.config.ApplicationProperties;
+import com.lavi.tablearrangments.service.dto.AssignmentResultDTO.Termination;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class SolverLimitsTest {
+
+    @Test
+    void requestOverridesOnlyTightenConfiguredLimits() {
+        ApplicationProperties.Solver solver = new ApplicationProperties.Solver();
+        solver.setTimeBudget(Duration.ofSeconds(10));
+        solver.setNodeLimit(0);
+
+        SolverLimits tighter = SolverLimits.of(solver, 500L, 1000L);
+        assertThat(tighter.getTimeBudget()).isEqualTo(Duration.ofMillis(500));
+        assertThat(tighter.getNodeLimit()).isEqualTo(1000L);
+
+        SolverLimits looser = SolverLimits.of(solver, 60_000L, -1L);
+        assertThat(looser.getTimeBudget()).isEqualTo(Duration.ofSeconds(10));
+        assertThat(looser.getNodeLimit()).isZero();
+    }
+
+    @Test
+    void budgetStaysExhaustedOnceNodeLimitIsHit() {
+        ApplicationProperties.Solver solver = new ApplicationProperties.Solver();
+        solver.setTimeBudget(Duration.ZERO);
+        SearchBudget budget = SolverLimits.of(solver, null, 3L).start();
+
+        assertThat(budget.shouldStop(2)).isFalse();
+        assertThat(budget.getTermination()).isEqualTo(Termination.COMPLETED);
+        assertThat(budget.shouldStop(3)).isTrue();
+        assertThat(budget.isStopped()).isTrue();
+        assertThat(budget.isExhausted()).isTrue();
+        assertThat(budget.getTermination()).isEqualTo(Termination.NODE_LIMIT);
+        assertThat(SolverLimits.unlimited().start().shouldStop(Long.MAX_VALUE - 1)).isFalse();
+    }
+
+    @Test
+    void exhaustedSearchSpaceOverridesALateLimit() {
+        ApplicationProperties.Solver solver = new ApplicationProperties.Solver();
+        solver.setTimeBudget(Duration.ZERO);
+        SearchBudget budget = SolverLimits.of(solver, null, 3L).start();
+
+        assertThat(budget.shouldStop(3)).isTrue();
+        budget.stop();
+
+        assertThat(budget.isExhausted()).isFalse();
+        assertThat(budget.getTermination()).isEqualTo(Termination.COMPLETED);
+    }
+
+    @Test
+    void remainingTimeNeverExceedsTheBudgetAndIsEmptyWithoutOne() {
+        SearchBudget budget = SolverLimits.of(Duration.ofSeconds(5), 0L).start();
+
+        assertThat(budget.getRemainingTime()).hasValueSatisfying(left ->
+            assertThat(left).isPositive().isLessThanOrEqualTo(Duration.ofSeconds(5))
+        );
+        assertThat(SolverLimits.of(Duration.ofNanos(1), 0L).start().getRemainingTime()).contains(Duration.ZERO);
+        assertThat(SolverLimits.unlimited().start().getRemainingTime()).isEmpty();
+    }
+}
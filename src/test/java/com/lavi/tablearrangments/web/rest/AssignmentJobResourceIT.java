@@ -0,0 +1,170 @@
+package com.lavi.tablearrangments.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lavi.tablearrangments.IntegrationTest;
+import com.lavi.tablearrangments.domain.Event;
+import com.lavi.tablearrangments.domain.Guest;
+import com.lavi.tablearrangments.domain.SeatingTable;
+import com.lavi.tablearrangments.repository.UserRepository;
+import com.lavi.tablearrangments.service.dto.AssignmentJobDTO;
+import jakarta.persistence.EntityManager;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link AssignmentJobResource} REST controller.
+ * <p>
+ * Jobs run on the calling thread in tests, so a submitted job has finished by the time the request returns. Queued and
+ * rejected jobs are simulated by stubbing the job executor.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class AssignmentJobResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/guests/assign/jobs";
+    private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restAssignmentJobMockMvc;
+
+    @MockitoSpyBean(name = "assignmentTaskExecutor")
+    private AsyncTaskExecutor assignmentTaskExecutor;
+
+    private SeatingTable table;
+
+    private Guest guest;
+
+    @BeforeEach
+    void initTest() {
+        Event event = EventResourceIT.createEntity().user(userRepository.findOneByLogin("user").orElseThrow());
+        em.persist(event);
+        table = SeatingTableResourceIT.createEntity().maxSeats(4).event(event);
+        em.persist(table);
+        guest = GuestResourceIT.createEntity().event(event);
+        em.persist(guest);
+        em.flush();
+    }
+
+    @Test
+    @Transactional
+    void submitAssignmentJob() throws Exception {
+        AssignmentJobDTO job = submit();
+
+        assertThat(job.getStatus()).isEqualTo(AssignmentJobDTO.Status.COMPLETED);
+        restAssignmentJobMockMvc
+            .perform(get(ENTITY_API_URL_ID, job.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("COMPLETED"));
+        restAssignmentJobMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/result", job.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.unassignedGroups").value(0))
+            .andExpect(jsonPath("$.guestTableIds['" + guest.getId() + "']").value(table.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    void submitAssignmentJobWhenTheQueueIsFull() throws Exception {
+        doThrow(new TaskRejectedException("Queue full")).when(assignmentTaskExecutor).submit(any(Runnable.class));
+
+        restAssignmentJobMockMvc.perform(post(ENTITY_API_URL)).andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    @Transactional
+    void getResultOfAQueuedJob() throws Exception {
+        doReturn(new CompletableFuture<>()).when(assignmentTaskExecutor).submit(any(Runnable.class));
+        AssignmentJobDTO job = submit();
+
+        assertThat(job.getStatus()).isEqualTo(AssignmentJobDTO.Status.QUEUED);
+        restAssignmentJobMockMvc.perform(get(ENTITY_API_URL_ID + "/result", job.getId())).andExpect(status().isConflict());
+    }
+
+    @Test
+    @Transactional
+    void cancelAssignmentJob() throws Exception {
+        doReturn(new CompletableFuture<>()).when(assignmentTaskExecutor).submit(any(Runnable.class));
+        AssignmentJobDTO job = submit();
+
+        restAssignmentJobMockMvc
+            .perform(delete(ENTITY_API_URL_ID, job.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("CANCELLED"));
+        restAssignmentJobMockMvc
+            .perform(get(ENTITY_API_URL_ID, job.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("CANCELLED"));
+        restAssignmentJobMockMvc.perform(get(ENTITY_API_URL_ID + "/result", job.getId())).andExpect(status().isConflict());
+    }
+
+    @Test
+    @Transactional
+    void cancelFinishedAssignmentJob() throws Exception {
+        AssignmentJobDTO job = submit();
+
+        restAssignmentJobMockMvc
+            .perform(delete(ENTITY_API_URL_ID, job.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("COMPLETED"));
+    }
+
+    @Test
+    @Transactional
+    void getAnotherUsersAssignmentJob() throws Exception {
+        AssignmentJobDTO job = submit();
+
+        restAssignmentJobMockMvc.perform(get(ENTITY_API_URL_ID, job.getId()).with(user("admin"))).andExpect(status().isNotFound());
+        restAssignmentJobMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/result", job.getId()).with(user("admin")))
+            .andExpect(status().isNotFound());
+        restAssignmentJobMockMvc.perform(delete(ENTITY_API_URL_ID, job.getId()).with(user("admin"))).andExpect(status().isNotFound());
+        restAssignmentJobMockMvc.perform(get(ENTITY_API_URL_ID, job.getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    @Transactional
+    void getNonExistingAssignmentJob() throws Exception {
+        restAssignmentJobMockMvc.perform(get(ENTITY_API_URL_ID, "unknown")).andExpect(status().isNotFound());
+        restAssignmentJobMockMvc.perform(get(ENTITY_API_URL_ID + "/result", "unknown")).andExpect(status().isNotFound());
+    }
+
+    private AssignmentJobDTO submit() throws Exception {
+        return om.readValue(
+            restAssignmentJobMockMvc
+                .perform(post(ENTITY_API_URL))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            AssignmentJobDTO.class
+        );
+    }
+}
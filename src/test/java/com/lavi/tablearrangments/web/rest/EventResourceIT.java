@@ -3,6 +3,7 @@ package com.lavi.tablearrangments.web.rest;
 import static com.lavi.tablearrangments.domain.EventAsserts.*;
 import static com.lavi.tablearrangments.web.rest.TestUtil.createUpdateProxyForBean;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -11,8 +12,13 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lavi.tablearrangments.IntegrationTest;
 import com.lavi.tablearrangments.domain.Event;
+import com.lavi.tablearrangments.domain.Guest;
+import com.lavi.tablearrangments.domain.SeatingTable;
 import com.lavi.tablearrangments.repository.EventRepository;
+import com.lavi.tablearrangments.repository.GuestRepository;
+import com.lavi.tablearrangments.repository.SeatingTableRepository;
 import com.lavi.tablearrangments.repository.UserRepository;
+import com.lavi.tablearrangments.service.dto.AssignmentJobDTO;
 import jakarta.persistence.EntityManager;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -31,9 +37,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -81,6 +89,12 @@ class EventResourceIT {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private SeatingTableRepository seatingTableRepository;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
     @Mock
     private EventRepository eventRepositoryMock;
 
@@ -528,6 +542,87 @@ class EventResourceIT {
         assertDecrementedRepositoryCount(databaseSizeBeforeDelete);
     }
 
+    @Test
+    @Transactional
+    void assignAnotherUsersEvent() throws Exception {
+        Event otherEvent = persistEventOf("admin");
+
+        restEventMockMvc.perform(post(ENTITY_API_URL_ID + "/assign", otherEvent.getId())).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void assignEventInTheBackground() throws Exception {
+        Event ownEvent = persistEventOf("user");
+        SeatingTable table = SeatingTableResourceIT.createEntity().maxSeats(4).event(ownEvent);
+        em.persist(table);
+        Guest guest = GuestResourceIT.createEntity().event(ownEvent);
+        em.persist(guest);
+        em.flush();
+
+        var job = om.readValue(
+            restEventMockMvc
+                .perform(post(ENTITY_API_URL_ID + "/assign", ownEvent.getId()))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            AssignmentJobDTO.class
+        );
+        assertThat(job.getEventId()).isEqualTo(ownEvent.getId());
+        assertThat(job.getStatus()).isEqualTo(AssignmentJobDTO.Status.COMPLETED);
+
+        restEventMockMvc
+            .perform(get("/api/guests/assign/jobs/{id}/result", job.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.unassignedGroups").value(0))
+            .andExpect(jsonPath("$.guestTableIds['" + guest.getId() + "']").value(table.getId().intValue()));
+    }
+
+    @Test
+    void exportSeatingPlan() throws Exception {
+        // Initialize the database; the export reads outside the test transaction, so the rows are committed
+        Event ownEvent = eventRepository.saveAndFlush(createEntity().user(userRepository.findOneByLogin("user").orElseThrow()));
+        Event otherEvent = eventRepository.saveAndFlush(createEntity().user(userRepository.findOneByLogin("admin").orElseThrow()));
+        SeatingTable table = seatingTableRepository.saveAndFlush(SeatingTableResourceIT.createEntity().event(ownEvent));
+        Guest guest = guestRepository.saveAndFlush(GuestResourceIT.createEntity().event(ownEvent).table(table));
+        try {
+            MvcResult export = restEventMockMvc
+                .perform(get(ENTITY_API_URL_ID + "/seating-plan", ownEvent.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            restEventMockMvc
+                .perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("seating-plan-" + ownEvent.getId() + ".ndjson")))
+                .andExpect(jsonPath("$.eventId").value(ownEvent.getId().intValue()))
+                .andExpect(jsonPath("$.tableId").value(table.getId().intValue()))
+                .andExpect(jsonPath("$.guestId").value(guest.getId().intValue()));
+
+            restEventMockMvc.perform(get(ENTITY_API_URL_ID + "/seating-plan", otherEvent.getId())).andExpect(status().isNotFound());
+        } finally {
+            guestRepository.delete(guest);
+            seatingTableRepository.delete(table);
+            eventRepository.delete(ownEvent);
+            eventRepository.delete(otherEvent);
+        }
+    }
+
+    @Test
+    @Transactional
+    void exportSeatingPlanWithUnknownFormat() throws Exception {
+        restEventMockMvc.perform(get(ENTITY_API_URL_ID + "/seating-plan?format=xml", 1L)).andExpect(status().isBadRequest());
+    }
+
+    private Event persistEventOf(String login) {
+        Event ownedEvent = createEntity().user(userRepository.findOneByLogin(login).orElseThrow());
+        em.persist(ownedEvent);
+        em.flush();
+        return ownedEvent;
+    }
+
     protected long getRepositoryCount() {
         return eventRepository.count();
     }
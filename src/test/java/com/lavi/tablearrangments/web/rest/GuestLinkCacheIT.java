@@ -0,0 +1,109 @@
+package com.lavi.tablearrangments.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lavi.tablearrangments.IntegrationTest;
+import com.lavi.tablearrangments.domain.Event;
+import com.lavi.tablearrangments.domain.Guest;
+import com.lavi.tablearrangments.repository.EventRepository;
+import com.lavi.tablearrangments.repository.GuestRepository;
+import com.lavi.tablearrangments.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests of the guest links with the Hibernate second-level and query caches turned on, as in production.
+ * <p>
+ * The tests are not transactional: every request commits, so reads go through the caches the previous requests filled.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+@TestPropertySource(
+    properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=fail"
+    }
+)
+class GuestLinkCacheIT {
+
+    private static final String ENTITY_API_URL = "/api/guests";
+    private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MockMvc restGuestMockMvc;
+
+    private Event event;
+
+    private Guest guest;
+
+    private Guest other;
+
+    @BeforeEach
+    void initTest() {
+        event = eventRepository.saveAndFlush(EventResourceIT.createEntity().user(userRepository.findOneByLogin("user").orElseThrow()));
+        guest = guestRepository.saveAndFlush(GuestResourceIT.createEntity().event(event));
+        other = guestRepository.saveAndFlush(GuestResourceIT.createEntity().lastNameAndFirstName("Other").event(event));
+    }
+
+    @AfterEach
+    void cleanup() {
+        guestRepository.deleteById(guest.getId());
+        guestRepository.deleteById(other.getId());
+        eventRepository.deleteById(event.getId());
+        guestRepository.evictLinkCaches();
+    }
+
+    @Test
+    void updatedAvoidLinksAreVisibleThroughTheCaches() throws Exception {
+        restGuestMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,asc"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[?(@.id == " + guest.getId() + ")].avoidGuests[*]").value(empty()));
+        assertThat(entityManagerFactory.unwrap(SessionFactory.class).getCache().containsEntity(Guest.class, guest.getId())).isTrue();
+
+        guest.addAvoidGuests(other);
+        restGuestMockMvc
+            .perform(put(ENTITY_API_URL_ID, guest.getId()).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(guest)))
+            .andExpect(status().isOk());
+
+        restGuestMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,asc"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[?(@.id == " + guest.getId() + ")].avoidGuests[*].id").value(hasItem(other.getId().intValue())));
+        restGuestMockMvc
+            .perform(get(ENTITY_API_URL_ID, guest.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.avoidGuests[*].id").value(hasItem(other.getId().intValue())));
+    }
+}
@@ -3,6 +3,8 @@ package com.lavi.tablearrangments.web.rest;
 import static com.lavi.tablearrangments.domain.GuestAsserts.*;
 import static com.lavi.tablearrangments.web.rest.TestUtil.createUpdateProxyForBean;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -10,13 +12,17 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lavi.tablearrangments.IntegrationTest;
+import com.lavi.tablearrangments.domain.Event;
 import com.lavi.tablearrangments.domain.Guest;
 import com.lavi.tablearrangments.domain.enumeration.GuestRelation;
 import com.lavi.tablearrangments.domain.enumeration.GuestSide;
 import com.lavi.tablearrangments.domain.enumeration.GuestStatus;
+import com.lavi.tablearrangments.repository.EventRepository;
 import com.lavi.tablearrangments.repository.GuestRepository;
+import com.lavi.tablearrangments.repository.UserRepository;
 import jakarta.persistence.EntityManager;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.AfterEach;
@@ -29,10 +35,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.util.UriComponentsBuilder;
 
 /**
  * Integration tests for the {@link GuestResource} REST controller.
@@ -79,6 +88,12 @@ class GuestResourceIT {
     @Autowired
     private GuestRepository guestRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
     @Mock
     private GuestRepository guestRepositoryMock;
 
@@ -549,6 +564,117 @@ class GuestResourceIT {
         assertDecrementedRepositoryCount(databaseSizeBeforeDelete);
     }
 
+    @Test
+    @Transactional
+    void getAllGuestsByKeyset() throws Exception {
+        // Initialize the database
+        Event event = persistEventOfCurrentUser();
+        List<Guest> guests = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Guest keysetGuest = createEntity().event(event);
+            em.persist(keysetGuest);
+            guests.add(keysetGuest);
+        }
+        em.flush();
+
+        // Read the guests two at a time, in id order, following the next links
+        MvcResult first = restGuestMockMvc
+            .perform(get(ENTITY_API_URL + "?cursor=&size=2&count=true"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "3"))
+            .andExpect(jsonPath("$.[*].id").value(contains(guests.get(0).getId().intValue(), guests.get(1).getId().intValue())))
+            .andReturn();
+        restGuestMockMvc
+            .perform(get(ENTITY_API_URL + "?size=2").param("cursor", nextCursor(first)))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.LINK))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.[*].id").value(contains(guests.get(2).getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllGuestsByKeysetOrderedByName() throws Exception {
+        // Initialize the database
+        Event event = persistEventOfCurrentUser();
+        for (String name : List.of("Levi Dana", "Cohen Avi", "Abu Noa")) {
+            em.persist(createEntity().lastNameAndFirstName(name).event(event));
+        }
+        em.flush();
+
+        // Read the guests two at a time, in name order, following the next links
+        MvcResult first = restGuestMockMvc
+            .perform(get(ENTITY_API_URL + "?cursor=&orderByName=true&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.[*].lastNameAndFirstName").value(contains("Abu Noa", "Cohen Avi")))
+            .andReturn();
+        restGuestMockMvc
+            .perform(get(ENTITY_API_URL + "?size=2").param("cursor", nextCursor(first)))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.LINK))
+            .andExpect(jsonPath("$.[*].lastNameAndFirstName").value(contains("Levi Dana")));
+    }
+
+    @Test
+    @Transactional
+    void getAllGuestsWithInvalidCursor() throws Exception {
+        restGuestMockMvc.perform(get(ENTITY_API_URL + "?cursor=not-a-cursor")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportSeatingPlan() throws Exception {
+        // Initialize the database; the export reads outside the test transaction, so the rows are committed
+        Event event = EventResourceIT.createEntity().user(userRepository.findOneByLogin("user").orElseThrow());
+        eventRepository.saveAndFlush(event);
+        Guest first = guestRepository.saveAndFlush(createEntity().lastNameAndFirstName("Cohen, Dana").event(event));
+        Guest second = guestRepository.saveAndFlush(createEntity().lastNameAndFirstName("Levi Avi").event(event));
+        try {
+            MvcResult export = restGuestMockMvc
+                .perform(get(ENTITY_API_URL + "/seating-plan?format=csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            String[] lines = restGuestMockMvc
+                .perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("seating-plan.csv")))
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .split("\r\n");
+
+            assertThat(lines).hasSize(3);
+            assertThat(lines[0]).startsWith("eventId,eventName,tableId");
+            String eventColumns = event.getId() + "," + event.getEventName() + ",,,";
+            assertThat(lines[1]).isEqualTo(eventColumns + first.getId() + ",\"Cohen, Dana\",1,CONFIRMED,GROOM,GROOM_FAMILY,false,false");
+            assertThat(lines[2]).startsWith(eventColumns + second.getId() + ",Levi Avi,");
+        } finally {
+            guestRepository.delete(first);
+            guestRepository.delete(second);
+            eventRepository.delete(event);
+        }
+    }
+
+    @Test
+    @Transactional
+    void exportSeatingPlanWithUnknownFormat() throws Exception {
+        restGuestMockMvc.perform(get(ENTITY_API_URL + "/seating-plan?format=xml")).andExpect(status().isBadRequest());
+    }
+
+    private Event persistEventOfCurrentUser() {
+        Event event = EventResourceIT.createEntity().user(userRepository.findOneByLogin("user").orElseThrow());
+        em.persist(event);
+        return event;
+    }
+
+    private static String nextCursor(MvcResult result) {
+        String link = result.getResponse().getHeader(HttpHeaders.LINK);
+        assertThat(link).endsWith("; rel=\"next\"");
+        String uri = link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+        return UriComponentsBuilder.fromUriString(uri).build().getQueryParams().getFirst("cursor");
+    }
+
     protected long getRepositoryCount() {
         return guestRepository.count();
     }
@@ -0,0 +1,27 @@
+package com.lavi.tablearrangments.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.junit.jupiter.api.Test;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTripsCursorsByIdAndByName() {
+        KeysetCursor byId = KeysetCursor.first(false).after("ignored", 42L);
+        KeysetCursor byName = KeysetCursor.first(true).after("Cohen: Dana", 7L);
+
+        assertThat(byId.byName()).isFalse();
+        assertThat(KeysetCursor.decode(byId.encode())).isEqualTo(new KeysetCursor(null, 42L));
+        assertThat(KeysetCursor.decode(byName.encode())).isEqualTo(new KeysetCursor("Cohen: Dana", 7L));
+        assertThat(byName.encode()).doesNotContain("Cohen").matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThatIllegalArgumentException().isThrownBy(() -> KeysetCursor.decode("not base64!"));
+        assertThatIllegalArgumentException().isThrownBy(() -> KeysetCursor.decode(new KeysetCursor(null, 1L).encode().substring(1)));
+        assertThatIllegalArgumentException().isThrownBy(() -> KeysetCursor.decode("eDox"));
+    }
+}
@@ -3,6 +3,7 @@ package com.lavi.tablearrangments.web.rest;
 import static com.lavi.tablearrangments.domain.SeatingTableAsserts.*;
 import static com.lavi.tablearrangments.web.rest.TestUtil.createUpdateProxyForBean;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -10,10 +11,13 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lavi.tablearrangments.IntegrationTest;
+import com.lavi.tablearrangments.domain.Event;
 import com.lavi.tablearrangments.domain.SeatingTable;
 import com.lavi.tablearrangments.repository.SeatingTableRepository;
+import com.lavi.tablearrangments.repository.UserRepository;
 import jakarta.persistence.EntityManager;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.AfterEach;
@@ -26,10 +30,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.util.UriComponentsBuilder;
 
 /**
  * Integration tests for the {@link SeatingTableResource} REST controller.
@@ -64,6 +71,9 @@ class SeatingTableResourceIT {
     @Autowired
     private SeatingTableRepository seatingTableRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
     @Mock
     private SeatingTableRepository seatingTableRepositoryMock;
 
@@ -466,6 +476,52 @@ class SeatingTableResourceIT {
         assertDecrementedRepositoryCount(databaseSizeBeforeDelete);
     }
 
+    @Test
+    @Transactional
+    void getAllSeatingTablesByKeyset() throws Exception {
+        // Initialize the database
+        Event event = EventResourceIT.createEntity().user(userRepository.findOneByLogin("user").orElseThrow());
+        em.persist(event);
+        List<SeatingTable> seatingTables = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            SeatingTable keysetTable = createEntity().tableNumber(i).event(event);
+            em.persist(keysetTable);
+            seatingTables.add(keysetTable);
+        }
+        em.flush();
+
+        // Read the tables two at a time, in id order, following the next links
+        MvcResult first = restSeatingTableMockMvc
+            .perform(get(ENTITY_API_URL + "?cursor=&size=2&count=true"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "3"))
+            .andExpect(
+                jsonPath("$.[*].id").value(contains(seatingTables.get(0).getId().intValue(), seatingTables.get(1).getId().intValue()))
+            )
+            .andReturn();
+        restSeatingTableMockMvc
+            .perform(get(ENTITY_API_URL + "?size=2").param("cursor", nextCursor(first)))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.LINK))
+            .andExpect(jsonPath("$.[*].id").value(contains(seatingTables.get(2).getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllSeatingTablesWithInvalidCursor() throws Exception {
+        restSeatingTableMockMvc.perform(get(ENTITY_API_URL + "?cursor=not-a-cursor")).andExpect(status().isBadRequest());
+        // Tables are only paged in id order
+        String byNameCursor = KeysetCursor.first(true).after("Table", 1L).encode();
+        restSeatingTableMockMvc.perform(get(ENTITY_API_URL).param("cursor", byNameCursor)).andExpect(status().isBadRequest());
+    }
+
+    private static String nextCursor(MvcResult result) {
+        String link = result.getResponse().getHeader(HttpHeaders.LINK);
+        assertThat(link).endsWith("; rel=\"next\"");
+        String uri = link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+        return UriComponentsBuilder.fromUriString(uri).build().getQueryParams().getFirst("cursor");
+    }
+
     protected long getRepositoryCount() {
         return seatingTableRepository.count();
     }